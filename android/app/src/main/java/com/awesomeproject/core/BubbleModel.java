@@ -0,0 +1,29 @@
+package com.awesomeproject.core;
+
+import com.facebook.react.bridge.ReadableMap;
+
+// Bubble content, decoded off the UI thread (see OverlayModel). Immutable.
+final class BubbleModel {
+
+    static final int NO_BADGE = -1; // payload didn't mention it, leave the badge as it is
+
+    final int badgeCount;
+
+    private BubbleModel(int badgeCount) {
+        this.badgeCount = badgeCount;
+    }
+
+    static BubbleModel decode(ReadableMap payload) throws OverlayException {
+        double badge = OverlayModel.optNumber(payload, "badgeCount", NO_BADGE);
+        return new BubbleModel(badge < 0 ? NO_BADGE : (int) badge);
+    }
+
+    // a count passed as a plain argument (postBadgeCount); no "leave it" value there, so NaN or
+    // negative is a bad value rather than NO_BADGE
+    static BubbleModel of(double badgeCount) throws OverlayException {
+        if (!(badgeCount >= 0 && badgeCount <= Integer.MAX_VALUE)) {
+            throw OverlayModel.invalid("badgeCount", "a count of 0 or more");
+        }
+        return new BubbleModel((int) badgeCount);
+    }
+}
@@ -0,0 +1,76 @@
+package com.awesomeproject.core;
+
+import android.view.Choreographer;
+
+// Drives the bubble window to its snap position on Choreographer frames using EdgeSnapSolver.
+// Nothing is allocated per frame. Must be used from the UI thread.
+class BubbleSnapAnimator implements Choreographer.FrameCallback {
+
+    interface Listener {
+        // called every frame with the new window position
+        void onPosition(int x, int y);
+        // called once when the bubble comes to rest (not on cancel)
+        void onSettled(int x, int y);
+    }
+
+    private static final float DEFAULT_FRAME_S = 1f / 60f;
+    private static final float MAX_FRAME_S = 1f / 30f; // don't jump after a dropped frame
+
+    private final EdgeSnapSolver mSolver = new EdgeSnapSolver();
+    private final Listener mListener;
+    private long mLastFrameNanos = 0;
+    private boolean mRunning = false;
+
+    BubbleSnapAnimator(Listener listener) {
+        mListener = listener;
+    }
+
+    void start(float x, float y, float velocityX, float velocityY,
+               int minX, int maxX, int minY, int maxY, float minFlingVelocity) {
+        cancel();
+        mSolver.start(x, y, velocityX, velocityY, minX, maxX, minY, maxY, minFlingVelocity);
+        mLastFrameNanos = 0;
+        mRunning = true;
+        postFrame();
+    }
+
+    // stop where we are, e.g. a new ACTION_DOWN grabbed the bubble
+    void cancel() {
+        if (!mRunning) return;
+        mRunning = false;
+        mSolver.stop();
+        removeFrame();
+    }
+
+    boolean isRunning() {
+        return mRunning;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mRunning) return;
+        float dt = mLastFrameNanos == 0
+                ? DEFAULT_FRAME_S
+                : Math.min(MAX_FRAME_S, (frameTimeNanos - mLastFrameNanos) / 1_000_000_000f);
+        mLastFrameNanos = frameTimeNanos;
+
+        boolean settled = mSolver.step(dt);
+        mListener.onPosition(mSolver.getX(), mSolver.getY());
+        if (settled) {
+            mRunning = false;
+            mListener.onSettled(mSolver.getX(), mSolver.getY());
+        } else {
+            postFrame();
+        }
+    }
+
+    // --- Frame scheduling, overridable so tests can drive vsync by hand ---
+
+    void postFrame() {
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    void removeFrame() {
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+}
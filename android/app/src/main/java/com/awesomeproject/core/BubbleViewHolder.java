@@ -0,0 +1,48 @@
+package com.awesomeproject.core;
+
+import android.view.View;
+import android.widget.TextView;
+
+import com.awesomeproject.R;
+
+// Typed references into an inflated bubble, plus the last badge count we bound.
+final class BubbleViewHolder {
+
+    final View root;
+    final TextView badge;
+    private int mBadgeCount = 0; // matches the XML: badge hidden
+
+    private BubbleViewHolder(View root) {
+        this.root = root;
+        badge = root.findViewById(R.id.bubble_badge);
+    }
+
+    static BubbleViewHolder of(View root) {
+        Object tag = root.getTag();
+        if (tag instanceof BubbleViewHolder) {
+            return (BubbleViewHolder) tag;
+        }
+        BubbleViewHolder holder = new BubbleViewHolder(root);
+        root.setTag(holder);
+        return holder;
+    }
+
+    // skip the view entirely if the count hasn't changed
+    void bindBadge(int count) {
+        if (count == mBadgeCount) return;
+        if (count > 0) {
+            badge.setText(String.valueOf(count));
+        }
+        if ((count > 0) != (mBadgeCount > 0)) {
+            badge.setVisibility(count > 0 ? View.VISIBLE : View.GONE);
+        }
+        mBadgeCount = count;
+    }
+
+    void reset() {
+        root.setOnTouchListener(null);
+        root.setAlpha(1f);
+        root.setLayerType(View.LAYER_TYPE_NONE, null); // drag layer, if it was never settled
+        bindBadge(0);
+    }
+}
@@ -0,0 +1,170 @@
+package com.awesomeproject.core;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+
+import java.util.Collections;
+import java.util.Map;
+
+// Trip card content, decoded and validated off the UI thread (see OverlayModel): texts, the fare
+// already in paise, add-on rules, offer id and expiry. Immutable, binding it is pure view work.
+final class CardModel {
+
+    @Nullable final String offerId; // null for a standalone card from JS
+    final int priority; // only used while queued
+    final long expiresAtMs; // 0 = no countdown
+
+    // null = not in the payload, an update leaves that view alone; "" clears it
+    @Nullable final String pickupAddress;
+    @Nullable final String dropoffAddress;
+    @Nullable final String distance;
+    @Nullable final String duration;
+    @Nullable final String customerName;
+    @Nullable final String carType;
+
+    // pickup point, NaN when not given; with it native keeps distance/duration live (TripEtaUpdater)
+    final double pickupLatitude;
+    final double pickupLongitude;
+
+    final long basePaise;
+    final long[] addonPaise; // one per add-on button, never modified (FareModel copies it)
+    final long capPaise; // < 0 = no cap
+    final boolean stacking; // false for addonMode "single"
+
+    final boolean drawn; // cardRenderer "drawn": a TripCardView instead of the XML layout; show/transition only
+
+    final Map<String, Object> data; // the payload as plain values, for snapshots of queued offers
+
+    private CardModel(ReadableMap payload, Map<String, Object> data) throws OverlayException {
+        this.data = data;
+        offerId = OverlayModel.optString(payload, "offerId");
+        priority = (int) OverlayModel.optNumber(payload, "priority", 0);
+        expiresAtMs = (long) OverlayModel.optNumber(payload, "expiresAt", 0);
+
+        pickupAddress = optText(payload, "pickupAddress");
+        dropoffAddress = optText(payload, "dropoffAddress");
+        distance = optText(payload, "distance");
+        duration = optText(payload, "duration");
+        customerName = optText(payload, "customerName");
+        carType = optText(payload, "carType");
+
+        pickupLatitude = optCoordinate(payload, "pickupLatitude", 90);
+        pickupLongitude = optCoordinate(payload, "pickupLongitude", 180);
+        if (Double.isNaN(pickupLatitude) != Double.isNaN(pickupLongitude)) {
+            throw new OverlayException("E_INVALID_DATA", "pickupLatitude and pickupLongitude go together.");
+        }
+
+        basePaise = decodeBaseFare(payload);
+        addonPaise = decodeAddons(payload);
+        capPaise = payload.hasKey("maxAddon") && !payload.isNull("maxAddon")
+                ? FareModel.rupeesToPaise(OverlayModel.optNumber(payload, "maxAddon", 0))
+                : FareModel.DEFAULT_ADDON_CAP_PAISE;
+        String addonMode = OverlayModel.optString(payload, "addonMode");
+        if (addonMode != null && !"stack".equals(addonMode) && !"single".equals(addonMode)) {
+            throw OverlayModel.invalid("addonMode", "\"stack\" or \"single\"");
+        }
+        stacking = !"single".equals(addonMode);
+
+        String renderer = OverlayModel.optString(payload, "cardRenderer");
+        if (renderer != null && !"layout".equals(renderer) && !"drawn".equals(renderer)) {
+            throw OverlayModel.invalid("cardRenderer", "\"layout\" or \"drawn\"");
+        }
+        drawn = "drawn".equals(renderer);
+    }
+
+    // distance/duration only (postCardTrip), everything else as an update payload without those keys
+    private CardModel(@Nullable String distance, @Nullable String duration, Map<String, Object> data) {
+        this.data = data;
+        offerId = null;
+        priority = 0;
+        expiresAtMs = 0;
+        pickupAddress = null;
+        dropoffAddress = null;
+        this.distance = distance;
+        this.duration = duration;
+        customerName = null;
+        carType = null;
+        pickupLatitude = Double.NaN;
+        pickupLongitude = Double.NaN;
+        basePaise = 0;
+        addonPaise = FareModel.DEFAULT_ADDONS_PAISE;
+        capPaise = FareModel.DEFAULT_ADDON_CAP_PAISE;
+        stacking = true;
+        drawn = false;
+    }
+
+    static CardModel decode(ReadableMap payload) throws OverlayException {
+        return decode(payload, Collections.unmodifiableMap(PlainMaps.toPlain(payload)));
+    }
+
+    static CardModel decode(ReadableMap payload, Map<String, Object> data) throws OverlayException {
+        return new CardModel(payload, data);
+    }
+
+    static CardModel trip(@Nullable String distance, @Nullable String duration, Map<String, Object> data) {
+        return new CardModel(distance, duration, data);
+    }
+
+    // a queued offer needs an id, it's how JS and the queue refer to it
+    static CardModel decodeOffer(ReadableMap payload) throws OverlayException {
+        CardModel offer = decode(payload);
+        if (offer.offerId == null) {
+            throw new OverlayException("E_INVALID_OFFER", "Offer id missing.");
+        }
+        return offer;
+    }
+
+    boolean hasPickupLocation() {
+        return !Double.isNaN(pickupLatitude);
+    }
+
+    private static double optCoordinate(ReadableMap payload, String key, double limit) throws OverlayException {
+        double value = OverlayModel.optNumber(payload, key, Double.NaN);
+        if (!Double.isNaN(value) && (value < -limit || value > limit)) {
+            throw OverlayModel.invalid(key, "between -" + (int) limit + " and " + (int) limit);
+        }
+        return value;
+    }
+
+    @Nullable
+    private static String optText(ReadableMap payload, String key) throws OverlayException {
+        if (!payload.hasKey(key)) return null;
+        String text = OverlayModel.optString(payload, key);
+        return text != null ? text : "";
+    }
+
+    // "₹1,250.50" from JS, or a plain rupee number from native payloads
+    private static long decodeBaseFare(ReadableMap payload) throws OverlayException {
+        if (!payload.hasKey("baseFare") || payload.isNull("baseFare")) return 0;
+        if (payload.getType("baseFare") == ReadableType.Number) {
+            return FareModel.rupeesToPaise(payload.getDouble("baseFare"));
+        }
+        String text = OverlayModel.optString(payload, "baseFare");
+        long paise = FareModel.parsePaise(text);
+        if (paise == FareModel.INVALID) {
+            throw new OverlayException("E_INVALID_DATA", "Could not parse baseFare: " + text);
+        }
+        return paise;
+    }
+
+    private static long[] decodeAddons(ReadableMap payload) throws OverlayException {
+        if (!payload.hasKey("addonAmounts") || payload.isNull("addonAmounts")) {
+            return FareModel.DEFAULT_ADDONS_PAISE;
+        }
+        if (payload.getType("addonAmounts") != ReadableType.Array) {
+            throw OverlayModel.invalid("addonAmounts", "an array of numbers");
+        }
+        ReadableArray amounts = payload.getArray("addonAmounts");
+        long[] paise = new long[Math.min(amounts.size(), FareModel.MAX_ADDONS)]; // extra buttons don't exist
+        for (int i = 0; i < paise.length; i++) {
+            if (amounts.getType(i) != ReadableType.Number) {
+                throw OverlayModel.invalid("addonAmounts", "an array of numbers");
+            }
+            paise[i] = FareModel.rupeesToPaise(amounts.getDouble(i));
+        }
+        return paise;
+    }
+}
@@ -0,0 +1,299 @@
+package com.awesomeproject.core;
+
+import android.graphics.drawable.Drawable;
+import android.text.TextUtils;
+import android.view.View;
+import android.widget.Button;
+import android.widget.TextView;
+
+import androidx.annotation.Nullable;
+
+import com.awesomeproject.R;
+
+// Binds a trip card and keeps its offer state, whichever way the card is rendered: the inflated
+// overlay_trip_card.xml (typed references looked up once per view) or a TripCardView that draws
+// everything itself. The controller only talks to this class, never to the views.
+final class CardViewHolder {
+
+    // what the driver can do on a card; set per bind, cleared when the view goes back to the pool
+    interface Actions {
+        void onAddonToggled(int index);
+
+        void onAccept();
+
+        void onIgnore();
+    }
+
+    final View root;
+    @Nullable private final TripCardView mDrawn; // set for a drawn card, the layout fields below are null then
+
+    // --- Layout views ---
+    @Nullable private final TextView mPickupAddressText;
+    @Nullable private final TextView mDropoffAddressText;
+    @Nullable private final TextView mDistanceText;
+    @Nullable private final TextView mDurationText;
+    @Nullable private final TextView mCustomerNameText;
+    @Nullable private final TextView mCarTypeText;
+    @Nullable private final TextView mTotalFareText;
+    @Nullable private final TextView mCountdownText;
+    @Nullable private final TextView[] mAddonButtons;
+    @Nullable private final View mCardBody; // the rounded, elevated panel inside the transparent root
+
+    // --- Layout look, kept so a flat card can go back to it ---
+    private static final int FLAT_BACKGROUND = 0xFFFCFCFD; // trust_card_background's fill
+    @Nullable private final Drawable mRootBackground;
+    @Nullable private final Drawable mBodyBackground;
+    private final float mBodyElevation;
+    private final int mRootPaddingLeft, mRootPaddingTop, mRootPaddingRight, mRootPaddingBottom;
+    private boolean mFlat = false;
+
+    // --- Bound offer state ---
+    @Nullable String offerId; // null for a standalone card from JS
+    final FareModel fare = new FareModel();
+    long expiresAtMs = 0; // 0 = no countdown
+    private long mCountdownSeconds = -1; // last value drawn, -1 = hidden
+    @Nullable private Actions mActions;
+
+    // --- Fare text, written into per-view buffers (TextView keeps a reference to them) ---
+    private final char[] mFareChars = new char[FareModel.FORMAT_BUFFER_SIZE];
+    private final char[][] mAddonChars = new char[FareModel.MAX_ADDONS][FareModel.FORMAT_BUFFER_SIZE];
+    private long mShownFarePaise = -1;
+    private static final long ADDON_HIDDEN = -1;
+    private static final long ADDON_FROM_XML = -2; // still showing the layout's own label
+    private final long[] mShownAddonPaise = {ADDON_FROM_XML, ADDON_FROM_XML, ADDON_FROM_XML, ADDON_FROM_XML, ADDON_FROM_XML};
+
+    private CardViewHolder(View root) {
+        this.root = root;
+        if (root instanceof TripCardView) {
+            mDrawn = (TripCardView) root;
+            mDrawn.setListener(new TripCardView.Listener() {
+                @Override
+                public void onAddonClick(int index) {
+                    if (mActions != null) mActions.onAddonToggled(index);
+                }
+
+                @Override
+                public void onAcceptClick() {
+                    if (mActions != null) mActions.onAccept();
+                }
+
+                @Override
+                public void onIgnoreClick() {
+                    if (mActions != null) mActions.onIgnore();
+                }
+            });
+            mPickupAddressText = mDropoffAddressText = mDistanceText = mDurationText = null;
+            mCustomerNameText = mCarTypeText = mTotalFareText = mCountdownText = null;
+            mAddonButtons = null;
+            mCardBody = null;
+            mRootBackground = mBodyBackground = null;
+            mBodyElevation = 0;
+            mRootPaddingLeft = mRootPaddingTop = mRootPaddingRight = mRootPaddingBottom = 0;
+            return;
+        }
+        mDrawn = null;
+        mPickupAddressText = root.findViewById(R.id.pickup_address_text);
+        mDropoffAddressText = root.findViewById(R.id.dropoff_address_text);
+        mDistanceText = root.findViewById(R.id.distance_text);
+        mDurationText = root.findViewById(R.id.duration_text);
+        mCustomerNameText = root.findViewById(R.id.customer_name_text);
+        mCarTypeText = root.findViewById(R.id.car_type_text);
+        mTotalFareText = root.findViewById(R.id.total_fare_text);
+        mCountdownText = root.findViewById(R.id.countdown_text);
+        mAddonButtons = new TextView[] {
+                root.findViewById(R.id.addon_button_1),
+                root.findViewById(R.id.addon_button_2),
+                root.findViewById(R.id.addon_button_3),
+                root.findViewById(R.id.addon_button_4),
+                root.findViewById(R.id.addon_button_5),
+        };
+        mCardBody = root.findViewById(R.id.card_body);
+        mRootBackground = root.getBackground();
+        mBodyBackground = mCardBody.getBackground();
+        mBodyElevation = mCardBody.getElevation();
+        mRootPaddingLeft = root.getPaddingLeft();
+        mRootPaddingTop = root.getPaddingTop();
+        mRootPaddingRight = root.getPaddingRight();
+        mRootPaddingBottom = root.getPaddingBottom();
+
+        // listeners are set once per view and forward to whatever card is bound
+        for (int i = 0; i < mAddonButtons.length; i++) {
+            final int index = i;
+            mAddonButtons[i].setOnClickListener(v -> {
+                if (mActions != null) mActions.onAddonToggled(index);
+            });
+        }
+        Button acceptButton = root.findViewById(R.id.accept_button);
+        Button ignoreButton = root.findViewById(R.id.ignore_button);
+        acceptButton.setOnClickListener(v -> {
+            if (mActions != null) mActions.onAccept();
+        });
+        ignoreButton.setOnClickListener(v -> {
+            if (mActions != null) mActions.onIgnore();
+        });
+    }
+
+    // holder lives in the view's tag, so it is built once per inflation
+    static CardViewHolder of(View root) {
+        Object tag = root.getTag();
+        if (tag instanceof CardViewHolder) {
+            return (CardViewHolder) tag;
+        }
+        CardViewHolder holder = new CardViewHolder(root);
+        root.setTag(holder);
+        return holder;
+    }
+
+    boolean isDrawn() {
+        return mDrawn != null;
+    }
+
+    void setActions(@Nullable Actions actions) {
+        mActions = actions;
+    }
+
+    // clear trip data and actions before the view goes back to the pool
+    void reset() {
+        bindTexts("", "", "", "", "", "");
+        mShownFarePaise = -1;
+        if (mDrawn != null) {
+            mDrawn.setFare(mFareChars, 0);
+        } else {
+            bindText(mTotalFareText, null);
+        }
+        for (int i = 0; i < FareModel.MAX_ADDONS; i++) {
+            setAddonSelected(i, false);
+        }
+        mActions = null;
+        offerId = null;
+        fare.reset(0);
+        expiresAtMs = 0;
+        bindCountdown(0);
+        setFlat(false); // pooled cards always look like the layout, the controller flattens on show
+    }
+
+    // flat: the root is one opaque fill edge to edge, no transparent margin, rounded panel or shadow,
+    // so the window can be PixelFormat.OPAQUE and every pixel is drawn once
+    void setFlat(boolean flat) {
+        if (flat == mFlat) return;
+        mFlat = flat;
+        if (mDrawn != null) {
+            mDrawn.setFlat(flat);
+        } else if (flat) {
+            root.setPadding(0, 0, 0, 0);
+            root.setBackgroundColor(FLAT_BACKGROUND);
+            mCardBody.setBackground(null);
+            mCardBody.setElevation(0f);
+        } else {
+            root.setPadding(mRootPaddingLeft, mRootPaddingTop, mRootPaddingRight, mRootPaddingBottom);
+            root.setBackground(mRootBackground);
+            mCardBody.setBackground(mBodyBackground);
+            mCardBody.setElevation(mBodyElevation);
+        }
+    }
+
+    boolean isFlat() {
+        return mFlat;
+    }
+
+    /**
+     * Sets the card's texts; a null argument leaves that text as it is, "" clears it.
+     * Unchanged texts are skipped, so a refresh that changes nothing doesn't request a layout.
+     */
+    void bindTexts(@Nullable String pickupAddress, @Nullable String dropoffAddress,
+                   @Nullable String distance, @Nullable String duration,
+                   @Nullable String customerName, @Nullable String carType) {
+        if (mDrawn != null) {
+            if (pickupAddress != null) mDrawn.setPickupAddress(pickupAddress);
+            if (dropoffAddress != null) mDrawn.setDropoffAddress(dropoffAddress);
+            if (distance != null) mDrawn.setDistance(distance);
+            if (duration != null) mDrawn.setDuration(duration);
+            if (customerName != null) mDrawn.setCustomerName(customerName);
+            if (carType != null) mDrawn.setCarType(carType);
+            return;
+        }
+        if (pickupAddress != null) bindText(mPickupAddressText, pickupAddress);
+        if (dropoffAddress != null) bindText(mDropoffAddressText, dropoffAddress);
+        if (distance != null) bindText(mDistanceText, distance);
+        if (duration != null) bindText(mDurationText, duration);
+        if (customerName != null) bindText(mCustomerNameText, customerName);
+        if (carType != null) bindText(mCarTypeText, carType);
+    }
+
+    // total fare, only formatted and set when the amount changes
+    void bindFare() {
+        long total = fare.getTotalPaise();
+        if (total == mShownFarePaise) return;
+        int length = FareModel.formatRupees(total, false, mFareChars);
+        if (mDrawn != null) {
+            mDrawn.setFare(mFareChars, length);
+        } else {
+            mTotalFareText.setText(mFareChars, 0, length);
+        }
+        mShownFarePaise = total;
+    }
+
+    // add-on labels and selection; buttons without an amount are hidden
+    void bindAddons() {
+        if (mDrawn != null) {
+            mDrawn.setAddonCount(fare.getAddonCount());
+        }
+        for (int i = 0; i < FareModel.MAX_ADDONS; i++) {
+            if (i >= fare.getAddonCount()) {
+                if (mShownAddonPaise[i] != ADDON_HIDDEN) {
+                    if (mAddonButtons != null) mAddonButtons[i].setVisibility(View.GONE);
+                    mShownAddonPaise[i] = ADDON_HIDDEN;
+                }
+                continue;
+            }
+            long amount = fare.getAddonPaise(i);
+            if (amount != mShownAddonPaise[i]) {
+                int length = FareModel.formatRupees(amount, true, mAddonChars[i]);
+                if (mDrawn != null) {
+                    mDrawn.setAddon(i, mAddonChars[i], length);
+                } else {
+                    mAddonButtons[i].setText(mAddonChars[i], 0, length);
+                    mAddonButtons[i].setVisibility(View.VISIBLE);
+                }
+                mShownAddonPaise[i] = amount;
+            }
+            setAddonSelected(i, fare.isSelected(i)); // no-op if unchanged
+        }
+    }
+
+    // redraw the countdown only when the visible second changes
+    void bindCountdown(long nowMs) {
+        long seconds = expiresAtMs > 0 ? OfferExpiryScheduler.secondsRemaining(nowMs, expiresAtMs) : -1;
+        if (seconds == mCountdownSeconds) return;
+        if (mDrawn != null) {
+            mDrawn.setCountdown(seconds < 0 ? null : OfferExpiryScheduler.formatCountdown(seconds));
+        } else if (seconds < 0) {
+            mCountdownText.setVisibility(View.GONE);
+        } else {
+            if (mCountdownSeconds < 0) mCountdownText.setVisibility(View.VISIBLE);
+            mCountdownText.setText(OfferExpiryScheduler.formatCountdown(seconds));
+        }
+        mCountdownSeconds = seconds;
+    }
+
+    private void setAddonSelected(int index, boolean selected) {
+        if (mDrawn != null) {
+            mDrawn.setAddonSelected(index, selected);
+        } else {
+            mAddonButtons[index].setSelected(selected);
+        }
+    }
+
+    /**
+     * Sets text only when it differs from what the view already shows,
+     * so a refresh that changes nothing doesn't request a layout.
+     * @return true if the view was touched.
+     */
+    static boolean bindText(TextView view, @Nullable CharSequence text) {
+        if (TextUtils.equals(view.getText(), text == null ? "" : text)) {
+            return false;
+        }
+        view.setText(text);
+        return true;
+    }
+}
@@ -0,0 +1,158 @@
+package com.awesomeproject.core;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+// Durable log of trip decisions (accept / ignore / expire) made while no JS client is attached,
+// e.g. on a card shown from a push with the app dead. One line per decision, appended and synced
+// on the io executor, so a decision survives the process being killed right after the tap.
+// drain() hands everything back once and empties the file; a failed read leaves it for the next drain.
+class DecisionJournal {
+
+    static final class Decision {
+        final long decidedAtMs;
+        final String eventName;
+        @Nullable final String offerId;
+        final double finalFare; // NaN unless accepted
+
+        Decision(long decidedAtMs, String eventName, @Nullable String offerId, double finalFare) {
+            this.decidedAtMs = decidedAtMs;
+            this.eventName = eventName;
+            this.offerId = offerId;
+            this.finalFare = finalFare;
+        }
+    }
+
+    interface DrainCallback {
+        // called on the io executor
+        void onDrained(List<Decision> decisions);
+    }
+
+    private static final String TAG = "DecisionJournal";
+
+    private final File mFile;
+    private final Executor mIo;
+
+    DecisionJournal(File file, Executor io) {
+        mFile = file;
+        mIo = io;
+    }
+
+    static boolean isDecision(String eventName) {
+        return "onTripAccepted".equals(eventName)
+                || "onTripIgnored".equals(eventName)
+                || "onTripExpired".equals(eventName);
+    }
+
+    void append(Decision decision) {
+        String line = encode(decision) + "\n";
+        mIo.execute(() -> {
+            try (FileOutputStream out = new FileOutputStream(mFile, true)) {
+                out.write(line.getBytes(StandardCharsets.UTF_8));
+                out.getFD().sync(); // the tap is the one thing we can't ask the driver to redo
+            } catch (IOException e) {
+                Log.e(TAG, "Could not record decision " + decision.eventName, e);
+            }
+        });
+    }
+
+    // read and clear in one io task, appends queued earlier are included, later ones are kept;
+    // the file is only deleted after a clean read
+    void drain(DrainCallback callback) {
+        mIo.execute(() -> {
+            List<Decision> decisions = new ArrayList<>();
+            if (mFile.exists()) {
+                boolean read = false;
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(new FileInputStream(mFile), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        Decision decision = decode(line);
+                        if (decision != null) {
+                            decisions.add(decision);
+                        } // else torn write from a crash, skip it
+                    }
+                    read = true;
+                } catch (IOException e) {
+                    // keep the file for the next drain; what was read is dropped so nothing comes back twice
+                    Log.e(TAG, "Could not read decisions, keeping them for the next attach.", e);
+                    decisions.clear();
+                }
+                if (read && !mFile.delete()) {
+                    Log.w(TAG, "Could not clear decision journal.");
+                }
+            }
+            callback.onDrained(decisions);
+        });
+    }
+
+    // --- Line format: decidedAtMs \t eventName \t offerId \t finalFare, empty fields for missing values ---
+
+    static String encode(Decision decision) {
+        StringBuilder sb = new StringBuilder(64);
+        sb.append(decision.decidedAtMs).append('\t');
+        escape(sb, decision.eventName);
+        sb.append('\t');
+        if (decision.offerId != null) {
+            escape(sb, decision.offerId);
+        }
+        sb.append('\t');
+        if (!Double.isNaN(decision.finalFare)) {
+            sb.append(decision.finalFare);
+        }
+        return sb.toString();
+    }
+
+    @Nullable
+    static Decision decode(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 4 || fields[1].isEmpty()) return null;
+        try {
+            long decidedAtMs = Long.parseLong(fields[0]);
+            String offerId = fields[2].isEmpty() ? null : unescape(fields[2]);
+            double finalFare = fields[3].isEmpty() ? Double.NaN : Double.parseDouble(fields[3]);
+            return new Decision(decidedAtMs, unescape(fields[1]), offerId, finalFare);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void escape(StringBuilder sb, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': sb.append("\\\\"); break;
+                case '\t': sb.append("\\t"); break;
+                case '\n': sb.append("\\n"); break;
+                default: sb.append(c);
+            }
+        }
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) return value;
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
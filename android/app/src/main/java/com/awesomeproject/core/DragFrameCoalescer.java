@@ -0,0 +1,101 @@
+package com.awesomeproject.core;
+
+import android.view.Choreographer;
+
+// Coalesces bubble drag positions so the window manager sees at most one updateViewLayout per display frame.
+// Latest position wins. Must be used from the UI thread.
+class DragFrameCoalescer implements Choreographer.FrameCallback {
+
+    // receives the position once per frame
+    interface Target {
+        void moveTo(int x, int y);
+    }
+
+    private final Target mTarget;
+    private int mPendingX, mPendingY;
+    private boolean mHasPending = false;
+    private boolean mFramePosted = false;
+    private long mFrameTimeNanos = 0; // vsync time of the frame being applied, 0 outside doFrame
+
+    // --- Counters (for the touch replay harness) ---
+    private int mSubmitCount = 0;
+    private int mApplyCount = 0;
+
+    DragFrameCoalescer(Target target) {
+        mTarget = target;
+    }
+
+    // queue a position, only the first submit in a frame schedules a callback
+    void submit(int x, int y) {
+        mPendingX = x;
+        mPendingY = y;
+        mHasPending = true;
+        mSubmitCount++;
+        if (!mFramePosted) {
+            mFramePosted = true;
+            postFrame();
+        }
+    }
+
+    // apply whatever is pending right now, e.g. on ACTION_UP before snapping
+    void flushNow() {
+        cancelFrame();
+        apply();
+    }
+
+    // drop the pending position without applying it
+    void cancel() {
+        cancelFrame();
+        mHasPending = false;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mFramePosted = false;
+        mFrameTimeNanos = frameTimeNanos;
+        apply();
+        mFrameTimeNanos = 0;
+    }
+
+    // for the target: vsync time of the frame this position belongs to, 0 for flushNow
+    long getFrameTimeNanos() {
+        return mFrameTimeNanos;
+    }
+
+    int getSubmitCount() {
+        return mSubmitCount;
+    }
+
+    int getApplyCount() {
+        return mApplyCount;
+    }
+
+    void resetCounters() {
+        mSubmitCount = 0;
+        mApplyCount = 0;
+    }
+
+    private void apply() {
+        if (!mHasPending) return;
+        mHasPending = false;
+        mApplyCount++;
+        mTarget.moveTo(mPendingX, mPendingY);
+    }
+
+    private void cancelFrame() {
+        if (mFramePosted) {
+            mFramePosted = false;
+            removeFrame();
+        }
+    }
+
+    // --- Frame scheduling, overridable so tests can drive vsync by hand ---
+
+    void postFrame() {
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    void removeFrame() {
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+}
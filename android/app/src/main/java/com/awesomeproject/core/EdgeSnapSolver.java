@@ -0,0 +1,71 @@
+package com.awesomeproject.core;
+
+// Decides where a released bubble should go and springs it there on both axes.
+// Fling direction picks the edge, Y is projected along the fling and clamped on screen.
+// Plain Java, allocation-free after construction.
+final class EdgeSnapSolver {
+
+    private static final float STIFFNESS = 500f;
+    private static final float DAMPING_RATIO = 0.9f; // just a hint of overshoot off the edge
+    private static final float Y_PROJECTION_S = 0.12f; // how far a vertical fling carries the bubble
+
+    private final SpringSolver mX = new SpringSolver(STIFFNESS, DAMPING_RATIO);
+    private final SpringSolver mY = new SpringSolver(STIFFNESS, DAMPING_RATIO);
+
+    /**
+     * Picks the left (minX) or right (maxX) edge.
+     * A fling faster than minFlingVelocity wins; otherwise the nearest edge does.
+     */
+    static int pickEdgeX(float x, float velocityX, int minX, int maxX, float minFlingVelocity) {
+        if (Math.abs(velocityX) >= minFlingVelocity) {
+            return velocityX < 0 ? minX : maxX;
+        }
+        return x < (minX + maxX) / 2f ? minX : maxX;
+    }
+
+    static int clamp(float value, int min, int max) {
+        if (max < min) return min; // bubble taller than the screen, pin to top
+        return (int) Math.max(min, Math.min(max, value));
+    }
+
+    // release at (x, y) with the given velocity (px/s) inside [min, max] bounds
+    void start(float x, float y, float velocityX, float velocityY,
+               int minX, int maxX, int minY, int maxY, float minFlingVelocity) {
+        int targetX = pickEdgeX(x, velocityX, minX, maxX, minFlingVelocity);
+        int targetY = clamp(y + velocityY * Y_PROJECTION_S, minY, maxY);
+        mX.start(x, velocityX, targetX);
+        mY.start(y, velocityY, targetY);
+    }
+
+    // @return true once both axes have settled
+    boolean step(float dtSeconds) {
+        boolean xDone = mX.step(dtSeconds);
+        boolean yDone = mY.step(dtSeconds);
+        return xDone && yDone;
+    }
+
+    void stop() {
+        mX.stop();
+        mY.stop();
+    }
+
+    boolean isSettled() {
+        return mX.isSettled() && mY.isSettled();
+    }
+
+    int getX() {
+        return Math.round(mX.getPosition());
+    }
+
+    int getY() {
+        return Math.round(mY.getPosition());
+    }
+
+    int getTargetX() {
+        return (int) mX.getTarget();
+    }
+
+    int getTargetY() {
+        return (int) mY.getTarget();
+    }
+}
@@ -0,0 +1,165 @@
+package com.awesomeproject.core;
+
+// Trip fare in integer minor units (paise), with add-ons that either stack or act as a single choice.
+// Parsing and formatting never use regex or String.format; formatting writes into a caller-owned char[].
+// Plain Java so it can be tested and benchmarked on the JVM.
+final class FareModel {
+
+    static final int MAX_ADDONS = 5; // one per add-on button on the card
+    static final long[] DEFAULT_ADDONS_PAISE = {500, 1000, 1500, 2000, 2500}; // +₹5 .. +₹25
+    static final long DEFAULT_ADDON_CAP_PAISE = 5000; // at most +₹50 on top of the base fare
+    static final int FORMAT_BUFFER_SIZE = 24; // "+₹" + 19 digits + slack
+    static final long INVALID = -1;
+    static final int MAX_RUPEE_DIGITS = 15; // rupees * 100 stays far inside a long
+
+    private final long[] mAddonPaise = new long[MAX_ADDONS];
+    private int mAddonCount = 0;
+    private long mBasePaise = 0;
+    private long mCapPaise = DEFAULT_ADDON_CAP_PAISE;
+    private boolean mStacking = true; // false = single choice, tapping the selected one clears it
+    private int mSelectedMask = 0;
+
+    // --- Parsing ---
+
+    /**
+     * Parses a display amount like "₹1,250.50", "450" or "+₹5" into paise.
+     * Skips '₹', ',' and spaces, and allows one leading '+'; extra decimals are truncated.
+     * @return paise, or INVALID if there are no digits, a second '.', a '-' or any other character,
+     *     or more than MAX_RUPEE_DIGITS digits before the point.
+     */
+    static long parsePaise(CharSequence text) {
+        if (text == null) return INVALID;
+        long rupees = 0;
+        long paise = 0;
+        int decimals = -1; // -1 = before the point
+        int rupeeDigits = 0;
+        boolean sawDigit = false;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sawDigit = true;
+                if (decimals < 0) {
+                    if (++rupeeDigits > MAX_RUPEE_DIGITS) return INVALID;
+                    rupees = rupees * 10 + (c - '0');
+                } else if (decimals < 2) {
+                    paise = paise * 10 + (c - '0');
+                    decimals++;
+                }
+            } else if (c == '.') {
+                if (decimals >= 0) return INVALID; // "1.2.3"
+                decimals = 0;
+            } else if (c == '+' && i == 0) {
+                // "+₹5", how add-on amounts are shown
+            } else if (c != '₹' && c != ',' && !Character.isSpaceChar(c)) {
+                return INVALID; // a '-', a second sign, letters
+            }
+        }
+        if (!sawDigit) return INVALID;
+        if (decimals == 1) paise *= 10; // "12.5" -> 50 paise
+        return rupees * 100 + paise;
+    }
+
+    // JS numbers are rupees; round to the nearest paisa once at the edge
+    static long rupeesToPaise(double rupees) {
+        return Math.round(rupees * 100);
+    }
+
+    static double paiseToRupees(long paise) {
+        return paise / 100.0;
+    }
+
+    // --- Formatting ---
+
+    /**
+     * Writes "₹<whole rupees>" (half-up rounded) into out, optionally prefixed with '+'.
+     * @return number of chars written from index 0.
+     */
+    static int formatRupees(long paise, boolean plusSign, char[] out) {
+        long rupees = (Math.abs(paise) + 50) / 100;
+        int pos = 0;
+        if (paise < 0) out[pos++] = '-';
+        else if (plusSign) out[pos++] = '+';
+        out[pos++] = '₹';
+        // digits are written backwards at the end of the buffer, then moved up
+        int end = out.length;
+        int start = end;
+        do {
+            out[--start] = (char) ('0' + (rupees % 10));
+            rupees /= 10;
+        } while (rupees > 0);
+        int digits = end - start;
+        System.arraycopy(out, start, out, pos, digits);
+        return pos + digits;
+    }
+
+    // --- State ---
+
+    // new offer: base fare, add-on amounts and rules; clears any selection
+    void reset(long basePaise, long[] addonPaise, int addonCount, long capPaise, boolean stacking) {
+        mBasePaise = Math.max(0, basePaise);
+        mAddonCount = Math.min(addonCount, MAX_ADDONS);
+        System.arraycopy(addonPaise, 0, mAddonPaise, 0, mAddonCount);
+        mCapPaise = capPaise;
+        mStacking = stacking;
+        mSelectedMask = 0;
+    }
+
+    // true if reset() with these arguments would give the same fare, i.e. a selection still applies
+    boolean hasInputs(long basePaise, long[] addonPaise, int addonCount, long capPaise, boolean stacking) {
+        if (mBasePaise != Math.max(0, basePaise) || mAddonCount != Math.min(addonCount, MAX_ADDONS)
+                || mCapPaise != capPaise || mStacking != stacking) {
+            return false;
+        }
+        for (int i = 0; i < mAddonCount; i++) {
+            if (mAddonPaise[i] != addonPaise[i]) return false;
+        }
+        return true;
+    }
+
+    void reset(long basePaise) {
+        reset(basePaise, DEFAULT_ADDONS_PAISE, DEFAULT_ADDONS_PAISE.length, DEFAULT_ADDON_CAP_PAISE, true);
+    }
+
+    /**
+     * Toggles an add-on. Stacking mode adds/removes it from the selection;
+     * single-choice mode selects it alone, or clears it if it was the one selected.
+     */
+    void toggleAddon(int index) {
+        if (index < 0 || index >= mAddonCount) return;
+        int bit = 1 << index;
+        if (mStacking) {
+            mSelectedMask ^= bit;
+        } else {
+            mSelectedMask = (mSelectedMask == bit) ? 0 : bit;
+        }
+    }
+
+    boolean isSelected(int index) {
+        return (mSelectedMask & (1 << index)) != 0;
+    }
+
+    int getAddonCount() {
+        return mAddonCount;
+    }
+
+    long getAddonPaise(int index) {
+        return mAddonPaise[index];
+    }
+
+    long getBasePaise() {
+        return mBasePaise;
+    }
+
+    // selected add-ons, capped
+    long getAddonTotalPaise() {
+        long sum = 0;
+        for (int i = 0; i < mAddonCount; i++) {
+            if ((mSelectedMask & (1 << i)) != 0) sum += mAddonPaise[i];
+        }
+        return mCapPaise >= 0 ? Math.min(sum, mCapPaise) : sum;
+    }
+
+    long getTotalPaise() {
+        return mBasePaise + getAddonTotalPaise();
+    }
+}
@@ -0,0 +1,16 @@
+package com.awesomeproject.core;
+
+// Where trip cards get location fixes from. The app uses SystemLocationSource; tests plug in fakes
+// or replay a recorded track. Listeners are called on the UI thread.
+interface LocationSource {
+
+    interface Listener {
+        // timeMs is the fix time on a monotonic clock, only differences between fixes matter
+        void onLocation(double latitude, double longitude, long timeMs);
+    }
+
+    // start delivering fixes, a last known one may arrive right away
+    void start(Listener listener);
+
+    void stop();
+}
@@ -0,0 +1,104 @@
+package com.awesomeproject.core;
+
+// One shared timer for every offer expiry and on-screen countdown.
+// It wakes at the earliest expiry, or at the next whole second while a countdown is visible.
+// The clock and timer are injected, so the timing logic runs on the JVM without a Looper.
+final class OfferExpiryScheduler {
+
+    static final long NO_WAKE = -1;
+
+    interface Clock {
+        long nowMs(); // epoch ms, same base as offer expiresAt
+    }
+
+    interface Timer {
+        void schedule(Runnable tick, long delayMs);
+        void cancel(Runnable tick);
+    }
+
+    interface Host {
+        // earliest expiresAt among live offers, 0 if nothing expires
+        long nextExpiryMs();
+        // true while a countdown is on screen and needs per-second redraws
+        boolean hasVisibleCountdown();
+        // drop and announce everything whose expiresAt <= nowMs
+        void expireDue(long nowMs);
+        void renderCountdowns(long nowMs);
+    }
+
+    private final Clock mClock;
+    private final Timer mTimer;
+    private final Host mHost;
+    private final Runnable mTick = this::tick;
+    private boolean mScheduled = false;
+
+    OfferExpiryScheduler(Clock clock, Timer timer, Host host) {
+        mClock = clock;
+        mTimer = timer;
+        mHost = host;
+    }
+
+    /**
+     * How long to sleep before the next wake-up.
+     * @return delay in ms, or NO_WAKE if nothing is pending.
+     */
+    static long delayUntilNextWake(long nowMs, long nextExpiryMs, boolean countdownVisible) {
+        if (nextExpiryMs <= 0) return NO_WAKE;
+        long remaining = nextExpiryMs - nowMs;
+        if (remaining <= 0) return 0;
+        if (!countdownVisible) return remaining;
+        long toSecondBoundary = remaining % 1000;
+        return toSecondBoundary == 0 ? Math.min(1000, remaining) : toSecondBoundary;
+    }
+
+    // whole seconds left, rounded up so "0:00" only shows once it has actually expired
+    static long secondsRemaining(long nowMs, long expiresAtMs) {
+        long remaining = expiresAtMs - nowMs;
+        return remaining <= 0 ? 0 : (remaining + 999) / 1000;
+    }
+
+    // "m:ss"
+    static String formatCountdown(long seconds) {
+        long minutes = seconds / 60;
+        long secs = seconds % 60;
+        return minutes + (secs < 10 ? ":0" : ":") + secs;
+    }
+
+    long nowMs() {
+        return mClock.nowMs();
+    }
+
+    // expire anything already due, redraw, then arm the timer for the next wake-up
+    void refresh() {
+        tick();
+    }
+
+    // re-arm without expiring, e.g. after an offer was added
+    void reschedule() {
+        cancel();
+        long delay = delayUntilNextWake(mClock.nowMs(), mHost.nextExpiryMs(), mHost.hasVisibleCountdown());
+        if (delay != NO_WAKE) {
+            mScheduled = true;
+            mTimer.schedule(mTick, delay);
+        }
+    }
+
+    void cancel() {
+        if (mScheduled) {
+            mScheduled = false;
+            mTimer.cancel(mTick);
+        }
+    }
+
+    boolean isScheduled() {
+        return mScheduled;
+    }
+
+    private void tick() {
+        mScheduled = false;
+        long now = mClock.nowMs();
+        mHost.expireDue(now);
+        mHost.renderCountdowns(now);
+        reschedule();
+    }
+}
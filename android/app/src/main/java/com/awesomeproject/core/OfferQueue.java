@@ -0,0 +1,137 @@
+package com.awesomeproject.core;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Pending trip offers, highest priority first, ties in arrival order.
+// Plain Java so it can be tested on the JVM. Not thread-safe, the module only touches it on the UI thread.
+final class OfferQueue<T> {
+
+    static final int DEFAULT_CAPACITY = 10;
+
+    static final class Offer<T> {
+        final String id;
+        final int priority;
+        final long expiresAtMs; // 0 = never
+        final long sequence; // arrival order, breaks priority ties
+        final T payload;
+
+        Offer(String id, int priority, long expiresAtMs, long sequence, T payload) {
+            this.id = id;
+            this.priority = priority;
+            this.expiresAtMs = expiresAtMs;
+            this.sequence = sequence;
+            this.payload = payload;
+        }
+
+        boolean isExpired(long nowMs) {
+            return expiresAtMs > 0 && nowMs >= expiresAtMs;
+        }
+    }
+
+    private final ArrayList<Offer<T>> mOffers = new ArrayList<>(); // kept sorted
+    private final int mCapacity;
+    private long mNextSequence = 0;
+
+    OfferQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    OfferQueue(int capacity) {
+        mCapacity = capacity;
+    }
+
+    /**
+     * Adds an offer, replacing any queued offer with the same id (it keeps its arrival slot).
+     * When full, the lowest-priority offer is dropped; that may be the new one.
+     * @return the offer that fell off the end, or null.
+     */
+    @Nullable
+    Offer<T> add(String id, int priority, long expiresAtMs, T payload) {
+        long sequence = mNextSequence++;
+        int existing = indexOf(id);
+        if (existing >= 0) {
+            sequence = mOffers.remove(existing).sequence;
+        }
+        Offer<T> offer = new Offer<>(id, priority, expiresAtMs, sequence, payload);
+        mOffers.add(insertionPoint(offer), offer);
+        if (mOffers.size() > mCapacity) {
+            return mOffers.remove(mOffers.size() - 1);
+        }
+        return null;
+    }
+
+    @Nullable
+    Offer<T> remove(String id) {
+        int index = indexOf(id);
+        return index >= 0 ? mOffers.remove(index) : null;
+    }
+
+    // move expired offers into `out`, returns how many were removed
+    int removeExpired(long nowMs, List<Offer<T>> out) {
+        int removed = 0;
+        for (int i = mOffers.size() - 1; i >= 0; i--) {
+            if (mOffers.get(i).isExpired(nowMs)) {
+                out.add(mOffers.remove(i));
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    // earliest expiry among queued offers, 0 if none expire
+    long nextExpiryMs() {
+        long next = 0;
+        for (int i = 0; i < mOffers.size(); i++) {
+            long at = mOffers.get(i).expiresAtMs;
+            if (at > 0 && (next == 0 || at < next)) {
+                next = at;
+            }
+        }
+        return next;
+    }
+
+    Offer<T> get(int index) {
+        return mOffers.get(index);
+    }
+
+    @Nullable
+    Offer<T> find(String id) {
+        int index = indexOf(id);
+        return index >= 0 ? mOffers.get(index) : null;
+    }
+
+    int indexOf(String id) {
+        for (int i = 0; i < mOffers.size(); i++) {
+            if (mOffers.get(i).id.equals(id)) return i;
+        }
+        return -1;
+    }
+
+    int size() {
+        return mOffers.size();
+    }
+
+    boolean isEmpty() {
+        return mOffers.isEmpty();
+    }
+
+    void clear() {
+        mOffers.clear();
+    }
+
+    private int insertionPoint(Offer<T> offer) {
+        int i = 0;
+        while (i < mOffers.size() && ranksBefore(mOffers.get(i), offer)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean ranksBefore(Offer<?> a, Offer<?> b) {
+        if (a.priority != b.priority) return a.priority > b.priority;
+        return a.sequence < b.sequence;
+    }
+}
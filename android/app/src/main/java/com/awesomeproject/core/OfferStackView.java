@@ -0,0 +1,260 @@
+package com.awesomeproject.core;
+
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.widget.FrameLayout;
+
+import java.util.ArrayList;
+
+// Swipeable stack of trip cards for the offer queue. Only MAX_VISIBLE cards exist at a time;
+// card views are recycled through the adapter like RecyclerView, and a swipe only rebinds the card
+// that moves to the back. Must be used from the UI thread.
+class OfferStackView extends FrameLayout {
+
+    static final int MAX_VISIBLE = 3;
+
+    private static final float PEEK_DP = 12f; // how much each card behind shows above the one in front
+    private static final float SCALE_STEP = 0.05f;
+    private static final long SETTLE_DURATION_MS = 180;
+
+    interface Adapter {
+        int getCount();
+        // bind offer `position` into a card view
+        void bind(View card, int position);
+        // card views come from and go back to the overlay pool
+        View obtainCard();
+        void recycleCard(View card);
+    }
+
+    private final ArrayList<View> mActive = new ArrayList<>(MAX_VISIBLE); // index = depth, 0 is on top
+    private final float mPeekPx;
+    private final int mTouchSlop;
+    private final int mMinFlingVelocity;
+    private Adapter mAdapter;
+    private int mTopPosition = 0;
+
+    // --- Swipe state ---
+    private VelocityTracker mVelocityTracker;
+    private float mDownX, mDownY;
+    private boolean mSwiping = false;
+
+    OfferStackView(Context context) {
+        super(context);
+        mPeekPx = PEEK_DP * context.getResources().getDisplayMetrics().density;
+        ViewConfiguration config = ViewConfiguration.get(context);
+        mTouchSlop = config.getScaledTouchSlop();
+        mMinFlingVelocity = config.getScaledMinimumFlingVelocity();
+        setClipChildren(false);
+        setClipToPadding(false);
+    }
+
+    void setAdapter(Adapter adapter) {
+        mAdapter = adapter;
+        mTopPosition = 0;
+        notifyDataSetChanged();
+    }
+
+    int getTopPosition() {
+        return mTopPosition;
+    }
+
+    int getActiveCount() {
+        return mActive.size();
+    }
+
+    // card at the given depth, 0 is on top
+    View getActiveCard(int depth) {
+        return mActive.get(depth);
+    }
+
+    /**
+     * Re-syncs visible cards with the adapter. Views that already show an offer are rebound in place
+     * (the diff binder makes that cheap); missing ones are obtained, extras are recycled.
+     */
+    void notifyDataSetChanged() {
+        int count = mAdapter != null ? mAdapter.getCount() : 0;
+        if (mTopPosition >= count) {
+            mTopPosition = 0;
+        }
+        int visible = Math.min(MAX_VISIBLE, count);
+
+        while (mActive.size() > visible) {
+            View card = mActive.remove(mActive.size() - 1);
+            removeView(card);
+            mAdapter.recycleCard(card);
+        }
+        while (mActive.size() < visible) {
+            View card = mAdapter.obtainCard();
+            mActive.add(card);
+            addView(card, 0); // deeper cards draw first
+        }
+        for (int depth = 0; depth < visible; depth++) {
+            mAdapter.bind(mActive.get(depth), (mTopPosition + depth) % count);
+        }
+        applyDepthTransforms();
+    }
+
+    // hand every card back to the adapter, e.g. when the overlay goes away
+    void recycleAll() {
+        cancelSwipe();
+        for (int i = 0; i < mActive.size(); i++) {
+            View card = mActive.get(i);
+            card.animate().cancel();
+            card.setTranslationX(0f);
+            removeView(card);
+            if (mAdapter != null) mAdapter.recycleCard(card);
+        }
+        mActive.clear();
+        mAdapter = null;
+    }
+
+    // move the next offer to the top; the old top card goes to the back and is the only one rebound
+    void showNext() {
+        int count = mAdapter != null ? mAdapter.getCount() : 0;
+        if (count < 2) return;
+        mTopPosition = (mTopPosition + 1) % count;
+        if (mActive.size() == count) {
+            // every offer already has a card, just rotate them
+            View top = mActive.remove(0);
+            mActive.add(top);
+        } else {
+            View top = mActive.remove(0);
+            mActive.add(top);
+            mAdapter.bind(top, (mTopPosition + mActive.size() - 1) % count);
+        }
+        restack();
+    }
+
+    void showPrevious() {
+        int count = mAdapter != null ? mAdapter.getCount() : 0;
+        if (count < 2) return;
+        mTopPosition = (mTopPosition - 1 + count) % count;
+        View back = mActive.remove(mActive.size() - 1);
+        mActive.add(0, back);
+        if (mActive.size() != count) {
+            mAdapter.bind(back, mTopPosition);
+        }
+        restack();
+    }
+
+    // child order follows depth so the top card draws last and gets touches first
+    private void restack() {
+        for (int depth = mActive.size() - 1; depth >= 0; depth--) {
+            mActive.get(depth).bringToFront();
+        }
+        applyDepthTransforms();
+    }
+
+    private void applyDepthTransforms() {
+        for (int depth = 0; depth < mActive.size(); depth++) {
+            View card = mActive.get(depth);
+            float scale = 1f - SCALE_STEP * depth;
+            card.setTranslationY(-mPeekPx * depth);
+            card.setScaleX(scale);
+            card.setScaleY(scale);
+            card.setTranslationX(0f);
+            card.setAlpha(1f);
+        }
+    }
+
+    // --- Swipe handling ---
+
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent event) {
+        if (mActive.size() < 2) return false; // nothing to swipe to
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mDownX = event.getX();
+                mDownY = event.getY();
+                mSwiping = false;
+                trackVelocity(event);
+                return false;
+            case MotionEvent.ACTION_MOVE:
+                trackVelocity(event);
+                float dx = event.getX() - mDownX;
+                float dy = event.getY() - mDownY;
+                if (Math.abs(dx) > mTouchSlop && Math.abs(dx) > Math.abs(dy)) {
+                    mSwiping = true; // buttons on the card get a cancel
+                }
+                return mSwiping;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                cancelSwipe();
+                return false;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (mActive.size() < 2) return false;
+        trackVelocity(event);
+        View top = mActive.get(0);
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                // no child wanted it, keep the gesture so a swipe can start on empty card space
+                mDownX = event.getX();
+                mDownY = event.getY();
+                mSwiping = false;
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                float dx = event.getX() - mDownX;
+                if (!mSwiping) {
+                    float dy = event.getY() - mDownY;
+                    if (Math.abs(dx) <= mTouchSlop || Math.abs(dx) <= Math.abs(dy)) return true;
+                    mSwiping = true;
+                }
+                top.setTranslationX(dx);
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (mSwiping) {
+                    mVelocityTracker.computeCurrentVelocity(1000);
+                    float velocityX = mVelocityTracker.getXVelocity();
+                    float upDx = event.getX() - mDownX;
+                    boolean passed = Math.abs(upDx) > getWidth() / 4f || Math.abs(velocityX) > mMinFlingVelocity;
+                    settleSwipe(top, passed ? (upDx < 0 ? -1 : 1) : 0);
+                }
+                cancelSwipe();
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                if (mSwiping) settleSwipe(top, 0);
+                cancelSwipe();
+                return true;
+        }
+        return true;
+    }
+
+    // direction: -1 swiped left (next), 1 swiped right (previous), 0 spring back
+    private void settleSwipe(View top, int direction) {
+        if (direction == 0) {
+            top.animate().translationX(0f).setDuration(SETTLE_DURATION_MS).start();
+            return;
+        }
+        top.animate()
+                .translationX(direction * getWidth())
+                .setDuration(SETTLE_DURATION_MS)
+                .withEndAction(() -> {
+                    if (mAdapter == null) return; // recycled mid-animation
+                    if (direction < 0) showNext(); else showPrevious();
+                })
+                .start();
+    }
+
+    private void trackVelocity(MotionEvent event) {
+        if (mVelocityTracker == null) {
+            mVelocityTracker = VelocityTracker.obtain();
+        }
+        mVelocityTracker.addMovement(event);
+    }
+
+    private void cancelSwipe() {
+        mSwiping = false;
+        if (mVelocityTracker != null) {
+            mVelocityTracker.recycle();
+            mVelocityTracker = null;
+        }
+    }
+}
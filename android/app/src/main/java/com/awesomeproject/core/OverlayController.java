@@ -0,0 +1,1237 @@
+package com.awesomeproject.core;
+
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.PixelFormat;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Gravity;
+import android.view.HapticFeedbackConstants;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.WindowManager;
+import android.widget.FrameLayout;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.awesomeproject.permission.OverlayPermissionState;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+// Owns the overlay windows (bubbles, cards, the offer stack) and the offer state behind them.
+// Windows live in a registry keyed by overlay id, each with its own params and lifecycle, so e.g. an
+// earnings bubble can stay up next to an offer card; calls without an id address MAIN_ID. Shared by
+// all windows: the view pool, geometry, offer queue, expiry timer and the one dismiss target.
+// Lives in OverlayHostService so it outlives the React context; nothing here needs the JS runtime,
+// events go out through the Listener as JavaOnlyMaps. Payloads arrive already decoded (OverlayModel,
+// CardModel), so nothing here reads a ReadableMap. All methods must be called on the UI thread.
+class OverlayController {
+
+    interface Listener {
+        void onEvent(String eventName, @Nullable WritableMap params);
+        // true while an overlay is up or offers are queued, the service stays in the foreground for it
+        void onActiveChanged(boolean active);
+        // something worth persisting changed (see snapshot()), called often, the host coalesces
+        void onStateChanged();
+    }
+
+    static final String MAIN_ID = "main"; // the window JS calls without an id address
+    static final int MAX_WINDOWS = 4; // each one is a system window over the driver's nav app
+
+    private static final String TAG = "OverlayController";
+    private final Context mContext;
+    private final Listener mListener;
+
+    private final WindowManager mWindowManager;
+    private final LinkedHashMap<String, OverlayWindow> mWindows = new LinkedHashMap<>(); // registry, show order
+    private final OverlayWindow mMain; // always registered, keeps the bubble position between shows
+    private final ArrayList<OverlayWindow> mWindowScratch = new ArrayList<>(); // iterate while hiding
+    private View mDismissView; // view for the 'X' dismiss button, shared, one drag at a time
+    private WindowManager.LayoutParams mDismissParams;
+    private boolean mIsBubbleOverlappingDismiss = false; // for drag-to-dismiss
+    private VelocityTracker mVelocityTracker; // shared by bubble windows, recycled on release
+    private final OverlayViewPool mViewPool; // warm bubble/card views
+    private final OverlayGeometry mGeometry; // display area and zones, recomputed on configuration change
+    private final OverlayPermissionState mPermission; // cached, kept current by an AppOps listener
+    private final OverlayEventEmitter mEventEmitter; // batched, coalesced events to JS
+    private final OfferQueue<CardModel> mOfferQueue = new OfferQueue<>(); // pending offers, UI thread only
+    private final ArrayList<OfferQueue.Offer<CardModel>> mExpiredScratch = new ArrayList<>(); // reused by expiry
+    private final OfferExpiryScheduler mExpiryScheduler; // one timer for all expiries and countdowns
+    private final OfferExpiryScheduler.Timer mMainTimer; // delayed work on the UI thread
+    private final TripEtaUpdater mEtaUpdater; // live distance/duration on cards with a pickup location
+    private OfferStackView mOfferStack; // content of the "stack" overlay, created on first use
+    private OverlayWindow mStackWindow; // the window showing the stack, there's only one stack view
+
+    // --- State ---
+    private boolean mActive = false; // last value sent to onActiveChanged
+    private boolean mLowOverdraw = false; // opt-in render mode, see setLowOverdraw
+
+    // --- Metrics ---
+    private final OverlayMetrics mMetrics = new OverlayMetrics();
+
+    OverlayController(Context context, Listener listener) {
+        this(context, listener, null);
+    }
+
+    // inflateExecutor null = the pool's shared background thread; tests pass a direct one
+    @VisibleForTesting
+    OverlayController(Context context, Listener listener, @Nullable Executor inflateExecutor) {
+        mContext = context;
+        mListener = listener;
+        mWindowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        mMain = new OverlayWindow(MAIN_ID);
+        mWindows.put(MAIN_ID, mMain);
+
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+
+        // inflate overlays ahead of the first trip offer, off the UI thread
+        mViewPool = inflateExecutor != null
+                ? new OverlayViewPool(context, inflateExecutor)
+                : new OverlayViewPool(context);
+        context.getApplicationContext().registerComponentCallbacks(mViewPool);
+        mViewPool.prewarm(null);
+
+        // the touch path only reads these, they change with rotation and folding
+        mGeometry = new OverlayGeometry(context, mWindowManager, this::onGeometryChanged);
+        context.getApplicationContext().registerComponentCallbacks(mGeometry);
+
+        mPermission = OverlayPermissionState.get(context);
+
+        mEventEmitter = new OverlayEventEmitter(listener::onEvent);
+
+        mMainTimer = new OfferExpiryScheduler.Timer() {
+            @Override
+            public void schedule(Runnable tick, long delayMs) {
+                mainHandler.postDelayed(tick, delayMs);
+            }
+
+            @Override
+            public void cancel(Runnable tick) {
+                mainHandler.removeCallbacks(tick);
+            }
+        };
+        mExpiryScheduler = new OfferExpiryScheduler(
+                System::currentTimeMillis, // expiresAt comes from JS Date.now()
+                mMainTimer,
+                mExpiryHost);
+        mEtaUpdater = new TripEtaUpdater(new SystemLocationSource(context), SystemClock::uptimeMillis, mMainTimer);
+    }
+
+    // warm the view pool in the background; onReady runs on the UI thread once it is
+    void prewarm(@Nullable Runnable onReady) {
+        mViewPool.prewarm(onReady);
+    }
+
+    // Low-overdraw mode, for phones where our windows make the nav app underneath jank:
+    // cards get an opaque window sized to the card with a flat drawing (no transparent margin, rounded
+    // panel or shadow), the dismiss window shrinks to its target, and the bubble and dismiss target
+    // draw from hardware layers while they move or fade. Takes effect on the next overlay shown.
+    void setLowOverdraw(boolean enabled) {
+        mLowOverdraw = enabled;
+    }
+
+    boolean isLowOverdraw() {
+        return mLowOverdraw;
+    }
+
+    // where live ETA cards get their fixes, e.g. a replayed GPS track; default is the passive provider
+    void setLocationSource(LocationSource source) {
+        mEtaUpdater.setSource(source);
+    }
+
+    // the location permission may have changed, cards already up start (or stop) getting fixes
+    void refreshLocationSource() {
+        mEtaUpdater.restartSource();
+    }
+
+    boolean isActive() {
+        return !mOfferQueue.isEmpty() || anyShowing();
+    }
+
+    private boolean anyShowing() {
+        for (OverlayWindow window : mWindows.values()) {
+            if (window.isShowing()) return true;
+        }
+        return false;
+    }
+
+    // ids of the windows on screen, in the order they were first shown
+    ArrayList<String> getOverlayIds() {
+        ArrayList<String> ids = new ArrayList<>(mWindows.size());
+        for (OverlayWindow window : mWindows.values()) {
+            if (window.isShowing()) ids.add(window.id);
+        }
+        return ids;
+    }
+
+    // --- Id-less calls, the main window ---
+
+    void show(OverlayModel model) throws OverlayException {
+        show(MAIN_ID, model);
+    }
+
+    void transition(OverlayModel model) throws OverlayException {
+        transition(MAIN_ID, model);
+    }
+
+    void update(OverlayModel model) throws OverlayException {
+        update(MAIN_ID, model);
+    }
+
+    void hide() {
+        hide(MAIN_ID);
+    }
+
+    // Show an overlay in its own window, from JS or straight from a native payload
+    void show(String id, OverlayModel model) throws OverlayException {
+        long start = System.nanoTime();
+        OverlayWindow window = mWindows.get(id);
+        if (window != null && window.isShowing()) {
+            throw new OverlayException("E_OVERLAY_EXISTS", "Overlay already visible: " + id);
+        }
+        checkPermission();
+        showOverlayInternal(register(id), model, OverlayMetrics.OP_SHOW, start);
+        mMetrics.record(OverlayMetrics.OP_SHOW, OverlayMetrics.PHASE_TOTAL, System.nanoTime() - start);
+    }
+
+    // Swap a window's overlay for another one in the same window (bubble <-> card)
+    void transition(String id, OverlayModel model) throws OverlayException {
+        long start = System.nanoTime();
+        if (model.type == null) {
+            throw new OverlayException("E_INVALID_TYPE", "Overlay type missing.");
+        }
+        OverlayWindow window = mWindows.get(id);
+
+        // nothing up (e.g. native already hid the card), fall back to a normal show
+        if (window == null || !window.isShowing()) {
+            checkPermission();
+            showOverlayInternal(register(id), model, OverlayMetrics.OP_TRANSITION, start);
+            mMetrics.record(OverlayMetrics.OP_TRANSITION, OverlayMetrics.PHASE_TOTAL, System.nanoTime() - start);
+            return;
+        }
+        checkStack(window, model);
+
+        // same window, new content, params mutated in place
+        detachContent(window);
+        attachContent(window, model, OverlayMetrics.OP_TRANSITION);
+        try {
+            long windowStart = System.nanoTime();
+            updateLayout(window);
+            mMetrics.record(OverlayMetrics.OP_TRANSITION, OverlayMetrics.PHASE_WINDOW, System.nanoTime() - windowStart);
+            armFirstDraw(window, OverlayMetrics.OP_TRANSITION, start);
+            mMetrics.record(OverlayMetrics.OP_TRANSITION, OverlayMetrics.PHASE_TOTAL, System.nanoTime() - start);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to transition overlay " + id + ".", e);
+            hideOverlayInternal(window);
+            throw new OverlayException("E_TRANSITION_FAILED", e.getMessage());
+        }
+    }
+
+    // the window for an id, registered on first use; the registry is bounded
+    private OverlayWindow register(String id) throws OverlayException {
+        OverlayWindow window = mWindows.get(id);
+        if (window != null) return window;
+        if (mWindows.size() >= MAX_WINDOWS) {
+            throw new OverlayException("E_TOO_MANY_OVERLAYS", "At most " + MAX_WINDOWS + " overlays at once.");
+        }
+        window = new OverlayWindow(id);
+        mWindows.put(id, window);
+        return window;
+    }
+
+    // a field read, no binder call per show
+    private void checkPermission() throws OverlayException {
+        if (!mPermission.isGranted()) {
+            throw new OverlayException("E_PERMISSION_DENIED", "Overlay permission denied.");
+        }
+    }
+
+    // the stack needs offers, and there is one stack view, so one window at a time
+    private void checkStack(OverlayWindow window, OverlayModel model) throws OverlayException {
+        if (!"stack".equals(model.type)) return;
+        if (!hasLiveOffers()) {
+            throw new OverlayException("E_NO_OFFERS", "No queued offers to show.");
+        }
+        if (mStackWindow != null && mStackWindow != window) {
+            throw new OverlayException("E_OVERLAY_EXISTS", "Offer stack already visible: " + mStackWindow.id);
+        }
+    }
+
+    // inflate/bind content and add the overlay window
+    private void showOverlayInternal(OverlayWindow window, OverlayModel model, int op, long startNs)
+            throws OverlayException {
+        try {
+            if (model.type == null) {
+                throw new OverlayException("E_INVALID_TYPE", "Overlay type missing."); // an update payload
+            }
+            checkStack(window, model);
+        } catch (OverlayException e) {
+            unregisterIfIdle(window);
+            throw e;
+        }
+
+        attachContent(window, model, op);
+
+        try {
+            long windowStart = System.nanoTime();
+            mWindowManager.addView(window.host, window.params);
+            mMetrics.record(op, OverlayMetrics.PHASE_WINDOW, System.nanoTime() - windowStart);
+            window.host.getViewTreeObserver().addOnDrawListener(window.firstDrawListener); // new window, new observer
+            armFirstDraw(window, op, startNs);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to add overlay view " + window.id + ".", e);
+            detachContent(window); // never got attached, keep the view warm
+            window.params = null;
+            unregisterIfIdle(window);
+            throw new OverlayException("E_ADD_VIEW_FAILED", e.getMessage());
+        }
+    }
+
+    // put a warm view for this type into the window's host and configure params/listeners
+    private void attachContent(OverlayWindow window, OverlayModel model, int op) {
+        String type = model.type;
+        if (window.host == null) {
+            window.host = new FrameLayout(mContext); // window root, lives across transitions
+            window.firstDrawListener = () -> onFirstDraw(window);
+        }
+        long inflateStart = System.nanoTime();
+        int inflates = mViewPool.getInflateCount();
+        View view;
+        if ("stack".equals(type)) {
+            view = offerStack();
+        } else if ("card".equals(type) && model.card.drawn) {
+            view = mViewPool.acquire(OverlayViewPool.DRAWN_CARD); // one custom view, nothing to inflate
+        } else {
+            view = mViewPool.acquire(type); // pool only inflates if it's empty
+        }
+        long bindStart = System.nanoTime();
+        if (mViewPool.getInflateCount() != inflates) {
+            mMetrics.record(op, OverlayMetrics.PHASE_INFLATE, bindStart - inflateStart); // pool miss
+        }
+        window.type = type;
+        window.shownData = new HashMap<>(model.data);
+        window.view = view;
+        window.host.addView(view);
+
+        switch (type) {
+            case "bubble":
+                window.bubbleHolder = BubbleViewHolder.of(view);
+                setupBubbleView(window, model.bubble);
+                break;
+            case "card":
+                window.cardHolder = CardViewHolder.of(view);
+                setupCardView(window, model.card);
+                break;
+            case "stack":
+                applyCardParams(window);
+                mStackWindow = window;
+                mOfferStack.setAdapter(mOfferAdapter); // cards come from the pool as needed
+                break;
+        }
+        mMetrics.record(op, OverlayMetrics.PHASE_BIND, System.nanoTime() - bindStart);
+        mExpiryScheduler.reschedule(); // countdowns now visible, tick per second
+        stateChanged();
+    }
+
+    private OfferStackView offerStack() {
+        if (mOfferStack == null) {
+            mOfferStack = new OfferStackView(mContext);
+        }
+        return mOfferStack;
+    }
+
+    // take the content out of the host and back to the pool, window stays as-is
+    private void detachContent(OverlayWindow window) {
+        if (window.gestures != null) {
+            window.gestures.cancel(); // drops the long-press timeout, settles a drag in progress
+            window.gestures = null;
+        }
+        if (window.dragCoalescer != null) {
+            window.dragCoalescer.cancel(); // no layouts for a removed view
+            window.dragCoalescer = null;
+        }
+        if (window.snapAnimator != null) {
+            window.snapAnimator.cancel();
+            window.snapAnimator = null;
+        }
+        if (window.view == null) return;
+
+        if (window.cardHolder != null) {
+            mEtaUpdater.untrack(window.cardHolder);
+        }
+        if (window.is("bubble")) {
+            removeDismissView(); // only a bubble drag puts it up
+            if (window.params != null) {
+                window.bubbleLastX = window.params.x; // may have been interrupted mid-snap
+                window.bubbleLastY = window.params.y;
+            }
+        }
+        window.host.removeView(window.view);
+        if (window.is("stack")) {
+            mOfferStack.recycleAll(); // its cards go back to the pool
+            mStackWindow = null;
+        } else {
+            mViewPool.release(window.type, window.view); // reset and keep for next show
+        }
+        window.view = null;
+        window.bubbleHolder = null;
+        window.cardHolder = null;
+        window.type = null;
+        window.shownData = null;
+        mExpiryScheduler.reschedule(); // no countdown on screen, only wake for expiries
+        stateChanged();
+    }
+
+    // Hide one overlay window
+    void hide(String id) {
+        long start = System.nanoTime();
+        OverlayWindow window = mWindows.get(id);
+        if (window == null || !window.isShowing()) return;
+        hideOverlayInternal(window);
+        mMetrics.record(OverlayMetrics.OP_HIDE, OverlayMetrics.PHASE_TOTAL, System.nanoTime() - start);
+    }
+
+    // remove the window and reset its state; windows other than main leave the registry
+    private void hideOverlayInternal(OverlayWindow window) {
+        if (window.view != null && mWindowManager != null) {
+            try {
+                long windowStart = System.nanoTime();
+                mWindowManager.removeView(window.host);
+                mMetrics.record(OverlayMetrics.OP_HIDE, OverlayMetrics.PHASE_WINDOW, System.nanoTime() - windowStart);
+            } catch (Exception e) { /* ignore */ }
+        }
+        // content back to the pool, also removes dismiss view if it exists
+        detachContent(window);
+        window.params = null; // next window gets fresh params
+        window.firstDrawOp = -1;
+        unregisterIfIdle(window);
+        updateWindowPixels();
+    }
+
+    private void unregisterIfIdle(OverlayWindow window) {
+        if (window != mMain && !window.isShowing()) {
+            mWindows.remove(window.id);
+        }
+    }
+
+    // Run a batch in order in this one UI-thread pass; stops at the first failure, earlier ops stay applied
+    void apply(List<OverlayOp> ops) throws OverlayException {
+        for (int i = 0; i < ops.size(); i++) {
+            OverlayOp op = ops.get(i);
+            try {
+                switch (op.op) {
+                    case OverlayOp.SHOW:
+                        show(op.id, op.model);
+                        break;
+                    case OverlayOp.TRANSITION:
+                        transition(op.id, op.model);
+                        break;
+                    case OverlayOp.UPDATE:
+                        update(op.id, op.model);
+                        break;
+                    case OverlayOp.HIDE:
+                        hide(op.id);
+                        break;
+                }
+            } catch (OverlayException e) {
+                throw new OverlayException(e.code, "Batch op " + i + " (" + op.id + "): " + e.getMessage());
+            }
+        }
+    }
+
+    // every overlay window relayout goes through here so it gets counted
+    private void updateLayout(OverlayWindow window) {
+        mMetrics.countLayoutUpdate();
+        mWindowManager.updateViewLayout(window.host, window.params);
+    }
+
+    // time from startNs to the next frame the window draws; invalidate so there is one
+    private void armFirstDraw(OverlayWindow window, int op, long startNs) {
+        window.firstDrawOp = op;
+        window.firstDrawStartNs = startNs;
+        if (window.host != null) {
+            window.host.invalidate();
+        }
+    }
+
+    // registered on every new overlay window, records the first frame after an operation
+    private void onFirstDraw(OverlayWindow window) {
+        if (window.firstDrawOp < 0) return;
+        mMetrics.record(window.firstDrawOp, OverlayMetrics.PHASE_FIRST_DRAW, System.nanoTime() - window.firstDrawStartNs);
+        window.firstDrawOp = -1;
+        updateWindowPixels(); // new content, new size or format
+    }
+
+    // what the compositor blends for us, summed over the windows on screen
+    private void updateWindowPixels() {
+        long blended = 0;
+        long opaque = 0;
+        for (OverlayWindow window : mWindows.values()) {
+            if (!window.isShowing() || window.params == null) continue;
+            long pixels = (long) window.host.getWidth() * window.host.getHeight();
+            if (window.params.format == PixelFormat.OPAQUE) {
+                opaque += pixels;
+            } else {
+                blended += pixels;
+            }
+        }
+        mMetrics.setWindowPixels(blended, opaque);
+    }
+
+    // window params for an overlay host, created once per window and reused across transitions
+    private WindowManager.LayoutParams overlayParams(OverlayWindow window) {
+        if (window.params == null) {
+            int layoutFlag = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+                    ? WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY
+                    : WindowManager.LayoutParams.TYPE_PHONE; // fallback for old android
+            window.params = new WindowManager.LayoutParams(
+                    WindowManager.LayoutParams.WRAP_CONTENT,
+                    WindowManager.LayoutParams.WRAP_CONTENT,
+                    layoutFlag,
+                    WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE,
+                    PixelFormat.TRANSLUCENT);
+        }
+        return window.params;
+    }
+
+    // Update a window's content in place
+    void update(String id, OverlayModel model) throws OverlayException {
+        long start = System.nanoTime();
+        OverlayWindow window = mWindows.get(id);
+        if (window == null || !window.isShowing()) {
+            throw new OverlayException("E_NO_OVERLAY", "No overlay to update: " + id);
+        }
+
+        switch (window.type) {
+            case "bubble":
+                updateBubbleView(window, model.bubble);
+                break;
+            case "card":
+                updateCardView(window.cardHolder, model.card);
+                break;
+            // "stack" cards are updated by re-enqueueing the offer with the same offerId
+        }
+        window.shownData.putAll(model.data);
+        stateChanged();
+        armFirstDraw(window, OverlayMetrics.OP_UPDATE, start);
+        mMetrics.record(OverlayMetrics.OP_UPDATE, OverlayMetrics.PHASE_TOTAL, System.nanoTime() - start);
+    }
+
+    // config bubble view, params, and listeners
+    private void setupBubbleView(OverlayWindow window, BubbleModel bubble) {
+        updateBubbleView(window, bubble); // set initial content
+        if (window == mMain && !mOfferQueue.isEmpty()) {
+            window.bubbleHolder.bindBadge(mOfferQueue.size()); // native queue owns the main bubble's count
+        }
+
+        WindowManager.LayoutParams params = overlayParams(window);
+        params.width = WindowManager.LayoutParams.WRAP_CONTENT;
+        params.height = WindowManager.LayoutParams.WRAP_CONTENT;
+        params.flags = WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE; // allow touch passthrough
+        params.gravity = Gravity.TOP | Gravity.START; // top-left corner
+        params.format = PixelFormat.TRANSLUCENT; // round, may follow an opaque card in the same window
+        // restore position, the display may have changed size since it was saved
+        params.x = Math.min(window.bubbleLastX, mGeometry.maxX(window.view.getMeasuredWidth()));
+        params.y = Math.min(window.bubbleLastY, mGeometry.maxY(window.view.getMeasuredHeight()));
+
+        // drag positions are applied at most once per display frame
+        window.dragCoalescer = new DragFrameCoalescer((x, y) -> {
+            if (window.view == null || window.params == null) return; // hidden mid-frame
+            long frameTimeNanos = window.dragCoalescer.getFrameTimeNanos();
+            if (frameTimeNanos != 0) {
+                mMetrics.record(OverlayMetrics.OP_DRAG, OverlayMetrics.PHASE_FRAME_DELAY, System.nanoTime() - frameTimeNanos);
+            }
+            window.params.x = x;
+            window.params.y = y;
+            mMetrics.countDragFrame();
+            updateLayout(window);
+        });
+
+        // release animation writes through the same params, then remembers where it landed
+        window.snapAnimator = new BubbleSnapAnimator(new BubbleSnapAnimator.Listener() {
+            @Override
+            public void onPosition(int x, int y) {
+                if (window.view == null || window.params == null) return;
+                window.params.x = x;
+                window.params.y = y;
+                updateLayout(window);
+            }
+
+            @Override
+            public void onSettled(int x, int y) {
+                if (window.view != null) {
+                    window.view.setLayerType(View.LAYER_TYPE_NONE, null); // drag layer, not needed at rest
+                }
+                window.bubbleLastX = x;
+                window.bubbleLastY = y;
+                mEventEmitter.emitBubbleMoved(window.id, x, y);
+                stateChanged(); // persisted once it lands, not on every drag frame
+            }
+        });
+        if (mVelocityTracker == null) {
+            mVelocityTracker = VelocityTracker.obtain();
+        }
+
+        // handle drag, click, and dismiss; the recognizer works from event times and scaled slop
+        window.gestures = new TouchGestureRecognizer(new TouchGestureRecognizer.Listener() {
+            private int initialX, initialY; // params when the finger went down
+
+            @Override
+            public void onDown(float rawX, float rawY) {
+                window.snapAnimator.cancel(); // catch the bubble mid-flight
+                initialX = window.params.x;
+                initialY = window.params.y;
+                mIsBubbleOverlappingDismiss = false;
+            }
+
+            @Override
+            public void onTap(float rawX, float rawY) {
+                mEventEmitter.emitBubbleClicked(window.id); // debounced
+            }
+
+            @Override
+            public void onDoubleTap(float rawX, float rawY) {
+                // the first tap already opened the card, nothing more to do
+            }
+
+            @Override
+            public void onLongPress(float rawX, float rawY) {
+                window.view.performHapticFeedback(HapticFeedbackConstants.LONG_PRESS); // picked up
+            }
+
+            @Override
+            public void onDragStart(float rawX, float rawY) {
+                if (mLowOverdraw) {
+                    window.view.setLayerType(View.LAYER_TYPE_HARDWARE, null); // until the snap settles
+                }
+                showDismissView(); // show 'X' on drag start
+            }
+
+            @Override
+            public void onDrag(float rawX, float rawY) {
+                // queue position, the coalescer applies the latest one on the next frame
+                window.dragCoalescer.submit(
+                        (int) (initialX + (rawX - window.gestures.getDownX())),
+                        (int) (initialY + (rawY - window.gestures.getDownY())));
+
+                // check if over dismiss zone, only touch the 'X' when that changes
+                boolean overlapping = mGeometry.isInDismissZone(rawY);
+                if (overlapping != mIsBubbleOverlappingDismiss) {
+                    mIsBubbleOverlappingDismiss = overlapping;
+                    if (mDismissView != null) {
+                        mDismissView.setAlpha(overlapping ? 1.0f : 0.5f);
+                    }
+                }
+            }
+
+            @Override
+            public void onDragEnd(float rawX, float rawY, boolean cancelled) {
+                window.dragCoalescer.flushNow(); // land the last move before snapping
+                hideDismissView(); // always hide 'X' on drag end
+
+                if (mIsBubbleOverlappingDismiss && !cancelled) {
+                    hideOverlayInternal(window); // bye bye bubble
+                    return;
+                }
+
+                // otherwise fling/spring to an edge; a cancelled drag just settles, no fling
+                float velocityX = 0, velocityY = 0;
+                if (!cancelled) {
+                    mVelocityTracker.computeCurrentVelocity(1000, mGeometry.maxFlingVelocity);
+                    velocityX = mVelocityTracker.getXVelocity();
+                    velocityY = mVelocityTracker.getYVelocity();
+                }
+                window.snapAnimator.start(
+                        window.params.x, window.params.y,
+                        velocityX, velocityY,
+                        0, mGeometry.maxX(window.view.getWidth()),
+                        0, mGeometry.maxY(window.view.getHeight()),
+                        mGeometry.minFlingVelocity);
+            }
+        }, mMainTimer, ViewConfiguration.getLongPressTimeout(), ViewConfiguration.getDoubleTapTimeout());
+
+        window.view.setOnTouchListener((v, event) -> {
+            trackVelocity(event);
+            if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+                window.gestures.setSlop(mGeometry.touchSlop, mGeometry.doubleTapSlop); // density may have changed
+            }
+            return window.gestures.onTouchEvent(
+                    event.getActionMasked(), event.getRawX(), event.getRawY(), event.getEventTime());
+        });
+    }
+
+    // feed the tracker screen coordinates, the bubble moves under the finger so view-local ones lie
+    private void trackVelocity(MotionEvent event) {
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            mVelocityTracker.clear();
+        }
+        float offsetX = event.getRawX() - event.getX();
+        float offsetY = event.getRawY() - event.getY();
+        event.offsetLocation(offsetX, offsetY);
+        mVelocityTracker.addMovement(event);
+        event.offsetLocation(-offsetX, -offsetY);
+    }
+
+    // show the 'X' dismiss button at the bottom, added once per bubble session then toggled by visibility
+    private void showDismissView() {
+        if (mDismissView == null) {
+            mDismissView = mViewPool.acquire("dismiss");
+
+            int layoutFlag = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+                    ? WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY
+                    : WindowManager.LayoutParams.TYPE_PHONE;
+
+            mDismissParams = new WindowManager.LayoutParams(
+                    // low overdraw: only the target is blended, not a full-width strip
+                    mLowOverdraw ? WindowManager.LayoutParams.WRAP_CONTENT : WindowManager.LayoutParams.MATCH_PARENT,
+                    WindowManager.LayoutParams.WRAP_CONTENT,
+                    layoutFlag,
+                    // not focusable or touchable, it's just a target
+                    WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE | WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE,
+                    PixelFormat.TRANSLUCENT);
+
+            mDismissParams.gravity = Gravity.BOTTOM | Gravity.CENTER_HORIZONTAL;
+            mDismissParams.y = mGeometry.dismissMarginY;
+
+            try {
+                mWindowManager.addView(mDismissView, mDismissParams);
+            } catch (Exception e) {
+                Log.w(TAG, "Could not add dismiss view.", e);
+                mDismissView = null;
+                return;
+            }
+        }
+        if (mLowOverdraw) {
+            mDismissView.setLayerType(View.LAYER_TYPE_HARDWARE, null); // alpha flips become a layer property
+        }
+        mDismissView.setAlpha(0.5f); // start semi-transparent
+        mDismissView.setVisibility(View.VISIBLE);
+    }
+
+    // hide the 'X' but keep its window for the next drag
+    private void hideDismissView() {
+        if (mDismissView != null) {
+            mDismissView.setVisibility(View.GONE);
+            mDismissView.setLayerType(View.LAYER_TYPE_NONE, null);
+        }
+    }
+
+    // remove the 'X' window, end of the bubble session
+    private void removeDismissView() {
+        if (mDismissView != null && mWindowManager != null) {
+            try {
+                mWindowManager.removeViewImmediate(mDismissView); // detached now, so it can go back to the pool
+                mDismissView.setLayerType(View.LAYER_TYPE_NONE, null);
+                mViewPool.release("dismiss", mDismissView);
+            } catch (Exception e) {
+                Log.w(TAG, "Could not remove dismiss view, maybe it was already gone.");
+            }
+        }
+        mDismissView = null;
+        mDismissParams = null;
+    }
+
+    // rotation or folding changed the area: keep every bubble on its edge inside the new one
+    private void onGeometryChanged(int oldAreaWidth, int oldAreaHeight) {
+        if (mDismissView != null && mDismissParams != null) {
+            mDismissParams.y = mGeometry.dismissMarginY;
+            try {
+                mWindowManager.updateViewLayout(mDismissView, mDismissParams);
+            } catch (Exception e) {
+                Log.w(TAG, "Could not move dismiss view.", e);
+            }
+        }
+        for (OverlayWindow window : mWindows.values()) {
+            if (window.snapAnimator != null) {
+                window.snapAnimator.cancel(); // was heading for an edge that moved
+            }
+            if (!window.is("bubble") || window.params == null) {
+                // nothing live, the next bubble starts from the re-clamped spot (clamped again by its size on show)
+                window.bubbleLastX = OverlayGeometry.reclampX(window.bubbleLastX, 0, oldAreaWidth, mGeometry.areaWidth);
+                window.bubbleLastY = OverlayGeometry.reclampY(window.bubbleLastY, 0, oldAreaHeight, mGeometry.areaHeight);
+                continue;
+            }
+            int width = window.view.getWidth();
+            int height = window.view.getHeight();
+            window.params.x = OverlayGeometry.reclampX(window.params.x, width, oldAreaWidth, mGeometry.areaWidth);
+            window.params.y = OverlayGeometry.reclampY(window.params.y, height, oldAreaHeight, mGeometry.areaHeight);
+            window.bubbleLastX = window.params.x;
+            window.bubbleLastY = window.params.y;
+            updateLayout(window);
+            mEventEmitter.emitBubbleMoved(window.id, window.params.x, window.params.y);
+        }
+        stateChanged();
+    }
+
+    private void updateBubbleView(OverlayWindow window, @Nullable BubbleModel bubble) {
+        if (bubble == null || window.bubbleHolder == null) return;
+        if (bubble.badgeCount != BubbleModel.NO_BADGE) {
+            window.bubbleHolder.bindBadge(bubble.badgeCount);
+        }
+    }
+
+    // config card view, params, and listeners
+    private void setupCardView(OverlayWindow window, CardModel card) {
+        applyCardParams(window);
+        if (mLowOverdraw) {
+            window.cardHolder.setFlat(true); // every pixel of the window is now card, so it can be opaque
+            window.params.format = PixelFormat.OPAQUE;
+        }
+        // native (push) cards carry an offerId so their decisions can be matched up later
+        bindCard(window, window.cardHolder, card);
+    }
+
+    private void applyCardParams(OverlayWindow window) {
+        WindowManager.LayoutParams params = overlayParams(window);
+        params.width = WindowManager.LayoutParams.MATCH_PARENT;
+        params.height = WindowManager.LayoutParams.WRAP_CONTENT;
+        params.flags = WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE | WindowManager.LayoutParams.FLAG_NOT_TOUCH_MODAL; // allow touch passthrough
+        params.gravity = Gravity.CENTER;
+        params.format = PixelFormat.TRANSLUCENT; // rounded, shadowed cards; the stack peeks behind the top one
+        params.x = 0;
+        params.y = 0;
+    }
+
+    // bind trip data, fare, and listeners into a card; offerId is null for a standalone card from JS
+    private void bindCard(OverlayWindow window, CardViewHolder holder, CardModel card) {
+        updateCardView(holder, card); // set text fields
+        holder.expiresAtMs = card.expiresAtMs;
+        holder.bindCountdown(mExpiryScheduler.nowMs());
+        if (card.hasPickupLocation()) {
+            // the payload's texts stay up until the first fix
+            mEtaUpdater.track(holder, card.pickupLatitude, card.pickupLongitude,
+                    (distance, duration) -> holder.bindTexts(null, null, distance, duration, null, null));
+        } else {
+            mEtaUpdater.untrack(holder);
+        }
+        if (card.offerId != null && card.offerId.equals(holder.offerId)
+                && holder.fare.hasInputs(card.basePaise, card.addonPaise, card.addonPaise.length, card.capPaise, card.stacking)) {
+            return; // same offer and fare rebound, keep the driver's add-on choice
+        }
+        holder.offerId = card.offerId;
+        // init fare state, already in paise
+        holder.fare.reset(card.basePaise, card.addonPaise, card.addonPaise.length, card.capPaise, card.stacking);
+        holder.bindAddons();
+        holder.bindFare();
+
+        // fare add-ons toggle their own amount; accept/ignore close or advance the card
+        holder.setActions(new CardViewHolder.Actions() {
+            @Override
+            public void onAddonToggled(int index) {
+                holder.fare.toggleAddon(index);
+                holder.bindAddons();
+                holder.bindFare();
+                mEventEmitter.emitFareChanged(window.id, FareModel.paiseToRupees(holder.fare.getTotalPaise()));
+                stateChanged();
+            }
+
+            @Override
+            public void onAccept() {
+                onCardAccepted(window, holder);
+            }
+
+            @Override
+            public void onIgnore() {
+                onCardIgnored(window, holder);
+            }
+        });
+    }
+
+    private void onCardAccepted(OverlayWindow window, CardViewHolder holder) {
+        WritableMap params = new JavaOnlyMap();
+        params.putDouble("finalFare", FareModel.paiseToRupees(holder.fare.getTotalPaise()));
+        if (holder.offerId != null) {
+            params.putString("offerId", holder.offerId);
+        }
+        boolean fromStack = window.is("stack");
+        if (fromStack) {
+            mOfferQueue.clear(); // driver took a trip, the rest are moot
+        }
+        sendEvent(window, "onTripAccepted", params);
+        hideOverlayInternal(window);
+        if (fromStack) {
+            onOffersChanged(); // badge and expiry timer, the stack itself is already down
+        }
+
+        // bring app to foreground
+        Context context = mContext;
+        String packageName = context.getPackageName();
+        Intent launchIntent = context.getPackageManager().getLaunchIntentForPackage(packageName);
+        if (launchIntent != null) {
+            launchIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_REORDER_TO_FRONT);
+            context.startActivity(launchIntent);
+        }
+    }
+
+    private void onCardIgnored(OverlayWindow window, CardViewHolder holder) {
+        if (!window.is("stack")) {
+            WritableMap params = null;
+            if (holder.offerId != null) {
+                params = new JavaOnlyMap();
+                params.putString("offerId", holder.offerId);
+            }
+            sendEvent(window, "onTripIgnored", params);
+            hideOverlayInternal(window);
+            return;
+        }
+        // stacked offer: drop just this one, the stack moves on or closes when empty
+        String offerId = holder.offerId;
+        WritableMap params = new JavaOnlyMap();
+        params.putString("offerId", offerId);
+        sendEvent(window, "onTripIgnored", params);
+        mOfferQueue.remove(offerId);
+        onOffersChanged();
+    }
+
+    /**
+     * Updates the non-interactive text fields on the card.
+     * @param card The decoded card, fields it doesn't carry are left as they are.
+     */
+    private void updateCardView(@Nullable CardViewHolder holder, @Nullable CardModel card) {
+        if (card == null || holder == null) return;
+
+        // unchanged fields are skipped by the binder
+        holder.bindTexts(card.pickupAddress, card.dropoffAddress, card.distance, card.duration,
+                card.customerName, card.carType);
+    }
+
+    // --- Offer Queue ---
+
+    // Queue a trip offer (see CardModel.decodeOffer); returns the queue length
+    int enqueueOffer(CardModel offer) {
+        OfferQueue.Offer<CardModel> dropped = mOfferQueue.add(offer.offerId, offer.priority, offer.expiresAtMs, offer);
+        if (dropped != null) {
+            Log.w(TAG, "Offer queue full, dropped offer " + dropped.id);
+        }
+        onOffersChanged();
+        mExpiryScheduler.refresh(); // drops anything already expired, re-arms the timer
+        return mOfferQueue.size();
+    }
+
+    // Drop a queued offer, e.g. taken by another driver
+    void removeOffer(String offerId) {
+        mOfferQueue.remove(offerId);
+        onOffersChanged();
+    }
+
+    void clearOffers() {
+        mOfferQueue.clear();
+        onOffersChanged();
+    }
+
+    // feeds offers from the queue into the stack's recycled card views
+    private final OfferStackView.Adapter mOfferAdapter = new OfferStackView.Adapter() {
+        @Override
+        public int getCount() {
+            return mOfferQueue.size();
+        }
+
+        @Override
+        public void bind(View card, int position) {
+            bindCard(mStackWindow, CardViewHolder.of(card), mOfferQueue.get(position).payload);
+        }
+
+        @Override
+        public View obtainCard() {
+            return mViewPool.acquire("card");
+        }
+
+        @Override
+        public void recycleCard(View card) {
+            mEtaUpdater.untrack(CardViewHolder.of(card));
+            mViewPool.release("card", card);
+        }
+    };
+
+    private boolean hasLiveOffers() {
+        mExpiryScheduler.refresh();
+        return !mOfferQueue.isEmpty();
+    }
+
+    // --- Offer Expiry ---
+
+    private final OfferExpiryScheduler.Host mExpiryHost = new OfferExpiryScheduler.Host() {
+        @Override
+        public long nextExpiryMs() {
+            long next = mOfferQueue.nextExpiryMs();
+            for (OverlayWindow window : mWindows.values()) {
+                CardViewHolder card = window.cardHolder;
+                if (card != null && card.expiresAtMs > 0 && (next == 0 || card.expiresAtMs < next)) {
+                    next = card.expiresAtMs;
+                }
+            }
+            return next;
+        }
+
+        @Override
+        public boolean hasVisibleCountdown() {
+            for (OverlayWindow window : mWindows.values()) {
+                if (window.cardHolder != null && window.cardHolder.expiresAtMs > 0) return true;
+            }
+            // the stack can swipe any queued offer to the top, so it ticks if any of them expires
+            return mStackWindow != null && mOfferQueue.nextExpiryMs() > 0;
+        }
+
+        @Override
+        public void expireDue(long nowMs) {
+            mExpiredScratch.clear();
+            mOfferQueue.removeExpired(nowMs, mExpiredScratch);
+            boolean queueChanged = !mExpiredScratch.isEmpty();
+            for (int i = 0; i < mExpiredScratch.size(); i++) {
+                sendTripExpired(null, mExpiredScratch.get(i).id);
+            }
+            mExpiredScratch.clear();
+
+            // standalone cards that ran out: auto-ignore them
+            mWindowScratch.addAll(mWindows.values()); // hiding edits the registry
+            for (int i = 0; i < mWindowScratch.size(); i++) {
+                OverlayWindow window = mWindowScratch.get(i);
+                CardViewHolder card = window.cardHolder;
+                if (card != null && card.expiresAtMs > 0 && nowMs >= card.expiresAtMs) {
+                    sendTripExpired(window, card.offerId);
+                    hideOverlayInternal(window);
+                }
+            }
+            mWindowScratch.clear();
+            if (queueChanged) {
+                onOffersChanged();
+            }
+        }
+
+        @Override
+        public void renderCountdowns(long nowMs) {
+            for (OverlayWindow window : mWindows.values()) {
+                if (window.cardHolder != null) {
+                    window.cardHolder.bindCountdown(nowMs);
+                }
+            }
+            if (mStackWindow != null) {
+                for (int i = 0; i < mOfferStack.getActiveCount(); i++) {
+                    CardViewHolder.of(mOfferStack.getActiveCard(i)).bindCountdown(nowMs);
+                }
+            }
+        }
+    };
+
+    // window null = a queued offer that wasn't on screen
+    private void sendTripExpired(@Nullable OverlayWindow window, @Nullable String offerId) {
+        WritableMap params = null;
+        if (offerId != null) {
+            params = new JavaOnlyMap();
+            params.putString("offerId", offerId);
+        }
+        if (window != null) {
+            sendEvent(window, "onTripExpired", params);
+        } else {
+            mEventEmitter.emit("onTripExpired", params);
+        }
+    }
+
+    // keep the visible overlays in sync with the queue, no JS round-trip
+    private void onOffersChanged() {
+        if (mStackWindow != null) {
+            if (mOfferQueue.isEmpty()) {
+                hideOverlayInternal(mStackWindow); // last offer handled
+            } else {
+                mOfferStack.notifyDataSetChanged();
+            }
+        }
+        if (mMain.bubbleHolder != null) {
+            mMain.bubbleHolder.bindBadge(mOfferQueue.size());
+        }
+        mExpiryScheduler.reschedule();
+        stateChanged();
+    }
+
+    // tear everything down, the host service is going away
+    void release() {
+        mWindowScratch.addAll(mWindows.values());
+        for (int i = 0; i < mWindowScratch.size(); i++) {
+            hideOverlayInternal(mWindowScratch.get(i));
+        }
+        mWindowScratch.clear();
+        mOfferQueue.clear();
+        mEventEmitter.flush(); // last results still go to the listener
+        mExpiryScheduler.cancel();
+        mEtaUpdater.release();
+        mMain.host = null;
+        if (mVelocityTracker != null) {
+            mVelocityTracker.recycle();
+            mVelocityTracker = null;
+        }
+        mViewPool.clear();
+        mContext.getApplicationContext().unregisterComponentCallbacks(mViewPool);
+        mContext.getApplicationContext().unregisterComponentCallbacks(mGeometry);
+    }
+
+    @VisibleForTesting
+    @Nullable
+    View getOverlayView() {
+        return mMain.view;
+    }
+
+    @VisibleForTesting
+    @Nullable
+    View getOverlayView(String id) {
+        OverlayWindow window = mWindows.get(id);
+        return window != null ? window.view : null;
+    }
+
+    @VisibleForTesting
+    boolean isExpiryScheduled() {
+        return mExpiryScheduler.isScheduled();
+    }
+
+    OverlayMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    int getEmittedEventCount() {
+        return mEventEmitter.getEmittedCount();
+    }
+
+    int getCoalescedEventCount() {
+        return mEventEmitter.getCoalescedCount();
+    }
+
+    // tell the host something changed, and whether there is (or stops being) something on screen or queued
+    private void stateChanged() {
+        boolean active = isActive();
+        if (active != mActive) {
+            mActive = active;
+            mListener.onActiveChanged(active);
+        }
+        mListener.onStateChanged();
+    }
+
+    // --- Snapshot ---
+
+    // copy of the persistent state, the caller may encode it on another thread
+    OverlaySnapshot snapshot() {
+        OverlaySnapshot snapshot = new OverlaySnapshot();
+        snapshot.bubbleX = bubbleX(mMain);
+        snapshot.bubbleY = bubbleY(mMain);
+        snapshot.overlayType = mMain.type;
+        snapshot.shown = mMain.shownData != null ? new HashMap<>(mMain.shownData) : null;
+        if (mMain.cardHolder != null) {
+            for (int i = 0; i < mMain.cardHolder.fare.getAddonCount(); i++) {
+                if (mMain.cardHolder.fare.isSelected(i)) snapshot.addonMask |= 1 << i;
+            }
+        }
+        for (int i = 0; i < mOfferQueue.size(); i++) {
+            OfferQueue.Offer<CardModel> offer = mOfferQueue.get(i);
+            snapshot.offers.add(new OverlaySnapshot.Offer(
+                    offer.id, offer.priority, offer.expiresAtMs, new HashMap<>(offer.payload.data)));
+        }
+        for (OverlayWindow window : mWindows.values()) {
+            if (window == mMain || !window.isShowing()) continue;
+            snapshot.windows.add(new OverlaySnapshot.Window(
+                    window.id, bubbleX(window), bubbleY(window), new HashMap<>(window.shownData)));
+        }
+        return snapshot;
+    }
+
+    // live position while a bubble is up, the remembered one otherwise
+    private static int bubbleX(OverlayWindow window) {
+        return window.is("bubble") && window.params != null ? window.params.x : window.bubbleLastX;
+    }
+
+    private static int bubbleY(OverlayWindow window) {
+        return window.is("bubble") && window.params != null ? window.params.y : window.bubbleLastY;
+    }
+
+    // put a snapshot back after process death; expired offers and cards are skipped
+    void restore(OverlaySnapshot snapshot) {
+        long now = mExpiryScheduler.nowMs();
+        mMain.bubbleLastX = snapshot.bubbleX;
+        mMain.bubbleLastY = snapshot.bubbleY;
+        for (int i = 0; i < snapshot.offers.size(); i++) {
+            OverlaySnapshot.Offer offer = snapshot.offers.get(i);
+            if (offer.expiresAtMs != 0 && offer.expiresAtMs <= now) continue;
+            try {
+                mOfferQueue.add(offer.id, offer.priority, offer.expiresAtMs,
+                        CardModel.decode(PlainMaps.toReadable(offer.payload)));
+            } catch (OverlayException e) {
+                Log.w(TAG, "Skipping unreadable offer " + offer.id + ": " + e.code);
+            }
+        }
+        for (int i = 0; i < snapshot.windows.size(); i++) {
+            OverlaySnapshot.Window saved = snapshot.windows.get(i);
+            restoreWindow(saved.id, saved.x, saved.y, saved.shown, now);
+        }
+        if (snapshot.overlayType == null || snapshot.shown == null || mMain.isShowing()
+                || !restoreWindow(MAIN_ID, snapshot.bubbleX, snapshot.bubbleY, snapshot.shown, now)) {
+            onOffersChanged();
+            return;
+        }
+        if (mMain.cardHolder != null && snapshot.addonMask != 0) {
+            for (int i = 0; i < mMain.cardHolder.fare.getAddonCount(); i++) {
+                if ((snapshot.addonMask & (1 << i)) != 0) mMain.cardHolder.fare.toggleAddon(i);
+            }
+            mMain.cardHolder.bindAddons();
+            mMain.cardHolder.bindFare();
+        }
+    }
+
+    // show one saved window again; false if its offer ran out or it can't be read any more
+    private boolean restoreWindow(String id, int bubbleX, int bubbleY, Map<String, Object> shown, long now) {
+        try {
+            OverlayModel model = OverlayModel.decode(PlainMaps.toReadable(shown));
+            if (model.card != null && model.card.expiresAtMs != 0 && model.card.expiresAtMs <= now) {
+                return false; // the offer on screen ran out while we were dead
+            }
+            OverlayWindow window = register(id);
+            window.bubbleLastX = bubbleX;
+            window.bubbleLastY = bubbleY;
+            show(id, model);
+            return true;
+        } catch (OverlayException e) {
+            Log.w(TAG, "Could not restore overlay " + id + ": " + e.code);
+            return false;
+        }
+    }
+
+    // what's up right now as plain values, for JS to rehydrate from after a restart
+    HashMap<String, Object> getState() {
+        HashMap<String, Object> state = new HashMap<>();
+        state.put("type", mMain.type);
+        state.put("data", mMain.shownData != null ? new HashMap<>(mMain.shownData) : null);
+        state.put("queuedOffers", mOfferQueue.size());
+        ArrayList<Object> overlays = new ArrayList<>();
+        for (OverlayWindow window : mWindows.values()) {
+            if (!window.isShowing()) continue;
+            HashMap<String, Object> overlay = new HashMap<>();
+            overlay.put("id", window.id);
+            overlay.put("type", window.type);
+            overlay.put("data", new HashMap<>(window.shownData));
+            overlays.add(overlay);
+        }
+        state.put("overlays", overlays); // every window, main included
+        return state;
+    }
+
+    /**
+     * A helper method to send an event about one overlay window out to the host service (and from
+     * there to JavaScript), tagged with its overlayId. Events are batched and delivered on the next frame.
+     * Must be called on the UI thread.
+     * @param window The window the event is about.
+     * @param eventName The name of the event (e.g., "onTripAccepted").
+     * @param params Optional data to send with the event.
+     */
+    private void sendEvent(OverlayWindow window, String eventName, @Nullable WritableMap params) {
+        mEventEmitter.emit(window.id, eventName, params);
+    }
+}
@@ -1,59 +1,62 @@
 package com.awesomeproject.core;
 
+import android.content.ComponentName;
 import android.content.Context;
-import android.graphics.PixelFormat;
-import android.os.Build;
-import android.provider.Settings;
-import android.view.Gravity;
-import android.view.LayoutInflater;
-import android.view.MotionEvent;
-import android.view.View;
-import android.view.WindowManager;
-import android.widget.Button;
-import android.widget.TextView;
-import android.util.Log;
 import android.content.Intent;
-import android.app.PendingIntent;
+import android.content.ServiceConnection;
+import android.os.IBinder;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.awesomeproject.MainActivity;
-import com.awesomeproject.R;
 import com.facebook.react.bridge.Arguments;
-import com.facebook.react.bridge.LifecycleEventListener;
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.UiThreadUtil;
+import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.modules.core.DeviceEventManagerModule;
 
-import java.util.Calendar;
+import java.util.ArrayList;
 
-// Manages system overlays (bubble, card) and communicates with JS.
-public class OverlayCoreModule extends ReactContextBaseJavaModule implements LifecycleEventListener {
+// JS face of the overlay. The windows and offer state live in OverlayHostService, this module
+// binds to it, forwards calls on the UI thread, and passes the service's events on to JS.
+// Payloads are decoded and validated here, on the native modules thread; the UI thread only binds them.
+// On the new architecture OverlayCoreTurboModule fronts the same calls through this instance, so a
+// React context has one client of the service either way.
+public class OverlayCoreModule extends ReactContextBaseJavaModule
+        implements ServiceConnection, OverlayHostService.Client {
 
     private static final String TAG = "OverlayCoreModule";
     private final ReactApplicationContext mReactContext;
-    private WindowManager mWindowManager;
-    private View mOverlayView;
-    private View mDismissView; // view for the 'X' dismiss button
-    private WindowManager.LayoutParams mOverlayParams;
-    private WindowManager.LayoutParams mDismissParams;
-    private boolean mIsBubbleOverlappingDismiss = false; // for drag-to-dismiss
-
-    // --- State ---
-    private String mCurrentOverlayType = null; // "bubble", "card", or null
-    private int mBubbleLastX = 0; // remember bubble position
-    private int mBubbleLastY = 100;
+    private OverlayHostService mService; // set while bound, UI thread only
+    private final ArrayList<PendingCall> mPendingCalls = new ArrayList<>(); // calls made before the bind completed
+    private boolean mBound = false;
+
+    // one overlay call against the controller, failures reject the promise with their code
+    private interface ControllerCall {
+        void run(OverlayController controller) throws OverlayException;
+    }
+
+    // a call waiting for the bind, its promise is rejected if the bind fails
+    private static final class PendingCall {
+        @Nullable final Promise promise;
+        final Runnable dispatch;
+
+        PendingCall(@Nullable Promise promise, Runnable dispatch) {
+            this.promise = promise;
+            this.dispatch = dispatch;
+        }
+    }
 
     public OverlayCoreModule(ReactApplicationContext reactContext) {
         super(reactContext);
         mReactContext = reactContext;
-        mReactContext.addLifecycleEventListener(this); // handle app resume/pause
     }
 
     @NonNull
@@ -62,409 +65,375 @@ public class OverlayCoreModule extends ReactContextBaseJavaModule implements Lif
         return "OverlayCoreModule";
     }
 
+    @Override
+    public void initialize() {
+        super.initialize();
+        UiThreadUtil.runOnUiThread(this::bindHost); // binding early lets buffered results reach JS
+    }
+
     // Show overlay from JS
     @ReactMethod
     public void showOverlay(ReadableMap data, Promise promise) {
-        UiThreadUtil.runOnUiThread(() -> {
-            if (mOverlayView != null) {
-                promise.reject("E_OVERLAY_EXISTS", "Overlay already visible.");
-                return;
-            }
-
-            // check permission first
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M && !Settings.canDrawOverlays(mReactContext)) {
-                promise.reject("E_PERMISSION_DENIED", "Overlay permission denied.");
-                return;
-            }
+        OverlayModel model = decode(data, promise);
+        if (model == null) return;
+        withController(promise, OverlayMetrics.OP_SHOW, controller -> {
+            controller.show(model);
+            promise.resolve(null);
+        });
+    }
 
-            mWindowManager = (WindowManager) mReactContext.getSystemService(Context.WINDOW_SERVICE);
-            LayoutInflater inflater = (LayoutInflater) mReactContext.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
-            String type = data.getString("type");
+    // Swap the visible overlay for another one in the same window (bubble <-> card), one promise
+    @ReactMethod
+    public void transitionOverlay(ReadableMap data, Promise promise) {
+        OverlayModel model = decode(data, promise);
+        if (model == null) return;
+        withController(promise, OverlayMetrics.OP_TRANSITION, controller -> {
+            controller.transition(model);
+            promise.resolve(null);
+        });
+    }
 
-            if (type == null) {
-                promise.reject("E_INVALID_TYPE", "Overlay type missing.");
-                return;
-            }
+    // Inflate and measure the overlay views in the background; resolves once they're warm. Idempotent
+    @ReactMethod
+    public void prewarm(Promise promise) {
+        withController(promise, controller -> controller.prewarm(() -> promise.resolve(null)));
+    }
 
-            mCurrentOverlayType = type;
-
-            // inflate correct layout
-            switch (type) {
-                case "bubble":
-                    mOverlayView = inflater.inflate(R.layout.overlay_bubble, null);
-                    setupBubbleView(data);
-                    break;
-                case "card":
-                    mOverlayView = inflater.inflate(R.layout.overlay_trip_card, null);
-                    setupCardView(data);
-                    break;
-                default:
-                    promise.reject("E_INVALID_TYPE", "Invalid overlay type: " + type);
-                    return;
-            }
+    // Opt in to opaque, flat cards and hardware layers while the bubble moves; from the next show
+    @ReactMethod
+    public void setLowOverdrawMode(boolean enabled, Promise promise) {
+        withController(promise, controller -> {
+            controller.setLowOverdraw(enabled);
+            promise.resolve(null);
+        });
+    }
 
-            try {
-                mWindowManager.addView(mOverlayView, mOverlayParams);
-                promise.resolve(null);
-            } catch (Exception e) {
-                Log.e(TAG, "Failed to add overlay view.", e);
-                promise.reject("E_ADD_VIEW_FAILED", e.getMessage());
-            }
+    // Location permission answered in JS: live ETA cards and the host service's foreground type follow it
+    @ReactMethod
+    public void refreshLocationAccess(Promise promise) {
+        withController(promise, controller -> {
+            mService.refreshLocationAccess();
+            promise.resolve(null);
         });
     }
 
     // Hide overlay from JS
     @ReactMethod
     public void hideOverlay(Promise promise) {
-        UiThreadUtil.runOnUiThread(() -> {
-            try {
-                hideOverlayInternal();
-                if (promise != null) {
-                    promise.resolve(null);
-                }
-            } catch (Exception e) {
-                if (promise != null) {
-                    promise.reject("E_REMOVE_VIEW_FAILED", e.getMessage());
-                }
+        withController(promise, OverlayMetrics.OP_HIDE, controller -> {
+            controller.hide();
+            if (promise != null) {
+                promise.resolve(null);
             }
         });
     }
 
-    // remove view and reset state
-    private void hideOverlayInternal() {
-        // remove main overlay
-        if (mOverlayView != null && mWindowManager != null) {
-            try {
-                mWindowManager.removeView(mOverlayView);
-            } catch (Exception e) { /* ignore */ }
-            mOverlayView = null;
-            mCurrentOverlayType = null;
-            mOverlayParams = null;
+    // Update overlay content from JS
+    @ReactMethod
+    public void updateOverlay(ReadableMap data, Promise promise) {
+        OverlayModel model;
+        try {
+            model = OverlayModel.decodeUpdate(data);
+        } catch (OverlayException e) {
+            promise.reject(e.code, e.getMessage());
+            return;
         }
-        // also remove dismiss view if it exists
-        hideDismissView();
+        withController(promise, OverlayMetrics.OP_UPDATE, controller -> {
+            controller.update(model);
+            promise.resolve(null);
+        });
     }
 
-    // Update overlay content from JS
+    // --- Overlay windows by id, the calls above address OverlayController.MAIN_ID ---
+
+    // Show an overlay in its own window next to any others
     @ReactMethod
-    public void updateOverlay(ReadableMap data, Promise promise) {
-        UiThreadUtil.runOnUiThread(() -> {
-            if (mOverlayView == null || mCurrentOverlayType == null) {
-                promise.reject("E_NO_OVERLAY", "No overlay to update.");
-                return;
-            }
+    public void showOverlayWindow(String id, ReadableMap data, Promise promise) {
+        OverlayModel model = decode(data, promise);
+        if (model == null) return;
+        withController(promise, OverlayMetrics.OP_SHOW, controller -> {
+            controller.show(id, model);
+            promise.resolve(null);
+        });
+    }
 
-            switch (mCurrentOverlayType) {
-                case "bubble":
-                    updateBubbleView(data);
-                    break;
-                case "card":
-                    updateCardView(data);
-                    break;
-            }
+    @ReactMethod
+    public void transitionOverlayWindow(String id, ReadableMap data, Promise promise) {
+        OverlayModel model = decode(data, promise);
+        if (model == null) return;
+        withController(promise, OverlayMetrics.OP_TRANSITION, controller -> {
+            controller.transition(id, model);
             promise.resolve(null);
         });
     }
 
-    // config bubble view, params, and listeners
-    private void setupBubbleView(ReadableMap data) {
-        updateBubbleView(data); // set initial content
-
-        int layoutFlag = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
-                ? WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY
-                : WindowManager.LayoutParams.TYPE_PHONE; // fallback for old android
-
-        mOverlayParams = new WindowManager.LayoutParams(
-                WindowManager.LayoutParams.WRAP_CONTENT,
-                WindowManager.LayoutParams.WRAP_CONTENT,
-                layoutFlag,
-                WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE, // allow touch passthrough
-                PixelFormat.TRANSLUCENT);
-
-        mOverlayParams.gravity = Gravity.TOP | Gravity.START; // top-left corner
-        mOverlayParams.x = mBubbleLastX; // restore position
-        mOverlayParams.y = mBubbleLastY;
-
-        // handle drag, click, and dismiss
-        mOverlayView.setOnTouchListener(new View.OnTouchListener() {
-            private long startClickTime;
-            private float initialX, initialY, initialTouchX, initialTouchY;
-            private final int screenHeight = mReactContext.getResources().getDisplayMetrics().heightPixels;
-            private final int dismissZoneHeight = 300; // px from bottom for dismiss zone
-
-            @Override
-            public boolean onTouch(View v, MotionEvent event) {
-                switch (event.getAction()) {
-                    case MotionEvent.ACTION_DOWN:
-                        startClickTime = Calendar.getInstance().getTimeInMillis();
-                        initialX = mOverlayParams.x;
-                        initialY = mOverlayParams.y;
-                        initialTouchX = event.getRawX();
-                        initialTouchY = event.getRawY();
-                        showDismissView(); // show 'X' on drag start
-                        return true;
-
-                    case MotionEvent.ACTION_MOVE:
-                        // update position on drag
-                        mOverlayParams.x = (int) (initialX + (event.getRawX() - initialTouchX));
-                        mOverlayParams.y = (int) (initialY + (event.getRawY() - initialTouchY));
-                        mWindowManager.updateViewLayout(mOverlayView, mOverlayParams);
-
-                        // check if over dismiss zone and give visual feedback
-                        mIsBubbleOverlappingDismiss = event.getRawY() > screenHeight - dismissZoneHeight;
-                        if (mDismissView != null) {
-                            mDismissView.setAlpha(mIsBubbleOverlappingDismiss ? 1.0f : 0.5f);
-                        }
-                        return true;
-
-                    case MotionEvent.ACTION_UP:
-                        hideDismissView(); // always hide 'X' on drag end
-
-                        if (mIsBubbleOverlappingDismiss) {
-                            hideOverlayInternal(); // bye bye bubble
-                            return true;
-                        }
-
-                        long clickDuration = Calendar.getInstance().getTimeInMillis() - startClickTime;
-                        float clickDistance = (float) Math.hypot(event.getRawX() - initialTouchX, event.getRawY() - initialTouchY);
-
-                        // short, stationary touch = click
-                        if (clickDuration < 200 && clickDistance < 15) {
-                            sendEvent("onBubbleClicked", null);
-                        } else {
-                            // otherwise, it's a drag, so snap to edge
-                            int screenWidth = mReactContext.getResources().getDisplayMetrics().widthPixels;
-                            if (mOverlayParams.x < (screenWidth - v.getWidth()) / 2) {
-                                mOverlayParams.x = 0; // snap left
-                            } else {
-                                mOverlayParams.x = screenWidth - v.getWidth(); // snap right
-                            }
-                            mWindowManager.updateViewLayout(mOverlayView, mOverlayParams);
-                            // save position
-                            mBubbleLastX = mOverlayParams.x;
-                            mBubbleLastY = mOverlayParams.y;
-                        }
-                        return true;
-                }
-                return false;
-            }
+    @ReactMethod
+    public void updateOverlayWindow(String id, ReadableMap data, Promise promise) {
+        OverlayModel model;
+        try {
+            model = OverlayModel.decodeUpdate(data);
+        } catch (OverlayException e) {
+            promise.reject(e.code, e.getMessage());
+            return;
+        }
+        withController(promise, OverlayMetrics.OP_UPDATE, controller -> {
+            controller.update(id, model);
+            promise.resolve(null);
         });
     }
 
-    // update bubble badge count
-        // show the 'X' dismiss button at the bottom
-    private void showDismissView() {
-        if (mDismissView != null) return;
+    @ReactMethod
+    public void hideOverlayWindow(String id, Promise promise) {
+        withController(promise, OverlayMetrics.OP_HIDE, controller -> {
+            controller.hide(id);
+            promise.resolve(null);
+        });
+    }
 
-        UiThreadUtil.runOnUiThread(() -> {
-            LayoutInflater inflater = (LayoutInflater) mReactContext.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
-            mDismissView = inflater.inflate(R.layout.overlay_dismiss_button, null);
-            mDismissView.setAlpha(0.5f); // start semi-transparent
-
-            int layoutFlag = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
-                    ? WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY
-                    : WindowManager.LayoutParams.TYPE_PHONE;
-
-            mDismissParams = new WindowManager.LayoutParams(
-                    WindowManager.LayoutParams.MATCH_PARENT,
-                    WindowManager.LayoutParams.WRAP_CONTENT,
-                    layoutFlag,
-                    // not focusable or touchable, it's just a target
-                    WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE | WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE,
-                    PixelFormat.TRANSLUCENT);
-
-            mDismissParams.gravity = Gravity.BOTTOM | Gravity.CENTER_HORIZONTAL;
-            mDismissParams.y = 50;
-
-            mWindowManager.addView(mDismissView, mDismissParams);
+    // Several window ops in one bridge call and one UI-thread pass, e.g. bubble -> card while an
+    // earnings bubble updates. Decoded here up front; stops at the first op that fails
+    @ReactMethod
+    public void applyOverlayBatch(ReadableArray ops, Promise promise) {
+        ArrayList<OverlayOp> batch;
+        try {
+            batch = OverlayOp.decodeBatch(ops);
+        } catch (OverlayException e) {
+            promise.reject(e.code, e.getMessage());
+            return;
+        }
+        withController(promise, controller -> {
+            controller.apply(batch);
+            promise.resolve(null);
         });
     }
 
-    // remove the 'X' dismiss button
-    private void hideDismissView() {
-        UiThreadUtil.runOnUiThread(() -> {
-            if (mDismissView != null && mWindowManager != null) {
-                try {
-                    mWindowManager.removeView(mDismissView);
-                } catch (Exception e) {
-                    Log.w(TAG, "Could not remove dismiss view, maybe it was already gone.");
-                }
-                mDismissView = null;
+    // Ids of the overlay windows on screen
+    @ReactMethod
+    public void getOverlayIds(Promise promise) {
+        withController(promise, controller -> {
+            WritableArray ids = Arguments.createArray();
+            for (String id : controller.getOverlayIds()) {
+                ids.pushString(id);
             }
+            promise.resolve(ids);
         });
     }
 
-    private void updateBubbleView(ReadableMap data) {
-        if (data == null || mOverlayView == null) return;
-        TextView badge = mOverlayView.findViewById(R.id.bubble_badge);
-        if (data.hasKey("badgeCount")) {
-            int count = data.getInt("badgeCount");
-            badge.setText(String.valueOf(count));
-            badge.setVisibility(count > 0 ? View.VISIBLE : View.GONE);
+    // --- Fire-and-forget updates, no promise per call; failures are logged ---
+
+    @ReactMethod
+    public void postOverlayUpdate(String id, ReadableMap data) {
+        OverlayModel model;
+        try {
+            model = OverlayModel.decodeUpdate(data);
+        } catch (OverlayException e) {
+            Log.w(TAG, "Dropped update for " + id + ": " + e.getMessage());
+            return;
         }
+        withController(null, OverlayMetrics.OP_UPDATE, controller -> controller.update(id, model));
     }
 
-    // --- Card State ---
-    private double baseFare = 0;
-    private double currentFare = 0;
-
-    // config card view, params, and listeners
-    private void setupCardView(ReadableMap data) {
-        updateCardView(data); // set initial text fields
-
-        int layoutFlag = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
-                ? WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY
-                : WindowManager.LayoutParams.TYPE_PHONE;
-        mOverlayParams = new WindowManager.LayoutParams(
-                WindowManager.LayoutParams.MATCH_PARENT,
-                WindowManager.LayoutParams.WRAP_CONTENT,
-                layoutFlag,
-                WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE | WindowManager.LayoutParams.FLAG_NOT_TOUCH_MODAL, // allow touch passthrough
-                PixelFormat.TRANSLUCENT);
-        mOverlayParams.gravity = Gravity.CENTER;
-
-        // find views
-        final Button acceptButton = mOverlayView.findViewById(R.id.accept_button);
-        final Button ignoreButton = mOverlayView.findViewById(R.id.ignore_button);
-        final TextView totalFareTextView = mOverlayView.findViewById(R.id.total_fare_text);
-        final TextView addon1 = mOverlayView.findViewById(R.id.addon_button_1);
-        final TextView addon2 = mOverlayView.findViewById(R.id.addon_button_2);
-        final TextView addon3 = mOverlayView.findViewById(R.id.addon_button_3);
-        final TextView addon4 = mOverlayView.findViewById(R.id.addon_button_4);
-        final TextView addon5 = mOverlayView.findViewById(R.id.addon_button_5);
-
-        // init fare state
+    // badge refresh with a plain argument, the model is built from it directly
+    @ReactMethod
+    public void postBadgeCount(String id, double badgeCount) {
+        OverlayModel model;
         try {
-            if (data.hasKey("baseFare")) {
-                String fareString = data.getString("baseFare").replaceAll("[^\\d.]", "");
-                baseFare = Double.parseDouble(fareString);
-            } else {
-                baseFare = 0;
-            }
-            currentFare = baseFare;
-            updateFareDisplay(totalFareTextView);
-        } catch (Exception e) {
-            Log.e(TAG, "Could not parse base fare from: " + (data.hasKey("baseFare") ? data.getString("baseFare") : "null"), e);
-            baseFare = 0;
-            currentFare = 0;
-            updateFareDisplay(totalFareTextView);
+            model = OverlayModel.badgeUpdate(badgeCount);
+        } catch (OverlayException e) {
+            Log.w(TAG, "Dropped badge for " + id + ": " + e.getMessage()); // a bad value from JS, not a crash
+            return;
         }
+        postUpdate(id, model);
+    }
 
-        // listener for fare addons
-        View.OnClickListener addonListener = v -> {
-            String text = ((TextView) v).getText().toString();
-            try {
-                // Extract number from "+₹5", "+₹10", etc.
-                double addon = Double.parseDouble(text.replaceAll("[^\\d.]", ""));
-                currentFare = baseFare + addon;
-                updateFareDisplay(totalFareTextView);
-            } catch (NumberFormatException ex) {
-                Log.e(TAG, "Could not parse addon from: " + text, ex);
-            }
-        };
-
-        addon1.setOnClickListener(addonListener);
-        addon2.setOnClickListener(addonListener);
-        addon3.setOnClickListener(addonListener);
-        addon4.setOnClickListener(addonListener);
-        addon5.setOnClickListener(addonListener);
-
-        // accept button listener
-        acceptButton.setOnClickListener(v -> {
-            WritableMap params = Arguments.createMap();
-            params.putDouble("finalFare", currentFare);
-            sendEvent("onTripAccepted", params);
-            hideOverlayInternal();
-
-            // bring app to foreground
-            Context context = getReactApplicationContext();
-            String packageName = context.getPackageName();
-            Intent launchIntent = context.getPackageManager().getLaunchIntentForPackage(packageName);
-            if (launchIntent != null) {
-                launchIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_REORDER_TO_FRONT);
-                context.startActivity(launchIntent);
-            }
+    // ETA/distance refresh, null leaves that field as it is
+    @ReactMethod
+    public void postCardTrip(String id, @Nullable String distance, @Nullable String duration) {
+        postUpdate(id, OverlayModel.tripUpdate(distance, duration));
+    }
+
+    // Queue a trip offer from JS; resolves with the queue length
+    @ReactMethod
+    public void enqueueOffer(ReadableMap data, Promise promise) {
+        CardModel offer;
+        try {
+            offer = CardModel.decodeOffer(data);
+        } catch (OverlayException e) {
+            promise.reject(e.code, e.getMessage());
+            return;
+        }
+        withController(promise, controller -> promise.resolve(controller.enqueueOffer(offer)));
+    }
+
+    // Drop a queued offer, e.g. taken by another driver
+    @ReactMethod
+    public void removeOffer(String offerId, Promise promise) {
+        withController(promise, controller -> {
+            controller.removeOffer(offerId);
+            promise.resolve(null);
         });
+    }
 
-        // ignore button listener
-        ignoreButton.setOnClickListener(v -> {
-            sendEvent("onTripIgnored", null);
-            hideOverlayInternal();
+    @ReactMethod
+    public void clearOffers(Promise promise) {
+        withController(promise, controller -> {
+            controller.clearOffers();
+            promise.resolve(null);
         });
     }
 
-    // update fare text on card
-    private void updateFareDisplay(TextView totalFareView) {
-        String fareText = String.format(java.util.Locale.US, "₹%.0f", currentFare);
-        totalFareView.setText(fareText);
+    // Event counters from JS, emitted vs dropped by coalescing
+    @ReactMethod
+    public void getEventStats(Promise promise) {
+        withController(promise, controller -> {
+            WritableMap stats = Arguments.createMap();
+            stats.putInt("emitted", controller.getEmittedEventCount());
+            stats.putInt("coalesced", controller.getCoalescedEventCount());
+            promise.resolve(stats);
+        });
     }
 
-    /**
-     * Updates the non-interactive text fields on the card.
-     * @param cardData The new data from JavaScript.
-     */
-    private void updateCardView(ReadableMap cardData) {
-        if (cardData == null || mOverlayView == null) return;
+    // Overlay latency histograms (ms) and window counters, for p50/p99 dashboards
+    @ReactMethod
+    public void getOverlayMetrics(Promise promise) {
+        withController(promise, controller -> promise.resolve(
+                Arguments.makeNativeMap(controller.getMetrics().toMap())));
+    }
 
-        // Find all the new views
-        TextView pickupAddressText = mOverlayView.findViewById(R.id.pickup_address_text);
-        TextView dropoffAddressText = mOverlayView.findViewById(R.id.dropoff_address_text);
-        TextView distanceText = mOverlayView.findViewById(R.id.distance_text);
-        TextView durationText = mOverlayView.findViewById(R.id.duration_text);
-        TextView customerNameText = mOverlayView.findViewById(R.id.customer_name_text);
-        TextView carTypeText = mOverlayView.findViewById(R.id.car_type_text);
+    @ReactMethod
+    public void resetOverlayMetrics(Promise promise) {
+        withController(promise, controller -> {
+            controller.getMetrics().reset();
+            promise.resolve(null);
+        });
+    }
 
-        // Update view texts from cardData
-        if (cardData.hasKey("pickupAddress")) {
-            pickupAddressText.setText(cardData.getString("pickupAddress"));
-        }
-        if (cardData.hasKey("dropoffAddress")) {
-            dropoffAddressText.setText(cardData.getString("dropoffAddress"));
-        }
-        if (cardData.hasKey("distance")) {
-            distanceText.setText(cardData.getString("distance"));
-        }
-        if (cardData.hasKey("duration")) {
-            durationText.setText(cardData.getString("duration"));
+    // What the native side is showing, e.g. after it restored a snapshot while JS was down
+    @ReactMethod
+    public void getOverlayState(Promise promise) {
+        withController(promise, controller -> promise.resolve(Arguments.makeNativeMap(controller.getState())));
+    }
+
+    private void postUpdate(String id, OverlayModel model) {
+        withController(null, OverlayMetrics.OP_UPDATE, controller -> controller.update(id, model));
+    }
+
+    // show/transition payload, or null after rejecting the promise
+    @Nullable
+    private static OverlayModel decode(ReadableMap data, Promise promise) {
+        try {
+            return OverlayModel.decode(data);
+        } catch (OverlayException e) {
+            promise.reject(e.code, e.getMessage());
+            return null;
         }
-        if (cardData.hasKey("customerName")) {
-            customerNameText.setText(cardData.getString("customerName"));
+    }
+
+    private void withController(@Nullable Promise promise, ControllerCall call) {
+        withController(promise, -1, call);
+    }
+
+    // run on the UI thread once the service is bound, in call order; op >= 0 records its bridge time
+    private void withController(@Nullable Promise promise, int op, ControllerCall call) {
+        long arrivedNs = System.nanoTime();
+        UiThreadUtil.runOnUiThread(() -> {
+            Runnable dispatch = () -> {
+                OverlayController controller = mService.getController();
+                if (op >= 0) {
+                    controller.getMetrics().record(op, OverlayMetrics.PHASE_BRIDGE, System.nanoTime() - arrivedNs);
+                }
+                try {
+                    call.run(controller);
+                } catch (OverlayException e) {
+                    if (promise != null) {
+                        promise.reject(e.code, e.getMessage());
+                    } else {
+                        Log.w(TAG, "Overlay call failed: " + e.code + " " + e.getMessage()); // fire-and-forget
+                    }
+                }
+            };
+            if (mService != null) {
+                dispatch.run();
+                return;
+            }
+            mPendingCalls.add(new PendingCall(promise, dispatch));
+            bindHost();
+        });
+    }
+
+    private void bindHost() {
+        if (mBound) return;
+        Intent intent = new Intent(mReactContext, OverlayHostService.class);
+        mBound = mReactContext.bindService(intent, this, Context.BIND_AUTO_CREATE);
+        if (!mBound) {
+            Log.e(TAG, "Could not bind overlay host service.");
+            failPendingCalls(); // nothing will run them, the next call tries to bind again
         }
-        if (cardData.hasKey("carType")) {
-            carTypeText.setText(cardData.getString("carType"));
+    }
+
+    private void failPendingCalls() {
+        for (int i = 0; i < mPendingCalls.size(); i++) {
+            PendingCall call = mPendingCalls.get(i);
+            if (call.promise != null) {
+                call.promise.reject("E_SERVICE_UNAVAILABLE", "Overlay host service is not available.");
+            } else {
+                Log.w(TAG, "Overlay call dropped, host service is not available."); // fire-and-forget
+            }
         }
+        mPendingCalls.clear();
     }
 
-    // --- LifecycleEventListener Methods ---
+    // --- ServiceConnection Methods ---
 
     @Override
-    public void onHostResume() {
-        // This is called when the app comes to the foreground. Not used here.
+    public void onServiceConnected(ComponentName name, IBinder binder) {
+        mService = ((OverlayHostService.LocalBinder) binder).getService();
+        mService.attach(this); // replays anything that happened while JS was away
+        for (int i = 0; i < mPendingCalls.size(); i++) {
+            mPendingCalls.get(i).dispatch.run();
+        }
+        mPendingCalls.clear();
     }
 
     @Override
-    public void onHostPause() {
-        // This is called when the app goes to the background. Not used here.
+    public void onServiceDisconnected(ComponentName name) {
+        // same process, so normally only when it's going down with us; if not, drop this binding
+        // and let the next call bind again instead of queueing behind a connection that's gone
+        mService = null;
+        if (mBound) {
+            mBound = false;
+            mReactContext.unbindService(this);
+        }
     }
 
+    // --- OverlayHostService.Client Methods ---
+
     @Override
-    public void onHostDestroy() {
-        // This is called when the main React Native activity is destroyed.
-        // It's crucial to clean up our overlay to prevent a 'window leak'.
-        if (mOverlayView != null) {
-            mWindowManager.removeView(mOverlayView);
-            mOverlayView = null;
+    public boolean onOverlayEvent(String eventName, @Nullable WritableMap params) {
+        if (!mReactContext.hasActiveReactInstance()) {
+            return false; // JS is going or gone, the service keeps it (decisions go to the journal)
         }
+        // service events are plain Java maps, the bridge wants native ones
+        mReactContext
+                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                .emit(eventName, params == null ? null : Arguments.makeNativeMap(params.toHashMap()));
+        return true;
     }
 
-    /**
-     * A helper method to send an event from native code to JavaScript.
-     * @param eventName The name of the event (e.g., "onTripAccepted").
-     * @param params Optional data to send with the event.
-     */
-    private void sendEvent(String eventName, @Nullable WritableMap params) {
-        mReactContext
-            .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
-            .emit(eventName, params);
+    @Override
+    public void invalidate() {
+        // the overlay stays up in the service, only this client goes away
+        UiThreadUtil.runOnUiThread(() -> {
+            mPendingCalls.clear();
+            if (mService != null) {
+                mService.detach(this);
+                mService = null;
+            }
+            if (mBound) {
+                mBound = false;
+                mReactContext.unbindService(this);
+            }
+        });
+        super.invalidate();
     }
 }
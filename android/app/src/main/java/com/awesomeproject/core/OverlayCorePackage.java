@@ -1,28 +1,45 @@
 package com.awesomeproject.core;
 
-import com.facebook.react.ReactPackage;
+import androidx.annotation.Nullable;
+
+import com.facebook.react.BaseReactPackage;
 import com.facebook.react.bridge.NativeModule;
 import com.facebook.react.bridge.ReactApplicationContext;
-import com.facebook.react.uimanager.ViewManager;
+import com.facebook.react.module.model.ReactModuleInfo;
+import com.facebook.react.module.model.ReactModuleInfoProvider;
+
+import java.util.HashMap;
+import java.util.Map;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+// Registers native modules with React Native. The bridge module is always there as the fallback;
+// the TurboModule comes from OverlayCoreTurboPackage, which src/newarch or src/oldarch supplies
+// (see sourceSets in app/build.gradle). Only the new architecture one registers anything, so
+// nothing here names generated code.
+public class OverlayCorePackage extends BaseReactPackage {
 
-// Registers native modules with React Native.
-public class OverlayCorePackage implements ReactPackage {
+    private final OverlayCoreTurboPackage mTurboPackage = new OverlayCoreTurboPackage();
 
-    // Expose native modules to JS.
+    @Nullable
     @Override
-    public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
-        List<NativeModule> modules = new ArrayList<>();
-        modules.add(new OverlayCoreModule(reactContext));
-        return modules;
+    public NativeModule getModule(String name, ReactApplicationContext reactContext) {
+        if ("OverlayCoreModule".equals(name)) {
+            return new OverlayCoreModule(reactContext);
+        }
+        return mTurboPackage.getModule(name, reactContext);
     }
 
-    // Expose native UI components to JS. None here.
     @Override
-    public List<ViewManager> createViewManagers(ReactApplicationContext reactContext) {
-        return Collections.emptyList();
+    public ReactModuleInfoProvider getReactModuleInfoProvider() {
+        ReactModuleInfoProvider turboModules = mTurboPackage.getReactModuleInfoProvider();
+        return () -> {
+            Map<String, ReactModuleInfo> modules = new HashMap<>(turboModules.getReactModuleInfos());
+            modules.put("OverlayCoreModule", new ReactModuleInfo(
+                    "OverlayCoreModule", OverlayCoreModule.class.getName(),
+                    false, // canOverrideExistingModule
+                    false, // needsEagerInit
+                    false, // isCxxModule
+                    false)); // isTurboModule
+            return modules;
+        };
     }
 }
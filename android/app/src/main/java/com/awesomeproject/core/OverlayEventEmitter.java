@@ -0,0 +1,233 @@
+package com.awesomeproject.core;
+
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+// Batches native -> JS events and flushes them at most once per display frame.
+// Coalescing rules:
+//  - onBubbleClicked is debounced, repeats inside BUBBLE_CLICK_DEBOUNCE_MS are dropped
+//  - onBubbleMoved and onFareChanged keep only the latest value per frame and overlay
+//  - everything else is delivered as-is, in order
+// Events about one overlay window carry its "overlayId" so JS can route them.
+// Must be used from the UI thread.
+class OverlayEventEmitter implements Choreographer.FrameCallback {
+
+    // where flushed events go, normally the host service which forwards to RCTDeviceEventEmitter
+    interface Sink {
+        void emit(String eventName, @Nullable WritableMap params);
+    }
+
+    static final long BUBBLE_CLICK_DEBOUNCE_MS = 500;
+
+    // --- Queue entries ---
+    private static final int KIND_PLAIN = 0;
+    private static final int KIND_POSITION = 1;
+    private static final int KIND_FARE = 2;
+
+    private static final class Entry {
+        final int kind;
+        String eventName;
+        @Nullable String overlayId; // added to the params when set
+        WritableMap params; // only for KIND_PLAIN
+        int x, y; // KIND_POSITION
+        double fare; // KIND_FARE
+        boolean queued;
+
+        Entry(int kind, String eventName, @Nullable String overlayId) {
+            this.kind = kind;
+            this.eventName = eventName;
+            this.overlayId = overlayId;
+        }
+    }
+
+    private final Sink mSink;
+    private final ArrayList<Entry> mQueue = new ArrayList<>();
+    private final ArrayList<Entry> mFlushing = new ArrayList<>(); // swapped in so sinks can re-enter
+    // reused per overlay id, latest wins; a handful of windows at most
+    private final HashMap<String, Entry> mPositions = new HashMap<>();
+    private final HashMap<String, Entry> mFares = new HashMap<>();
+    private long mLastBubbleClickMs = Long.MIN_VALUE / 2;
+    private boolean mFramePosted = false;
+
+    // --- Counters ---
+    private int mEmittedCount = 0;
+    private int mCoalescedCount = 0;
+
+    OverlayEventEmitter(Sink sink) {
+        mSink = sink;
+    }
+
+    // --- Producers ---
+
+    void emitBubbleClicked(String overlayId) {
+        long now = now();
+        if (now - mLastBubbleClickMs < BUBBLE_CLICK_DEBOUNCE_MS) {
+            mCoalescedCount++; // double-tap, JS already knows
+            return;
+        }
+        mLastBubbleClickMs = now;
+        enqueue(new Entry(KIND_PLAIN, "onBubbleClicked", overlayId));
+    }
+
+    void emitBubbleMoved(String overlayId, int x, int y) {
+        Entry position = slot(mPositions, KIND_POSITION, "onBubbleMoved", overlayId);
+        position.x = x;
+        position.y = y;
+        enqueueLatest(position);
+    }
+
+    void emitFareChanged(String overlayId, double fare) {
+        Entry entry = slot(mFares, KIND_FARE, "onFareChanged", overlayId);
+        entry.fare = fare;
+        enqueueLatest(entry);
+    }
+
+    // anything without a coalescing rule
+    void emit(String eventName, @Nullable WritableMap params) {
+        emit(null, eventName, params);
+    }
+
+    // same, about one overlay window
+    void emit(@Nullable String overlayId, String eventName, @Nullable WritableMap params) {
+        Entry entry = new Entry(KIND_PLAIN, eventName, overlayId);
+        entry.params = params;
+        enqueue(entry);
+    }
+
+    // --- Flushing ---
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mFramePosted = false;
+        flush();
+    }
+
+    // deliver everything now, e.g. before the module goes away
+    void flush() {
+        if (mFramePosted) {
+            mFramePosted = false;
+            removeFrame();
+        }
+        if (mQueue.isEmpty()) return;
+
+        mFlushing.addAll(mQueue);
+        mQueue.clear();
+        for (int i = 0; i < mFlushing.size(); i++) {
+            Entry entry = mFlushing.get(i);
+            entry.queued = false;
+            mSink.emit(entry.eventName, buildParams(entry));
+            entry.params = null;
+            mEmittedCount++;
+        }
+        mFlushing.clear();
+    }
+
+    // drop anything pending without sending it
+    void clear() {
+        if (mFramePosted) {
+            mFramePosted = false;
+            removeFrame();
+        }
+        for (int i = 0; i < mQueue.size(); i++) {
+            mQueue.get(i).queued = false;
+        }
+        mQueue.clear();
+    }
+
+    int getEmittedCount() {
+        return mEmittedCount;
+    }
+
+    int getCoalescedCount() {
+        return mCoalescedCount;
+    }
+
+    void resetCounters() {
+        mEmittedCount = 0;
+        mCoalescedCount = 0;
+    }
+
+    private void enqueue(Entry entry) {
+        entry.queued = true;
+        mQueue.add(entry);
+        scheduleFlush();
+    }
+
+    // value already updated in place, keep the original queue slot
+    private void enqueueLatest(Entry entry) {
+        if (entry.queued) {
+            mCoalescedCount++;
+            return;
+        }
+        enqueue(entry);
+    }
+
+    private static Entry slot(HashMap<String, Entry> slots, int kind, String eventName, String overlayId) {
+        Entry entry = slots.get(overlayId);
+        if (entry == null) {
+            entry = new Entry(kind, eventName, overlayId);
+            slots.put(overlayId, entry);
+        }
+        return entry;
+    }
+
+    private void scheduleFlush() {
+        if (!mFramePosted) {
+            mFramePosted = true;
+            postFrame();
+        }
+    }
+
+    // maps are only built for events that survived coalescing
+    @Nullable
+    private WritableMap buildParams(Entry entry) {
+        WritableMap params;
+        switch (entry.kind) {
+            case KIND_POSITION:
+                params = createMap();
+                params.putInt("x", entry.x);
+                params.putInt("y", entry.y);
+                break;
+            case KIND_FARE:
+                params = createMap();
+                params.putDouble("fare", entry.fare);
+                break;
+            default:
+                params = entry.params;
+                if (entry.overlayId == null) return params;
+                if (params == null) params = createMap();
+                break;
+        }
+        if (entry.overlayId != null) {
+            params.putString("overlayId", entry.overlayId);
+        }
+        return params;
+    }
+
+    // --- Hooks, overridable so tests can run without the bridge or a display ---
+
+    // plain Java map, events may be built and buffered before any React instance exists
+    WritableMap createMap() {
+        return new JavaOnlyMap();
+    }
+
+    long now() {
+        return SystemClock.uptimeMillis();
+    }
+
+    void postFrame() {
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    void removeFrame() {
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+}
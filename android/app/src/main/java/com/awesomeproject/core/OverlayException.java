@@ -0,0 +1,14 @@
+package com.awesomeproject.core;
+
+// Overlay call failed; code is what the module hands to promise.reject (E_PERMISSION_DENIED etc.)
+class OverlayException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    final String code;
+
+    OverlayException(String code, String message) {
+        super(message);
+        this.code = code;
+    }
+}
@@ -0,0 +1,127 @@
+package com.awesomeproject.core;
+
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Insets;
+import android.graphics.Rect;
+import android.os.Build;
+import android.util.DisplayMetrics;
+import android.view.ViewConfiguration;
+import android.view.WindowInsets;
+import android.view.WindowManager;
+import android.view.WindowMetrics;
+
+import androidx.annotation.NonNull;
+
+// Where overlays may go, in pixels, worked out once per configuration instead of on every touch.
+// The "area" is the display minus system bars and cutouts, which is the frame overlay windows are laid
+// out in (params.x/y are relative to it); raw touch coordinates are screen-relative, hence areaTop.
+// Recomputed on configuration change (rotation, fold/unfold, density), then the listener re-clamps.
+// Fields are plain ints for the touch path; only touch them on the UI thread.
+class OverlayGeometry implements ComponentCallbacks {
+
+    interface Listener {
+        // called after a recompute that changed the area, with the old size for re-clamping
+        void onGeometryChanged(int oldAreaWidth, int oldAreaHeight);
+    }
+
+    private static final int DISMISS_ZONE_DP = 100; // bottom band where a dragged bubble gets dismissed
+    private static final int DISMISS_MARGIN_DP = 16; // dismiss target's gap to the bottom of the area
+
+    private final Context mContext;
+    private final WindowManager mWindowManager;
+    private final Listener mListener;
+
+    // --- Cached values, px ---
+    int areaLeft, areaTop; // area origin in screen coordinates
+    int areaWidth, areaHeight;
+    int dismissZoneTop; // raw (screen) y at which the dismiss zone starts
+    int dismissMarginY;
+    int touchSlop;
+    int doubleTapSlop; // how close a second tap's down must land to the first's
+    int minFlingVelocity; // px/s
+    int maxFlingVelocity;
+
+    OverlayGeometry(Context context, WindowManager windowManager, Listener listener) {
+        mContext = context;
+        mWindowManager = windowManager;
+        mListener = listener;
+        refresh();
+    }
+
+    // recompute everything from the current window metrics
+    void refresh() {
+        DisplayMetrics display = mContext.getResources().getDisplayMetrics();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            WindowMetrics metrics = mWindowManager.getCurrentWindowMetrics();
+            Rect bounds = metrics.getBounds();
+            Insets insets = metrics.getWindowInsets().getInsetsIgnoringVisibility(
+                    WindowInsets.Type.systemBars() | WindowInsets.Type.displayCutout());
+            areaLeft = bounds.left + insets.left;
+            areaTop = bounds.top + insets.top;
+            areaWidth = bounds.width() - insets.left - insets.right;
+            areaHeight = bounds.height() - insets.top - insets.bottom;
+        } else {
+            areaLeft = 0; // old platforms: display metrics already leave out the navigation bar
+            areaTop = 0;
+            areaWidth = display.widthPixels;
+            areaHeight = display.heightPixels;
+        }
+        dismissZoneTop = areaTop + areaHeight - Math.round(DISMISS_ZONE_DP * display.density);
+        dismissMarginY = Math.round(DISMISS_MARGIN_DP * display.density);
+
+        ViewConfiguration viewConfig = ViewConfiguration.get(mContext);
+        touchSlop = viewConfig.getScaledTouchSlop();
+        doubleTapSlop = viewConfig.getScaledDoubleTapSlop();
+        minFlingVelocity = viewConfig.getScaledMinimumFlingVelocity();
+        maxFlingVelocity = viewConfig.getScaledMaximumFlingVelocity();
+    }
+
+    boolean isInDismissZone(float rawY) {
+        return rawY > dismissZoneTop;
+    }
+
+    // largest params.x/y that keeps a view of this size fully inside the area
+    int maxX(int viewWidth) {
+        return Math.max(0, areaWidth - viewWidth);
+    }
+
+    int maxY(int viewHeight) {
+        return Math.max(0, areaHeight - viewHeight);
+    }
+
+    // --- Re-clamping after the area changed, plain math so it runs on the JVM ---
+
+    // stay on the edge it was closer to
+    static int reclampX(int x, int viewWidth, int oldAreaWidth, int newAreaWidth) {
+        int oldMax = Math.max(0, oldAreaWidth - viewWidth);
+        int newMax = Math.max(0, newAreaWidth - viewWidth);
+        return x * 2 > oldMax ? newMax : 0;
+    }
+
+    // same relative height, so a bubble near the bottom stays near the bottom
+    static int reclampY(int y, int viewHeight, int oldAreaHeight, int newAreaHeight) {
+        int oldMax = Math.max(0, oldAreaHeight - viewHeight);
+        int newMax = Math.max(0, newAreaHeight - viewHeight);
+        if (oldMax == 0) return 0;
+        return EdgeSnapSolver.clamp(Math.round(y * (float) newMax / oldMax), 0, newMax);
+    }
+
+    // --- ComponentCallbacks Methods ---
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        int oldWidth = areaWidth;
+        int oldHeight = areaHeight;
+        refresh();
+        if (oldWidth != areaWidth || oldHeight != areaHeight) {
+            mListener.onGeometryChanged(oldWidth, oldHeight);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        // Not used here.
+    }
+}
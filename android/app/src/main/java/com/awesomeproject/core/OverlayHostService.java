@@ -0,0 +1,407 @@
+package com.awesomeproject.core;
+
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.app.Service;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ServiceInfo;
+import android.os.Binder;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+
+import androidx.annotation.Nullable;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.ServiceCompat;
+import androidx.core.content.ContextCompat;
+
+import com.awesomeproject.R;
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.WritableMap;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Foreground service that owns the overlay windows, so they survive the React activity going away
+// and the process stays warm while an offer is up. OverlayCoreModule binds to it as a thin client;
+// native code can show a card through showCard() without booting JS. Events raised while no client
+// is attached, or that the client couldn't hand to JS, are kept and replayed when one attaches; trip
+// decisions go to a DecisionJournal on disk so they survive the process dying before JS ever starts.
+public class OverlayHostService extends Service implements OverlayController.Listener {
+
+    static final String ACTION_SHOW_CARD = "com.awesomeproject.core.action.SHOW_CARD";
+    static final String EXTRA_CARD = "card";
+    static final String EXTRA_RECEIVED_AT = "receivedAt"; // uptime when the payload arrived, for time-to-card
+
+    private static final String TAG = "OverlayHostService";
+    private static final String CHANNEL_ID = "overlay_host";
+    private static final int NOTIFICATION_ID = 4201;
+    private static final int MAX_PENDING_EVENTS = 32; // oldest dropped first
+    private static final String ADDON_AMOUNTS = "addonAmounts";
+
+    // receives events on the UI thread, normally OverlayCoreModule; one at a time, the last attach wins
+    interface Client {
+        // false if it couldn't take the event (no JS to hand it to), the service buffers or journals it
+        boolean onOverlayEvent(String eventName, @Nullable WritableMap params);
+    }
+
+    class LocalBinder extends Binder {
+        OverlayHostService getService() {
+            return OverlayHostService.this;
+        }
+    }
+
+    private static final class PendingEvent {
+        final String eventName;
+        final WritableMap params;
+
+        PendingEvent(String eventName, @Nullable WritableMap params) {
+            this.eventName = eventName;
+            this.params = params;
+        }
+    }
+
+    private final LocalBinder mBinder = new LocalBinder();
+    private final ArrayDeque<PendingEvent> mPendingEvents = new ArrayDeque<>();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService mIo = Executors.newSingleThreadExecutor(); // journal writes, in order
+    private DecisionJournal mJournal;
+    private OverlaySnapshotStore mSnapshotStore;
+    private OverlayController mController;
+    private Client mClient;
+    private boolean mForeground = false;
+    private int mForegroundType = 0; // ServiceInfo.FOREGROUND_SERVICE_TYPE_* passed to the last startForeground
+
+    /**
+     * Shows a trip card from a native payload, e.g. a push message, without the JS runtime.
+     * Keys match CardData in OverlayCore.ts; "type" defaults to "card". Numeric fields are doubles,
+     * addonAmounts a double[] and everything else a String, as toCardBundle builds it.
+     */
+    public static void showCard(Context context, Bundle card) {
+        Intent intent = new Intent(context, OverlayHostService.class)
+                .setAction(ACTION_SHOW_CARD)
+                .putExtra(EXTRA_CARD, card)
+                .putExtra(EXTRA_RECEIVED_AT, SystemClock.uptimeMillis());
+        ContextCompat.startForegroundService(context, intent);
+    }
+
+    // Same as above for push data messages, where every value arrives as a string
+    public static void showCard(Context context, Map<String, String> pushData) {
+        showCard(context, toCardBundle(pushData));
+    }
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // overlay layouts use the app theme's attributes
+        mController = new OverlayController(new ContextThemeWrapper(this, R.style.AppTheme), this);
+        mJournal = new DecisionJournal(new File(getNoBackupFilesDir(), "overlay_decisions.log"), mIo);
+        mSnapshotStore = new OverlaySnapshotStore(
+                new File(getNoBackupFilesDir(), "overlay_state.bin"), mIo, mMainHandler, mController::snapshot);
+
+        // synchronous on purpose: the bubble/card should be back before the module's first call lands
+        OverlaySnapshot snapshot = mSnapshotStore.load();
+        if (snapshot != null) {
+            mController.restore(snapshot);
+        }
+    }
+
+    @Override
+    public int onStartCommand(@Nullable Intent intent, int flags, int startId) {
+        // started through startForegroundService, so it has to go foreground even if there's nothing to show
+        enterForeground();
+        if (intent != null && ACTION_SHOW_CARD.equals(intent.getAction())) {
+            Bundle card = intent.getBundleExtra(EXTRA_CARD);
+            if (card != null) {
+                showCardInternal(toMap(card));
+                long receivedAt = intent.getLongExtra(EXTRA_RECEIVED_AT, 0);
+                if (receivedAt > 0) {
+                    long elapsedMs = SystemClock.uptimeMillis() - receivedAt;
+                    mController.getMetrics().record(OverlayMetrics.OP_NATIVE_CARD, OverlayMetrics.PHASE_TOTAL,
+                            elapsedMs * 1_000_000L);
+                    Log.i(TAG, "Native card up in " + elapsedMs + "ms");
+                }
+            }
+        }
+        if (!mController.isActive()) {
+            leaveForeground();
+        }
+        return START_STICKY; // if we get killed anyway, the restart restores the snapshot in onCreate
+    }
+
+    @Nullable
+    @Override
+    public IBinder onBind(Intent intent) {
+        return mBinder;
+    }
+
+    @Override
+    public boolean onUnbind(Intent intent) {
+        mClient = null;
+        return false;
+    }
+
+    @Override
+    public void onDestroy() {
+        mSnapshotStore.close(); // before release, which clears what's on screen
+        mController.release(); // flushes, last decisions still reach the journal
+        mClient = null;
+        mPendingEvents.clear();
+        mIo.shutdown(); // queued journal writes still run
+        super.onDestroy();
+    }
+
+    OverlayController getController() {
+        return mController;
+    }
+
+    // start delivering events to the client, anything buffered goes first and in order
+    void attach(Client client) {
+        mClient = client;
+        while (!mPendingEvents.isEmpty()) {
+            PendingEvent event = mPendingEvents.peek();
+            if (!client.onOverlayEvent(event.eventName, event.params)) {
+                break; // stays buffered for the next attach
+            }
+            mPendingEvents.poll();
+        }
+        // decisions from earlier processes, delivered through onEvent so a detach in between re-journals them
+        mJournal.drain(decisions -> mMainHandler.post(() -> replayDecisions(decisions)));
+    }
+
+    private void replayDecisions(List<DecisionJournal.Decision> decisions) {
+        for (int i = 0; i < decisions.size(); i++) {
+            DecisionJournal.Decision decision = decisions.get(i);
+            JavaOnlyMap params = new JavaOnlyMap();
+            if (decision.offerId != null) {
+                params.putString("offerId", decision.offerId);
+            }
+            if (!Double.isNaN(decision.finalFare)) {
+                params.putDouble("finalFare", decision.finalFare);
+            }
+            params.putDouble("decidedAt", decision.decidedAtMs);
+            params.putBoolean("replayed", true); // the card is long gone, JS shouldn't react to it on screen
+            onEvent(decision.eventName, params);
+        }
+    }
+
+    void detach(Client client) {
+        if (mClient == client) {
+            mClient = null;
+        }
+    }
+
+    private void showCardInternal(JavaOnlyMap data) {
+        if (!data.hasKey("type")) {
+            data.putString("type", "card");
+        }
+        try {
+            OverlayModel model = OverlayModel.decode(data); // plain Java map, cheap to read here
+            if (mController.isActive()) {
+                mController.transition(model); // replace whatever is up, same as JS does
+            } else {
+                mController.show(model);
+            }
+        } catch (OverlayException e) {
+            Log.e(TAG, "Could not show native card: " + e.code, e);
+        }
+    }
+
+    // --- OverlayController.Listener Methods ---
+
+    @Override
+    public void onEvent(String eventName, @Nullable WritableMap params) {
+        if (mClient != null && mClient.onOverlayEvent(eventName, params)) {
+            return;
+        }
+        if (DecisionJournal.isDecision(eventName)) {
+            mJournal.append(toDecision(eventName, params));
+            return;
+        }
+        if (mPendingEvents.size() == MAX_PENDING_EVENTS) {
+            mPendingEvents.poll();
+        }
+        mPendingEvents.add(new PendingEvent(eventName, params));
+    }
+
+    @Override
+    public void onStateChanged() {
+        mSnapshotStore.markDirty();
+    }
+
+    @Override
+    public void onActiveChanged(boolean active) {
+        if (active) {
+            // started, not just bound, so unbinding doesn't take the overlay down with it
+            ContextCompat.startForegroundService(this, new Intent(this, OverlayHostService.class));
+            enterForeground();
+        } else {
+            leaveForeground();
+        }
+    }
+
+    // --- Foreground ---
+
+    // also called again to switch type, e.g. after the location permission was granted
+    private void enterForeground() {
+        int type = foregroundType();
+        if (mForeground && type == mForegroundType) return;
+        try {
+            ServiceCompat.startForeground(this, NOTIFICATION_ID, buildNotification(), type);
+        } catch (SecurityException e) {
+            // 14+ refuses the location type when we were started from the background, e.g. by a push;
+            // the overlay still goes up, live ETA only runs while the app is in front until the next start
+            Log.w(TAG, "Location foreground type refused, cards keep their static ETA.", e);
+            type &= ~ServiceInfo.FOREGROUND_SERVICE_TYPE_LOCATION;
+            ServiceCompat.startForeground(this, NOTIFICATION_ID, buildNotification(), type);
+        }
+        mForeground = true;
+        mForegroundType = type;
+    }
+
+    // specialUse for the overlay; location too once it's granted, since on 10+ a while-in-use permission
+    // only reaches a background app through a foreground service of that type
+    private int foregroundType() {
+        int type = 0;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.UPSIDE_DOWN_CAKE) {
+            type |= ServiceInfo.FOREGROUND_SERVICE_TYPE_SPECIAL_USE;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && SystemLocationSource.hasPermission(this)) {
+            type |= ServiceInfo.FOREGROUND_SERVICE_TYPE_LOCATION;
+        }
+        return type;
+    }
+
+    // JS got an answer to the location prompt; call while the app is in front so the type is allowed
+    void refreshLocationAccess() {
+        if (mForeground) {
+            enterForeground();
+        }
+        mController.refreshLocationSource();
+    }
+
+    // back to bound-only, the service goes away once the module unbinds
+    private void leaveForeground() {
+        if (!mForeground) return;
+        ServiceCompat.stopForeground(this, ServiceCompat.STOP_FOREGROUND_REMOVE);
+        mForeground = false;
+        stopSelf();
+    }
+
+    private Notification buildNotification() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationManager manager = getSystemService(NotificationManager.class);
+            if (manager.getNotificationChannel(CHANNEL_ID) == null) {
+                NotificationChannel channel = new NotificationChannel(
+                        CHANNEL_ID, getString(R.string.overlay_host_channel), NotificationManager.IMPORTANCE_LOW);
+                manager.createNotificationChannel(channel);
+            }
+        }
+        Intent launchIntent = getPackageManager().getLaunchIntentForPackage(getPackageName());
+        PendingIntent contentIntent = launchIntent == null ? null : PendingIntent.getActivity(
+                this, 0, launchIntent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+        return new NotificationCompat.Builder(this, CHANNEL_ID)
+                .setSmallIcon(R.mipmap.ic_launcher)
+                .setContentTitle(getString(R.string.overlay_host_title))
+                .setContentIntent(contentIntent)
+                .setOngoing(true)
+                .setPriority(NotificationCompat.PRIORITY_LOW)
+                .build();
+    }
+
+    private static DecisionJournal.Decision toDecision(String eventName, @Nullable WritableMap params) {
+        long decidedAt = System.currentTimeMillis();
+        if (params == null) {
+            return new DecisionJournal.Decision(decidedAt, eventName, null, Double.NaN);
+        }
+        if (params.hasKey("decidedAt")) {
+            decidedAt = (long) params.getDouble("decidedAt"); // replayed before, keep the original time
+        }
+        return new DecisionJournal.Decision(
+                decidedAt,
+                eventName,
+                params.hasKey("offerId") ? params.getString("offerId") : null,
+                params.hasKey("finalFare") ? params.getDouble("finalFare") : Double.NaN);
+    }
+
+    // push data -> card Bundle; numeric CardData fields are parsed, addonAmounts is comma separated
+    static Bundle toCardBundle(Map<String, String> pushData) {
+        Bundle card = new Bundle();
+        for (Map.Entry<String, String> entry : pushData.entrySet()) {
+            String key = entry.getKey();
+            String value = entry.getValue();
+            if (value == null) continue;
+            try {
+                if (isNumberField(key)) {
+                    card.putDouble(key, Double.parseDouble(value));
+                } else if (ADDON_AMOUNTS.equals(key)) {
+                    String[] parts = value.split(",");
+                    double[] amounts = new double[parts.length];
+                    for (int i = 0; i < parts.length; i++) {
+                        amounts[i] = Double.parseDouble(parts[i].trim());
+                    }
+                    card.putDoubleArray(key, amounts);
+                } else {
+                    card.putString(key, value); // baseFare stays a string, FareModel parses it
+                }
+            } catch (NumberFormatException e) {
+                Log.w(TAG, "Skipping bad card field " + key + "=" + value);
+            }
+        }
+        return card;
+    }
+
+    // card Bundle -> ReadableMap without the React bridge, read with the types toCardBundle writes:
+    // numeric fields as double (like numbers from JS), addonAmounts as double[], the rest as strings
+    static JavaOnlyMap toMap(Bundle bundle) {
+        JavaOnlyMap map = new JavaOnlyMap();
+        for (String key : bundle.keySet()) {
+            if (isNumberField(key)) {
+                map.putDouble(key, bundle.getDouble(key));
+            } else if (ADDON_AMOUNTS.equals(key)) {
+                double[] amounts = bundle.getDoubleArray(key);
+                if (amounts == null) {
+                    map.putNull(key);
+                    continue;
+                }
+                JavaOnlyArray array = new JavaOnlyArray();
+                for (double amount : amounts) array.pushDouble(amount);
+                map.putArray(key, array);
+            } else {
+                String value = bundle.getString(key);
+                if (value == null) {
+                    map.putNull(key);
+                } else {
+                    map.putString(key, value);
+                }
+            }
+        }
+        return map;
+    }
+
+    private static boolean isNumberField(String key) {
+        switch (key) {
+            case "expiresAt":
+            case "maxAddon":
+            case "priority":
+            case "pickupLatitude":
+            case "pickupLongitude":
+                return true;
+            default:
+                return false;
+        }
+    }
+}
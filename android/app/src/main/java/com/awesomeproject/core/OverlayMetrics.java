@@ -0,0 +1,134 @@
+package com.awesomeproject.core;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Where overlay time goes, per operation and phase, for p50/p99 dashboards. Histograms are indexed by
+// int ids so recording is an array lookup, and everything is lock-free so JS can read or reset from
+// its own thread while the UI thread records.
+//   bridge     JS call reaching the native module -> running on the UI thread
+//   inflate    pool miss, layout inflated on the spot
+//   bind       view holders bound and window params set up
+//   window     addView / updateViewLayout / removeView
+//   firstDraw  operation start -> first frame drawn by the overlay window
+//   total      whole operation on the UI thread
+//   frameDelay drag only: vsync -> the drag frame actually running on the UI thread, i.e. our jank
+// Overlay windows are added straight to the WindowManager and have no Window, so FrameMetrics isn't
+// available; render cost is the frame delay above plus how many overlay pixels the compositor blends.
+class OverlayMetrics {
+
+    // --- Operations ---
+    static final int OP_SHOW = 0;
+    static final int OP_UPDATE = 1;
+    static final int OP_HIDE = 2;
+    static final int OP_TRANSITION = 3;
+    static final int OP_NATIVE_CARD = 4; // push payload received -> card shown, no JS involved
+    static final int OP_DRAG = 5; // bubble drag frames
+    private static final String[] OP_NAMES = {"show", "update", "hide", "transition", "nativeCard", "drag"};
+
+    // --- Phases ---
+    static final int PHASE_TOTAL = 0;
+    static final int PHASE_BRIDGE = 1;
+    static final int PHASE_INFLATE = 2;
+    static final int PHASE_BIND = 3;
+    static final int PHASE_WINDOW = 4;
+    static final int PHASE_FIRST_DRAW = 5;
+    static final int PHASE_FRAME_DELAY = 6;
+    private static final String[] PHASE_NAMES = {"total", "bridge", "inflate", "bind", "window", "firstDraw", "frameDelay"};
+
+    private static final double NANOS_PER_MS = 1_000_000.0;
+
+    private final LatencyHistogram[] mHistograms = new LatencyHistogram[OP_NAMES.length * PHASE_NAMES.length];
+    private final AtomicLong mDragFrames = new AtomicLong();
+    private final AtomicLong mLayoutUpdates = new AtomicLong();
+    // --- Render state of the overlay windows, current values rather than counters ---
+    private final AtomicLong mBlendedPixels = new AtomicLong(); // translucent window area
+    private final AtomicLong mOpaquePixels = new AtomicLong(); // opaque window area
+
+    OverlayMetrics() {
+        for (int i = 0; i < mHistograms.length; i++) {
+            mHistograms[i] = new LatencyHistogram();
+        }
+    }
+
+    void record(int op, int phase, long nanos) {
+        mHistograms[op * PHASE_NAMES.length + phase].record(nanos);
+    }
+
+    LatencyHistogram get(int op, int phase) {
+        return mHistograms[op * PHASE_NAMES.length + phase];
+    }
+
+    // one coalesced bubble position applied to the window
+    void countDragFrame() {
+        mDragFrames.incrementAndGet();
+    }
+
+    // any WindowManager.updateViewLayout, drags, snaps and transitions alike
+    void countLayoutUpdate() {
+        mLayoutUpdates.incrementAndGet();
+    }
+
+    // area of the overlay windows on screen, summed by window format; 0 once they're gone
+    void setWindowPixels(long blended, long opaque) {
+        mBlendedPixels.set(blended);
+        mOpaquePixels.set(opaque);
+    }
+
+    long getBlendedPixels() {
+        return mBlendedPixels.get();
+    }
+
+    long getDragFrames() {
+        return mDragFrames.get();
+    }
+
+    long getLayoutUpdates() {
+        return mLayoutUpdates.get();
+    }
+
+    void reset() {
+        for (LatencyHistogram histogram : mHistograms) {
+            histogram.reset();
+        }
+        mDragFrames.set(0);
+        mLayoutUpdates.set(0);
+    }
+
+    /**
+     * Plain-map view for JS: { histograms: { "show.total": {count, mean, p50, p90, p99, max}, ... },
+     * counters: {dragFrames, layoutUpdates}, render: {blendedPixels, opaquePixels} }. Times in ms;
+     * empty histograms are left out. reset() leaves render alone, it describes what's on screen.
+     */
+    HashMap<String, Object> toMap() {
+        HashMap<String, Object> histograms = new HashMap<>();
+        for (int op = 0; op < OP_NAMES.length; op++) {
+            for (int phase = 0; phase < PHASE_NAMES.length; phase++) {
+                LatencyHistogram histogram = get(op, phase);
+                long count = histogram.getCount();
+                if (count == 0) continue;
+                HashMap<String, Object> stats = new HashMap<>();
+                stats.put("count", (double) count);
+                stats.put("mean", histogram.getMean() / NANOS_PER_MS);
+                stats.put("p50", histogram.getPercentile(50) / NANOS_PER_MS);
+                stats.put("p90", histogram.getPercentile(90) / NANOS_PER_MS);
+                stats.put("p99", histogram.getPercentile(99) / NANOS_PER_MS);
+                stats.put("max", histogram.getMax() / NANOS_PER_MS);
+                histograms.put(OP_NAMES[op] + "." + PHASE_NAMES[phase], stats);
+            }
+        }
+        HashMap<String, Object> counters = new HashMap<>();
+        counters.put("dragFrames", (double) mDragFrames.get());
+        counters.put("layoutUpdates", (double) mLayoutUpdates.get());
+
+        HashMap<String, Object> render = new HashMap<>();
+        render.put("blendedPixels", (double) mBlendedPixels.get());
+        render.put("opaquePixels", (double) mOpaquePixels.get());
+
+        HashMap<String, Object> metrics = new HashMap<>();
+        metrics.put("histograms", histograms);
+        metrics.put("counters", counters);
+        metrics.put("render", render);
+        return metrics;
+    }
+}
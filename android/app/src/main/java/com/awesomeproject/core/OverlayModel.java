@@ -0,0 +1,97 @@
+package com.awesomeproject.core;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+// A show/transition/update payload decoded on the thread the call arrived on (the native modules
+// thread for JS), so every map lookup, fare parse and type check happens there and bad payloads are
+// rejected before anything is posted. The UI thread only binds the result. Immutable.
+final class OverlayModel {
+
+    @Nullable final String type; // "bubble", "card" or "stack"; null for an update, which keeps the type
+    final Map<String, Object> data; // the payload as plain values, for snapshots and getOverlayState
+    @Nullable final BubbleModel bubble; // set for "bubble" and for updates
+    @Nullable final CardModel card; // set for "card" and for updates
+
+    private OverlayModel(@Nullable String type, Map<String, Object> data,
+                         @Nullable BubbleModel bubble, @Nullable CardModel card) {
+        this.type = type;
+        this.data = data;
+        this.bubble = bubble;
+        this.card = card;
+    }
+
+    // show/transition payload, the type decides which model is built
+    static OverlayModel decode(ReadableMap payload) throws OverlayException {
+        if (!payload.hasKey("type") || payload.isNull("type")) {
+            throw new OverlayException("E_INVALID_TYPE", "Overlay type missing.");
+        }
+        if (payload.getType("type") != ReadableType.String) {
+            throw new OverlayException("E_INVALID_TYPE", "Overlay type must be a string.");
+        }
+        String type = payload.getString("type");
+        Map<String, Object> data = Collections.unmodifiableMap(PlainMaps.toPlain(payload));
+        switch (type) {
+            case "bubble":
+                return new OverlayModel(type, data, BubbleModel.decode(payload), null);
+            case "card":
+                return new OverlayModel(type, data, null, CardModel.decode(payload, data));
+            case "stack":
+                return new OverlayModel(type, data, null, null); // cards come from the queue
+            default:
+                throw new OverlayException("E_INVALID_TYPE", "Invalid overlay type: " + type);
+        }
+    }
+
+    // update payload; what applies depends on what's showing by then, both views are small
+    static OverlayModel decodeUpdate(ReadableMap payload) throws OverlayException {
+        Map<String, Object> data = Collections.unmodifiableMap(PlainMaps.toPlain(payload));
+        return new OverlayModel(null, data, BubbleModel.decode(payload), CardModel.decode(payload, data));
+    }
+
+    // --- Updates built straight from plain arguments (the post* calls), no map to read ---
+
+    static OverlayModel badgeUpdate(double badgeCount) throws OverlayException {
+        BubbleModel bubble = BubbleModel.of(badgeCount);
+        Map<String, Object> data = Collections.singletonMap("badgeCount", (double) bubble.badgeCount);
+        return new OverlayModel(null, data, bubble, null);
+    }
+
+    // null leaves that field as it is
+    static OverlayModel tripUpdate(@Nullable String distance, @Nullable String duration) {
+        HashMap<String, Object> data = new HashMap<>(4);
+        if (distance != null) data.put("distance", distance);
+        if (duration != null) data.put("duration", duration);
+        Map<String, Object> plain = Collections.unmodifiableMap(data);
+        return new OverlayModel(null, plain, null, CardModel.trip(distance, duration, plain));
+    }
+
+    // --- Typed reads, a wrong type is a rejected promise here rather than a crash on the UI thread ---
+
+    @Nullable
+    static String optString(ReadableMap map, String key) throws OverlayException {
+        if (!map.hasKey(key) || map.isNull(key)) return null;
+        if (map.getType(key) != ReadableType.String) {
+            throw invalid(key, "a string");
+        }
+        return map.getString(key);
+    }
+
+    static double optNumber(ReadableMap map, String key, double fallback) throws OverlayException {
+        if (!map.hasKey(key) || map.isNull(key)) return fallback;
+        if (map.getType(key) != ReadableType.Number) {
+            throw invalid(key, "a number");
+        }
+        return map.getDouble(key);
+    }
+
+    static OverlayException invalid(String key, String expected) {
+        return new OverlayException("E_INVALID_DATA", key + " must be " + expected + ".");
+    }
+}
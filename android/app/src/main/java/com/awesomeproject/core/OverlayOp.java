@@ -0,0 +1,69 @@
+package com.awesomeproject.core;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+
+import java.util.ArrayList;
+
+// One entry of an applyOverlayBatch call: { op: "show" | "transition" | "update" | "hide", id, data }.
+// A batch is decoded on the thread it arrived on, like a single call, so a bad entry rejects the
+// whole batch before any of it reaches the UI thread. Immutable.
+final class OverlayOp {
+
+    static final int SHOW = 0;
+    static final int TRANSITION = 1;
+    static final int UPDATE = 2;
+    static final int HIDE = 3;
+
+    static final int MAX_BATCH = 32; // a few windows' worth, more is a bug on the JS side
+
+    final int op;
+    final String id;
+    @Nullable final OverlayModel model; // null for hide
+
+    OverlayOp(int op, String id, @Nullable OverlayModel model) {
+        this.op = op;
+        this.id = id;
+        this.model = model;
+    }
+
+    static ArrayList<OverlayOp> decodeBatch(ReadableArray ops) throws OverlayException {
+        if (ops.size() > MAX_BATCH) {
+            throw new OverlayException("E_INVALID_DATA", "At most " + MAX_BATCH + " ops per batch.");
+        }
+        ArrayList<OverlayOp> batch = new ArrayList<>(ops.size());
+        for (int i = 0; i < ops.size(); i++) {
+            if (ops.getType(i) != ReadableType.Map) {
+                throw new OverlayException("E_INVALID_DATA", "Batch op " + i + " must be an object.");
+            }
+            try {
+                batch.add(decode(ops.getMap(i)));
+            } catch (OverlayException e) {
+                throw new OverlayException(e.code, "Batch op " + i + ": " + e.getMessage());
+            }
+        }
+        return batch;
+    }
+
+    static OverlayOp decode(ReadableMap entry) throws OverlayException {
+        String id = OverlayModel.optString(entry, "id");
+        if (id == null || id.isEmpty()) {
+            throw new OverlayException("E_INVALID_ID", "Overlay id missing.");
+        }
+        String op = OverlayModel.optString(entry, "op");
+        if ("hide".equals(op)) {
+            return new OverlayOp(HIDE, id, null);
+        }
+        if (!entry.hasKey("data") || entry.getType("data") != ReadableType.Map) {
+            throw OverlayModel.invalid("data", "an object");
+        }
+        ReadableMap data = entry.getMap("data");
+        if ("show".equals(op)) return new OverlayOp(SHOW, id, OverlayModel.decode(data));
+        if ("transition".equals(op)) return new OverlayOp(TRANSITION, id, OverlayModel.decode(data));
+        if ("update".equals(op)) return new OverlayOp(UPDATE, id, OverlayModel.decodeUpdate(data));
+        throw new OverlayException("E_INVALID_DATA", "Unknown batch op: " + op);
+    }
+}
@@ -0,0 +1,249 @@
+package com.awesomeproject.core;
+
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Everything needed to put the overlay back after process death: bubble position, what was on screen
+// (with its data), the add-ons the driver picked, the queued offers, and any extra overlay windows. Payloads are plain Java
+// maps/lists (see PlainMaps) so the codec has no React dependency.
+//
+// Binary layout, big-endian:
+//   int magic, byte version, int bubbleX, int bubbleY, utf overlayType ("" = none), int addonMask,
+//   value shown, int offerCount, offerCount x (utf id, int priority, long expiresAtMs, value payload),
+//   [v2+] int windowCount, windowCount x (utf id, int x, int y, value shown),
+//   long crc32 of everything before it
+// value = byte tag + body: null | bool | double | utf | list (int n, n values) | map (int n, n x (utf key, value))
+class OverlaySnapshot {
+
+    static final class Offer {
+        final String id;
+        final int priority;
+        final long expiresAtMs;
+        final Map<String, Object> payload;
+
+        Offer(String id, int priority, long expiresAtMs, Map<String, Object> payload) {
+            this.id = id;
+            this.priority = priority;
+            this.expiresAtMs = expiresAtMs;
+            this.payload = payload;
+        }
+    }
+
+    // an overlay window other than main that was on screen
+    static final class Window {
+        final String id;
+        final int x; // its bubble position, remembered or live
+        final int y;
+        final Map<String, Object> shown;
+
+        Window(String id, int x, int y, Map<String, Object> shown) {
+            this.id = id;
+            this.x = x;
+            this.y = y;
+            this.shown = shown;
+        }
+    }
+
+    private static final int MAGIC = 0x4F564C53; // "OVLS"
+    private static final byte VERSION = 2; // 1 had no windows, still read
+    private static final int MAX_ITEMS = 1024; // sanity bound for counts read from disk
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_BOOL = 1;
+    private static final byte TAG_DOUBLE = 2;
+    private static final byte TAG_STRING = 3;
+    private static final byte TAG_LIST = 4;
+    private static final byte TAG_MAP = 5;
+
+    int bubbleX = 0;
+    int bubbleY = 100;
+    @Nullable String overlayType; // "bubble", "card", "stack" or null
+    @Nullable Map<String, Object> shown; // data the visible overlay was shown/updated with
+    int addonMask = 0; // bit i = add-on i selected on the visible card
+    final ArrayList<Offer> offers = new ArrayList<>();
+    final ArrayList<Window> windows = new ArrayList<>(); // the main window is the fields above
+
+    // --- Encoding ---
+
+    static byte[] encode(OverlaySnapshot snapshot) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(snapshot.bubbleX);
+            out.writeInt(snapshot.bubbleY);
+            out.writeUTF(snapshot.overlayType != null ? snapshot.overlayType : "");
+            out.writeInt(snapshot.addonMask);
+            writeValue(out, snapshot.shown);
+            out.writeInt(snapshot.offers.size());
+            for (int i = 0; i < snapshot.offers.size(); i++) {
+                Offer offer = snapshot.offers.get(i);
+                out.writeUTF(offer.id);
+                out.writeInt(offer.priority);
+                out.writeLong(offer.expiresAtMs);
+                writeValue(out, offer.payload);
+            }
+            out.writeInt(snapshot.windows.size());
+            for (int i = 0; i < snapshot.windows.size(); i++) {
+                Window window = snapshot.windows.get(i);
+                out.writeUTF(window.id);
+                out.writeInt(window.x);
+                out.writeInt(window.y);
+                writeValue(out, window.shown);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeLong(crc.getValue());
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // in-memory stream, can't happen
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeValue(DataOutputStream out, @Nullable Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TAG_BOOL);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Number) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof String) {
+            out.writeByte(TAG_STRING);
+            out.writeUTF((String) value);
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(TAG_LIST);
+            out.writeInt(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                writeValue(out, list.get(i));
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(TAG_MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                out.writeUTF(String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue());
+            }
+        } else {
+            out.writeByte(TAG_NULL); // not something JS could have sent
+        }
+    }
+
+    // --- Decoding ---
+
+    // throws on anything that isn't a complete snapshot we wrote: bad magic/version, bad crc, truncation
+    static OverlaySnapshot decode(byte[] data) throws IOException {
+        if (data.length < 4 + 1 + 8) {
+            throw new IOException("Snapshot too short: " + data.length);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 8);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        in.skipBytes(data.length - 8);
+        if (in.readLong() != crc.getValue()) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+
+        in = new DataInputStream(new ByteArrayInputStream(data, 0, data.length - 8));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an overlay snapshot");
+        }
+        byte version = in.readByte();
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unknown snapshot version " + version);
+        }
+        OverlaySnapshot snapshot = new OverlaySnapshot();
+        snapshot.bubbleX = in.readInt();
+        snapshot.bubbleY = in.readInt();
+        String type = in.readUTF();
+        snapshot.overlayType = type.isEmpty() ? null : type;
+        snapshot.addonMask = in.readInt();
+        snapshot.shown = asMap(readValue(in));
+        int offerCount = readCount(in);
+        for (int i = 0; i < offerCount; i++) {
+            String id = in.readUTF();
+            int priority = in.readInt();
+            long expiresAtMs = in.readLong();
+            Map<String, Object> payload = asMap(readValue(in));
+            snapshot.offers.add(new Offer(id, priority, expiresAtMs, payload != null ? payload : new HashMap<>()));
+        }
+        int windowCount = version >= 2 ? readCount(in) : 0;
+        for (int i = 0; i < windowCount; i++) {
+            String id = in.readUTF();
+            int x = in.readInt();
+            int y = in.readInt();
+            Map<String, Object> shown = asMap(readValue(in));
+            snapshot.windows.add(new Window(id, x, y, shown != null ? shown : new HashMap<>()));
+        }
+        if (in.available() != 0) {
+            throw new IOException("Trailing bytes in snapshot");
+        }
+        return snapshot;
+    }
+
+    @Nullable
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_BOOL:
+                return in.readBoolean();
+            case TAG_DOUBLE:
+                return in.readDouble();
+            case TAG_STRING:
+                return in.readUTF();
+            case TAG_LIST: {
+                int size = readCount(in);
+                ArrayList<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case TAG_MAP: {
+                int size = readCount(in);
+                HashMap<String, Object> map = new HashMap<>();
+                for (int i = 0; i < size; i++) {
+                    String key = in.readUTF();
+                    map.put(key, readValue(in));
+                }
+                return map;
+            }
+            default:
+                throw new IOException("Unknown value tag " + tag);
+        }
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > MAX_ITEMS) {
+            throw new IOException("Bad count " + count);
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    private static Map<String, Object> asMap(@Nullable Object value) throws IOException {
+        if (value == null) return null;
+        if (!(value instanceof Map)) {
+            throw new IOException("Expected a map");
+        }
+        return (Map<String, Object>) value;
+    }
+}
@@ -0,0 +1,120 @@
+package com.awesomeproject.core;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+// Keeps an OverlaySnapshot on disk. Changes are coalesced: markDirty() only schedules one capture
+// WRITE_DELAY_MS later, so a drag or a burst of offers costs a single write. Capture runs on the UI
+// thread (it's just copies), encoding and the atomic tmp+rename write run on the io executor.
+// load() is synchronous and meant for startup, bounded by MAX_BYTES.
+class OverlaySnapshotStore {
+
+    interface Source {
+        // called on the UI thread
+        OverlaySnapshot capture();
+    }
+
+    static final long WRITE_DELAY_MS = 300;
+    static final int MAX_BYTES = 64 * 1024; // a full offer queue is a few KB
+    static final long RESTORE_BUDGET_MS = 10;
+
+    private static final String TAG = "OverlaySnapshotStore";
+
+    private final File mFile;
+    private final File mTmpFile;
+    private final Executor mIo;
+    private final Handler mMainHandler;
+    private final Source mSource;
+    private boolean mWritePending = false;
+    private boolean mClosed = false;
+
+    private final Runnable mCapture = this::writeNow;
+
+    OverlaySnapshotStore(File file, Executor io, Handler mainHandler, Source source) {
+        mFile = file;
+        mTmpFile = new File(file.getPath() + ".tmp");
+        mIo = io;
+        mMainHandler = mainHandler;
+        mSource = source;
+    }
+
+    // state changed, write it soon; repeated calls before then are free
+    void markDirty() {
+        if (mWritePending || mClosed) return;
+        mWritePending = true;
+        mMainHandler.postDelayed(mCapture, WRITE_DELAY_MS);
+    }
+
+    // write any pending change right away, e.g. before the service goes down
+    void flush() {
+        if (!mWritePending) return;
+        mMainHandler.removeCallbacks(mCapture);
+        writeNow();
+    }
+
+    // write what's pending and stop taking changes, the teardown that follows shouldn't be persisted
+    void close() {
+        flush();
+        mClosed = true;
+    }
+
+    private void writeNow() {
+        mWritePending = false;
+        OverlaySnapshot snapshot = mSource.capture();
+        mIo.execute(() -> {
+            byte[] bytes = OverlaySnapshot.encode(snapshot);
+            try (FileOutputStream out = new FileOutputStream(mTmpFile)) {
+                out.write(bytes);
+                out.getFD().sync();
+            } catch (IOException e) {
+                Log.e(TAG, "Could not write overlay snapshot.", e);
+                return;
+            }
+            if (!mTmpFile.renameTo(mFile)) { // readers see the old or the new file, never half of one
+                Log.e(TAG, "Could not replace overlay snapshot.");
+            }
+        });
+    }
+
+    // last good snapshot, or null if there is none or it can't be trusted (the file is then dropped)
+    @Nullable
+    OverlaySnapshot load() {
+        long start = SystemClock.uptimeMillis();
+        if (!mFile.exists()) return null;
+        long length = mFile.length();
+        if (length > MAX_BYTES) {
+            Log.w(TAG, "Overlay snapshot too big (" + length + " bytes), dropping it.");
+            mFile.delete();
+            return null;
+        }
+        OverlaySnapshot snapshot = null;
+        byte[] bytes = new byte[(int) length];
+        try (FileInputStream in = new FileInputStream(mFile)) {
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+            if (read != bytes.length) throw new IOException("Short read");
+            snapshot = OverlaySnapshot.decode(bytes);
+        } catch (IOException e) {
+            Log.w(TAG, "Dropping unreadable overlay snapshot: " + e.getMessage());
+            mFile.delete();
+        }
+        long elapsed = SystemClock.uptimeMillis() - start;
+        if (elapsed > RESTORE_BUDGET_MS) {
+            Log.w(TAG, "Snapshot restore took " + elapsed + "ms, budget is " + RESTORE_BUDGET_MS + "ms");
+        }
+        return snapshot;
+    }
+}
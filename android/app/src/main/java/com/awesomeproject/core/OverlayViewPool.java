@@ -0,0 +1,229 @@
+package com.awesomeproject.core;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.awesomeproject.R;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+// Keeps one warm bubble view, one warm dismiss target and warm card views so showOverlay doesn't
+// inflate XML on every offer. Cards beyond the first come from the offer stack and are kept up to
+// MAX_IDLE_CARDS. A drawn card (TripCardView) is built, not inflated, and one idle one is kept so
+// its paints and text layouts are reused; it goes back in under "card" like the inflated ones.
+// prewarm() inflates and pre-measures on a background thread, AsyncLayoutInflater style: views
+// aren't attached yet so that's safe, and anything that fails there is inflated on the UI thread
+// instead. A configuration change drops every idle view, they were built for the old one.
+// All methods must be called on the UI thread.
+class OverlayViewPool implements ComponentCallbacks2 {
+
+    static final int MAX_IDLE_CARDS = OfferStackView.MAX_VISIBLE;
+    static final String DRAWN_CARD = "drawnCard"; // acquire() type for a TripCardView
+
+    private static final String TAG = "OverlayViewPool";
+
+    // one inflater thread for the process, like AsyncLayoutInflater's
+    private static final Executor INFLATE_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            r.run();
+        }, "OverlayInflater");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Context mContext;
+    private final Executor mInflateExecutor;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private View mBubbleView; // idle bubble, null while in use or released
+    private View mDismissView; // idle dismiss target
+    private final ArrayList<View> mCardViews = new ArrayList<>(MAX_IDLE_CARDS); // idle cards
+    private TripCardView mDrawnCard; // idle drawn card, null while in use or not built yet
+    private int mInflateCount = 0; // how many times we hit the inflater on the UI thread
+    private int mGeneration = 0; // bumped on configuration change, views from older ones aren't pooled
+    private boolean mWarming = false; // a background prewarm is in flight
+    private final ArrayList<Runnable> mWarmCallbacks = new ArrayList<>(); // waiting for that prewarm
+
+    OverlayViewPool(Context context) {
+        this(context, INFLATE_EXECUTOR);
+    }
+
+    OverlayViewPool(Context context, Executor inflateExecutor) {
+        mContext = context;
+        mInflateExecutor = inflateExecutor;
+    }
+
+    /**
+     * Inflates whatever is missing from the pool in the background and pre-measures it for the
+     * current display. Idempotent: a warm pool calls back right away, a second call joins the first.
+     * @param onReady Run on the UI thread once every type has an idle view, may be null.
+     */
+    void prewarm(@Nullable Runnable onReady) {
+        if (isWarm()) {
+            if (onReady != null) onReady.run();
+            return;
+        }
+        if (onReady != null) mWarmCallbacks.add(onReady);
+        if (mWarming) return;
+        mWarming = true;
+
+        int generation = mGeneration;
+        boolean needBubble = mBubbleView == null;
+        boolean needCard = mCardViews.isEmpty();
+        boolean needDismiss = mDismissView == null;
+        DisplayMetrics metrics = mContext.getResources().getDisplayMetrics();
+        int screenWidth = metrics.widthPixels;
+        int screenHeight = metrics.heightPixels;
+        mInflateExecutor.execute(() -> {
+            View bubble = needBubble ? inflateInBackground(R.layout.overlay_bubble, screenWidth, screenHeight, false) : null;
+            View card = needCard ? inflateInBackground(R.layout.overlay_trip_card, screenWidth, screenHeight, true) : null;
+            View dismiss = needDismiss ? inflateInBackground(R.layout.overlay_dismiss_button, screenWidth, screenHeight, true) : null;
+            mMainHandler.post(() -> onWarmed(generation, bubble, card, dismiss));
+        });
+    }
+
+    private void onWarmed(int generation, @Nullable View bubble, @Nullable View card, @Nullable View dismiss) {
+        mWarming = false;
+        if (generation != mGeneration) {
+            prewarm(null); // configuration changed in the meantime, these are stale; waiters stay queued
+            return;
+        }
+        // acquire() may have inflated on its own while we were busy, only fill what is still empty
+        if (mBubbleView == null) mBubbleView = bubble != null ? stamp(bubble) : inflate(R.layout.overlay_bubble);
+        if (mCardViews.isEmpty()) mCardViews.add(card != null ? stamp(card) : inflate(R.layout.overlay_trip_card));
+        if (mDismissView == null) mDismissView = dismiss != null ? stamp(dismiss) : inflate(R.layout.overlay_dismiss_button);
+
+        for (int i = 0; i < mWarmCallbacks.size(); i++) {
+            mWarmCallbacks.get(i).run();
+        }
+        mWarmCallbacks.clear();
+    }
+
+    boolean isWarm() {
+        return mBubbleView != null && mDismissView != null && !mCardViews.isEmpty();
+    }
+
+    // hand out a warm view for the given type, inflating only if the pool is empty
+    @Nullable
+    View acquire(String type) {
+        View view;
+        switch (type) {
+            case "bubble":
+                view = mBubbleView != null ? mBubbleView : inflate(R.layout.overlay_bubble);
+                mBubbleView = null;
+                return view;
+            case "card":
+                return mCardViews.isEmpty()
+                        ? inflate(R.layout.overlay_trip_card)
+                        : mCardViews.remove(mCardViews.size() - 1);
+            case "dismiss":
+                view = mDismissView != null ? mDismissView : inflate(R.layout.overlay_dismiss_button);
+                mDismissView = null;
+                return view;
+            case DRAWN_CARD:
+                view = mDrawnCard != null ? mDrawnCard : stamp(new TripCardView(mContext));
+                mDrawnCard = null;
+                return view;
+            default:
+                return null;
+        }
+    }
+
+    // take a view back after it has been removed from the window manager
+    void release(String type, @Nullable View view) {
+        if (view == null || view.getParent() != null) return; // still attached, don't pool it
+        Object generation = view.getTag(R.id.overlay_pool_generation);
+        if (!(generation instanceof Integer) || (Integer) generation != mGeneration) return; // old configuration
+        switch (type) {
+            case "bubble":
+                BubbleViewHolder.of(view).reset();
+                mBubbleView = view;
+                break;
+            case "card":
+                CardViewHolder.of(view).reset(); // clear stale trip data so it never flashes on reuse
+                if (view instanceof TripCardView) {
+                    mDrawnCard = (TripCardView) view;
+                } else if (mCardViews.size() < MAX_IDLE_CARDS && !mCardViews.contains(view)) {
+                    mCardViews.add(view);
+                }
+                break;
+            case "dismiss":
+                mDismissView = view;
+                break;
+        }
+    }
+
+    // drop idle views, they get re-inflated on next use
+    void clear() {
+        mBubbleView = null;
+        mDismissView = null;
+        mDrawnCard = null;
+        mCardViews.clear();
+    }
+
+    int getInflateCount() {
+        return mInflateCount;
+    }
+
+    private View inflate(int layoutId) {
+        mInflateCount++;
+        return stamp(LayoutInflater.from(mContext).inflate(layoutId, null));
+    }
+
+    private View stamp(View view) {
+        view.setTag(R.id.overlay_pool_generation, mGeneration);
+        return view;
+    }
+
+    // background thread: inflate detached and measure the way the window will (full width or wrap)
+    @Nullable
+    private View inflateInBackground(int layoutId, int screenWidth, int screenHeight, boolean fullWidth) {
+        try {
+            View view = LayoutInflater.from(mContext).inflate(layoutId, null);
+            int widthSpec = fullWidth
+                    ? View.MeasureSpec.makeMeasureSpec(screenWidth, View.MeasureSpec.EXACTLY)
+                    : View.MeasureSpec.makeMeasureSpec(screenWidth, View.MeasureSpec.AT_MOST);
+            view.measure(widthSpec, View.MeasureSpec.makeMeasureSpec(screenHeight, View.MeasureSpec.AT_MOST));
+            return view;
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Background inflation failed, falling back to the UI thread.", e);
+            return null;
+        }
+    }
+
+    // --- ComponentCallbacks2 Methods ---
+
+    @Override
+    public void onTrimMemory(int level) {
+        // UI_HIDDEN just means the app went to background, which is when overlays matter most
+        if (level >= TRIM_MEMORY_RUNNING_LOW && level != TRIM_MEMORY_UI_HIDDEN) {
+            clear();
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        clear();
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        // rotation, night mode, font scale: idle views were inflated and measured for the old config
+        mGeneration++;
+        clear();
+        prewarm(null); // off the UI thread, so the next offer is still warm
+    }
+}
@@ -0,0 +1,49 @@
+package com.awesomeproject.core;
+
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.WindowManager;
+import android.widget.FrameLayout;
+
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+
+// One entry in the controller's overlay registry: a window root, the content inside it, its params,
+// and the bubble drag machinery while it holds a bubble. Plain state, OverlayController drives it.
+// UI thread only.
+final class OverlayWindow {
+
+    final String id;
+    @Nullable FrameLayout host; // window root, lives across transitions, content swaps inside it
+    @Nullable View view; // current content, null = not showing
+    @Nullable WindowManager.LayoutParams params; // created once per window, mutated in place
+    @Nullable String type; // "bubble", "card", "stack" or null
+    @Nullable HashMap<String, Object> shownData; // what it was shown/updated with, for snapshots
+    @Nullable BubbleViewHolder bubbleHolder; // set while a bubble is showing
+    @Nullable CardViewHolder cardHolder; // set while a card is showing
+
+    // --- Bubble ---
+    @Nullable DragFrameCoalescer dragCoalescer; // one layout per frame while dragging
+    @Nullable BubbleSnapAnimator snapAnimator; // spring/fling to the edge on release
+    @Nullable TouchGestureRecognizer gestures; // tap/drag recognition for the bubble's touch stream
+    int bubbleLastX = 0; // remembered position
+    int bubbleLastY = 100;
+
+    // --- First draw metrics ---
+    int firstDrawOp = -1; // operation waiting for this window's first frame, -1 = none
+    long firstDrawStartNs;
+    @Nullable ViewTreeObserver.OnDrawListener firstDrawListener; // set by the controller, one per window
+
+    OverlayWindow(String id) {
+        this.id = id;
+    }
+
+    boolean isShowing() {
+        return view != null;
+    }
+
+    boolean is(String overlayType) {
+        return overlayType.equals(type);
+    }
+}
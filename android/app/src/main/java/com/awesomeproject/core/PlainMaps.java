@@ -0,0 +1,125 @@
+package com.awesomeproject.core;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// ReadableMap <-> plain HashMap/ArrayList/Double/String/Boolean, for payloads that outlive the bridge
+// (snapshots, state handed back to JS). Works the same for native and JavaOnly maps, unlike toHashMap().
+final class PlainMaps {
+
+    private PlainMaps() {}
+
+    static HashMap<String, Object> toPlain(ReadableMap map) {
+        HashMap<String, Object> plain = new HashMap<>();
+        ReadableMapKeySetIterator keys = map.keySetIterator();
+        while (keys.hasNextKey()) {
+            String key = keys.nextKey();
+            switch (map.getType(key)) {
+                case Null:
+                    plain.put(key, null);
+                    break;
+                case Boolean:
+                    plain.put(key, map.getBoolean(key));
+                    break;
+                case Number:
+                    plain.put(key, map.getDouble(key));
+                    break;
+                case String:
+                    plain.put(key, map.getString(key));
+                    break;
+                case Map:
+                    plain.put(key, toPlain(map.getMap(key)));
+                    break;
+                case Array:
+                    plain.put(key, toPlain(map.getArray(key)));
+                    break;
+            }
+        }
+        return plain;
+    }
+
+    static ArrayList<Object> toPlain(ReadableArray array) {
+        ArrayList<Object> plain = new ArrayList<>(array.size());
+        for (int i = 0; i < array.size(); i++) {
+            switch (array.getType(i)) {
+                case Null:
+                    plain.add(null);
+                    break;
+                case Boolean:
+                    plain.add(array.getBoolean(i));
+                    break;
+                case Number:
+                    plain.add(array.getDouble(i));
+                    break;
+                case String:
+                    plain.add(array.getString(i));
+                    break;
+                case Map:
+                    plain.add(toPlain(array.getMap(i)));
+                    break;
+                case Array:
+                    plain.add(toPlain(array.getArray(i)));
+                    break;
+            }
+        }
+        return plain;
+    }
+
+    static JavaOnlyMap toReadable(Map<String, Object> plain) {
+        JavaOnlyMap map = new JavaOnlyMap();
+        for (Map.Entry<String, Object> entry : plain.entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            if (value == null) {
+                map.putNull(key);
+            } else if (value instanceof Boolean) {
+                map.putBoolean(key, (Boolean) value);
+            } else if (value instanceof Number) {
+                map.putDouble(key, ((Number) value).doubleValue());
+            } else if (value instanceof String) {
+                map.putString(key, (String) value);
+            } else if (value instanceof Map) {
+                map.putMap(key, toReadable(cast(value)));
+            } else if (value instanceof List) {
+                map.putArray(key, toReadable((List<?>) value));
+            }
+        }
+        return map;
+    }
+
+    static JavaOnlyArray toReadable(List<?> plain) {
+        JavaOnlyArray array = new JavaOnlyArray();
+        for (int i = 0; i < plain.size(); i++) {
+            Object value = plain.get(i);
+            if (value == null) {
+                array.pushNull();
+            } else if (value instanceof Boolean) {
+                array.pushBoolean((Boolean) value);
+            } else if (value instanceof Number) {
+                array.pushDouble(((Number) value).doubleValue());
+            } else if (value instanceof String) {
+                array.pushString((String) value);
+            } else if (value instanceof Map) {
+                array.pushMap(toReadable(cast(value)));
+            } else if (value instanceof List) {
+                array.pushArray(toReadable((List<?>) value));
+            }
+        }
+        return array;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> cast(@Nullable Object value) {
+        return (Map<String, Object>) value;
+    }
+}
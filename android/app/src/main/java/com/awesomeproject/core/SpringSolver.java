@@ -0,0 +1,75 @@
+package com.awesomeproject.core;
+
+// One-axis damped spring (unit mass), stepped with semi-implicit Euler.
+// Plain Java on purpose, no Android types, so it can be tested on the JVM.
+final class SpringSolver {
+
+    private static final float MAX_SUBSTEP_S = 1f / 240f; // keeps stiff springs stable on long frames
+    private static final float REST_DISTANCE_PX = 0.5f;
+    private static final float REST_VELOCITY_PX_S = 10f;
+
+    private final float mStiffness;
+    private final float mDamping; // 2 * dampingRatio * sqrt(stiffness)
+
+    private float mPosition;
+    private float mVelocity;
+    private float mTarget;
+    private boolean mSettled = true;
+
+    SpringSolver(float stiffness, float dampingRatio) {
+        mStiffness = stiffness;
+        mDamping = 2f * dampingRatio * (float) Math.sqrt(stiffness);
+    }
+
+    // start from a position/velocity towards a target
+    void start(float position, float velocity, float target) {
+        mPosition = position;
+        mVelocity = velocity;
+        mTarget = target;
+        mSettled = false;
+    }
+
+    /**
+     * Advances the spring.
+     * @param dtSeconds Time since the last step.
+     * @return true once the spring has come to rest on its target.
+     */
+    boolean step(float dtSeconds) {
+        if (mSettled) return true;
+        float remaining = dtSeconds;
+        while (remaining > 0f) {
+            float h = Math.min(remaining, MAX_SUBSTEP_S);
+            float accel = -mStiffness * (mPosition - mTarget) - mDamping * mVelocity;
+            mVelocity += accel * h;
+            mPosition += mVelocity * h;
+            remaining -= h;
+        }
+        if (Math.abs(mPosition - mTarget) < REST_DISTANCE_PX && Math.abs(mVelocity) < REST_VELOCITY_PX_S) {
+            mPosition = mTarget;
+            mVelocity = 0f;
+            mSettled = true;
+        }
+        return mSettled;
+    }
+
+    void stop() {
+        mVelocity = 0f;
+        mSettled = true;
+    }
+
+    boolean isSettled() {
+        return mSettled;
+    }
+
+    float getPosition() {
+        return mPosition;
+    }
+
+    float getVelocity() {
+        return mVelocity;
+    }
+
+    float getTarget() {
+        return mTarget;
+    }
+}
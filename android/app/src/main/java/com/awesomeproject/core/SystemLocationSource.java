@@ -0,0 +1,98 @@
+package com.awesomeproject.core;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+// Fixes from the passive provider: whatever the navigation app the driver is running already asks
+// for, so keeping the card current costs no extra GPS. Silent without a location permission, which
+// OverlayService.ts asks for; with another app in front, fixes only arrive while OverlayHostService
+// runs as a location foreground service (see its enterForeground).
+final class SystemLocationSource implements LocationSource {
+
+    private static final String TAG = "SystemLocationSource";
+    private static final long MIN_INTERVAL_MS = 1000; // the updater throttles again, this just bounds callbacks
+
+    private final Context mContext;
+    @Nullable private LocationManager mLocationManager;
+    @Nullable private Listener mListener;
+
+    private final LocationListener mLocationListener = new LocationListener() {
+        @Override
+        public void onLocationChanged(@NonNull Location location) {
+            deliver(location);
+        }
+
+        // required before API 29
+        @Override
+        public void onProviderEnabled(@NonNull String provider) {
+        }
+
+        @Override
+        public void onProviderDisabled(@NonNull String provider) {
+        }
+    };
+
+    SystemLocationSource(Context context) {
+        mContext = context.getApplicationContext();
+    }
+
+    @SuppressWarnings("MissingPermission") // checked in hasPermission
+    @Override
+    public void start(Listener listener) {
+        if (!hasPermission(mContext)) {
+            Log.i(TAG, "No location permission, trip cards keep their static distance/duration.");
+            return;
+        }
+        mLocationManager = (LocationManager) mContext.getSystemService(Context.LOCATION_SERVICE);
+        if (mLocationManager == null) return;
+        mListener = listener;
+        try {
+            mLocationManager.requestLocationUpdates(LocationManager.PASSIVE_PROVIDER, MIN_INTERVAL_MS, 0f,
+                    mLocationListener, Looper.getMainLooper());
+            Location last = mLocationManager.getLastKnownLocation(LocationManager.PASSIVE_PROVIDER);
+            if (last != null) {
+                deliver(last);
+            }
+        } catch (SecurityException | IllegalArgumentException e) {
+            Log.w(TAG, "Could not listen for locations.", e);
+            mListener = null;
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (mLocationManager != null) {
+            mLocationManager.removeUpdates(mLocationListener);
+            mLocationManager = null;
+        }
+        mListener = null;
+    }
+
+    private void deliver(Location location) {
+        if (mListener == null) return;
+        // elapsed realtime keeps ticking in deep sleep, unlike uptime, and can't jump like wall time
+        long timeMs = location.getElapsedRealtimeNanos() > 0
+                ? location.getElapsedRealtimeNanos() / 1_000_000L
+                : SystemClock.elapsedRealtime();
+        mListener.onLocation(location.getLatitude(), location.getLongitude(), timeMs);
+    }
+
+    // either one will do, the passive provider hands out what the permission allows
+    static boolean hasPermission(Context context) {
+        return ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED
+                || ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_COARSE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED;
+    }
+}
@@ -0,0 +1,203 @@
+package com.awesomeproject.core;
+
+// Turns a single-pointer touch stream into tap, double-tap, long-press and drag callbacks.
+// Times are MotionEvent event times (uptime ms) and coordinates are raw screen px, passed in as
+// primitives so the recognizer never holds on to a MotionEvent and runs on the JVM. Nothing is
+// allocated per event: the long-press timeout is one reused Runnable on the injected timer.
+//  - tap: up before the long-press timeout, never moved past touch slop
+//  - double-tap: a tap whose down came within the double-tap timeout and slop of the previous tap;
+//    reported instead of its onTap (the first tap was already reported, there is no single-tap delay)
+//  - long-press: held still for the long-press timeout; it picks the pointer up, what follows is a
+//    drag with no slop to cross
+//  - drag: moved past touch slop, then onDrag per move and onDragEnd on up or cancel
+// Only the first pointer is followed. UI thread only.
+final class TouchGestureRecognizer {
+
+    interface Listener {
+        void onDown(float rawX, float rawY);
+
+        void onTap(float rawX, float rawY);
+
+        void onDoubleTap(float rawX, float rawY);
+
+        // followed by onDragStart at the same point
+        void onLongPress(float rawX, float rawY);
+
+        void onDragStart(float rawX, float rawY);
+
+        void onDrag(float rawX, float rawY);
+
+        void onDragEnd(float rawX, float rawY, boolean cancelled);
+    }
+
+    // MotionEvent action codes, repeated so this compiles without android.view
+    static final int ACTION_DOWN = 0;
+    static final int ACTION_UP = 1;
+    static final int ACTION_MOVE = 2;
+    static final int ACTION_CANCEL = 3;
+
+    // --- States ---
+    private static final int IDLE = 0;
+    private static final int PRESSED = 1; // down, still within slop
+    private static final int DRAGGING = 2;
+
+    private final Listener mListener;
+    private final OfferExpiryScheduler.Timer mTimer;
+    private final long mLongPressTimeoutMs;
+    private final long mDoubleTapTimeoutMs;
+    private final Runnable mLongPressTimeout = this::onLongPressTimeout;
+    private int mTouchSlopSquare;
+    private int mDoubleTapSlopSquare;
+
+    private int mState = IDLE;
+    private boolean mLongPressScheduled = false;
+    private boolean mSecondTap = false; // this press may finish a double-tap
+    private float mDownX, mDownY;
+    private long mDownTimeMs;
+    private float mLastX, mLastY;
+    // previous tap, for double-tap; the time is its up
+    private float mLastTapDownX, mLastTapDownY;
+    private long mLastTapUpMs = Long.MIN_VALUE / 2;
+
+    TouchGestureRecognizer(Listener listener, OfferExpiryScheduler.Timer timer,
+                           long longPressTimeoutMs, long doubleTapTimeoutMs) {
+        mListener = listener;
+        mTimer = timer;
+        mLongPressTimeoutMs = longPressTimeoutMs;
+        mDoubleTapTimeoutMs = doubleTapTimeoutMs;
+    }
+
+    // scaled px, from ViewConfiguration; takes effect from the next down
+    void setSlop(int touchSlop, int doubleTapSlop) {
+        mTouchSlopSquare = touchSlop * touchSlop;
+        mDoubleTapSlopSquare = doubleTapSlop * doubleTapSlop;
+    }
+
+    float getDownX() {
+        return mDownX;
+    }
+
+    float getDownY() {
+        return mDownY;
+    }
+
+    boolean isDragging() {
+        return mState == DRAGGING;
+    }
+
+    /**
+     * Feeds one touch event.
+     * @param actionMasked MotionEvent.getActionMasked(), pointer actions are ignored
+     * @return true while a gesture is being followed, so the view keeps getting the stream
+     */
+    boolean onTouchEvent(int actionMasked, float rawX, float rawY, long eventTimeMs) {
+        switch (actionMasked) {
+            case ACTION_DOWN:
+                cancel(); // a down without the previous up, start over
+                mDownX = mLastX = rawX;
+                mDownY = mLastY = rawY;
+                mDownTimeMs = eventTimeMs;
+                mSecondTap = eventTimeMs - mLastTapUpMs <= mDoubleTapTimeoutMs
+                        && distanceSquare(rawX, rawY, mLastTapDownX, mLastTapDownY) < mDoubleTapSlopSquare;
+                mState = PRESSED;
+                mLongPressScheduled = true;
+                mTimer.schedule(mLongPressTimeout, mLongPressTimeoutMs);
+                mListener.onDown(rawX, rawY);
+                return true;
+
+            case ACTION_MOVE:
+                if (mState == IDLE) return false;
+                mLastX = rawX;
+                mLastY = rawY;
+                if (mState == PRESSED) {
+                    if (longPressDue(eventTimeMs)) {
+                        longPress(); // the timer is late, the event time says it's a long press already
+                    } else if (distanceSquare(rawX, rawY, mDownX, mDownY) >= mTouchSlopSquare) {
+                        startDrag(rawX, rawY);
+                    } else {
+                        return true; // still a tap
+                    }
+                }
+                mListener.onDrag(rawX, rawY);
+                return true;
+
+            case ACTION_UP:
+                if (mState == IDLE) return false;
+                if (mState == PRESSED && longPressDue(eventTimeMs)) {
+                    longPress();
+                }
+                if (mState == DRAGGING) {
+                    mState = IDLE;
+                    cancelLongPress();
+                    mLastTapUpMs = Long.MIN_VALUE / 2;
+                    mListener.onDragEnd(rawX, rawY, false);
+                    return true;
+                }
+                mState = IDLE;
+                cancelLongPress();
+                if (mSecondTap) {
+                    mLastTapUpMs = Long.MIN_VALUE / 2; // a third tap starts a new pair
+                    mListener.onDoubleTap(rawX, rawY);
+                } else {
+                    mLastTapDownX = mDownX;
+                    mLastTapDownY = mDownY;
+                    mLastTapUpMs = eventTimeMs;
+                    mListener.onTap(rawX, rawY);
+                }
+                return true;
+
+            case ACTION_CANCEL:
+                if (mState == IDLE) return false;
+                mLastTapUpMs = Long.MIN_VALUE / 2;
+                cancel();
+                return true;
+        }
+        return mState != IDLE;
+    }
+
+    // drop the gesture in progress, a drag ends as cancelled; e.g. when the view goes away
+    void cancel() {
+        cancelLongPress();
+        if (mState == DRAGGING) {
+            mState = IDLE;
+            mListener.onDragEnd(mLastX, mLastY, true);
+        }
+        mState = IDLE;
+    }
+
+    private boolean longPressDue(long eventTimeMs) {
+        return eventTimeMs - mDownTimeMs >= mLongPressTimeoutMs;
+    }
+
+    private void onLongPressTimeout() {
+        mLongPressScheduled = false;
+        if (mState == PRESSED) {
+            longPress();
+        }
+    }
+
+    private void longPress() {
+        cancelLongPress();
+        mListener.onLongPress(mLastX, mLastY);
+        startDrag(mLastX, mLastY);
+    }
+
+    private void startDrag(float rawX, float rawY) {
+        cancelLongPress();
+        mState = DRAGGING;
+        mListener.onDragStart(rawX, rawY);
+    }
+
+    private void cancelLongPress() {
+        if (mLongPressScheduled) {
+            mLongPressScheduled = false;
+            mTimer.cancel(mLongPressTimeout);
+        }
+    }
+
+    private static float distanceSquare(float x1, float y1, float x2, float y2) {
+        float dx = x1 - x2;
+        float dy = y1 - y2;
+        return dx * dx + dy * dy;
+    }
+}
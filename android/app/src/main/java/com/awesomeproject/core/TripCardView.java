@@ -0,0 +1,830 @@
+package com.awesomeproject.core;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Outline;
+import android.graphics.Paint;
+import android.graphics.RecordingCanvas;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.RenderNode;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.Bundle;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.DisplayMetrics;
+import android.util.TypedValue;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewOutlineProvider;
+import android.view.accessibility.AccessibilityEvent;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
+import androidx.customview.widget.ExploreByTouchHelper;
+
+import com.awesomeproject.R;
+
+import java.util.List;
+
+// The trip card as one View, an alternative to overlay_trip_card.xml (cardRenderer "drawn").
+// Same content and look, but no view tree: free text is drawn from StaticLayouts cached until the
+// text or width changes, fare and add-on amounts straight from FareModel's char buffers, and the
+// chips and buttons are hit-tested here. A change that keeps the card's height only invalidates;
+// on hardware canvases (Q+) each horizontal region is its own RenderNode and only changed regions
+// are re-recorded, e.g. an add-on toggle redraws the fare and chips, not the addresses.
+// The chips and buttons are accessibility virtual views (CardAccessibility), so TalkBack can reach
+// them like the layout's Buttons. UI thread only, bound through CardViewHolder.
+final class TripCardView extends View {
+
+    interface Listener {
+        void onAddonClick(int index);
+
+        void onAcceptClick();
+
+        void onIgnoreClick();
+    }
+
+    // --- Regions, top to bottom ---
+    private static final int REGION_COUNTDOWN = 0;
+    private static final int REGION_ROUTE = 1; // pickup, dropoff, divider
+    private static final int REGION_TRIP = 2; // distance, duration, divider
+    private static final int REGION_FARE = 3;
+    private static final int REGION_ADDONS = 4;
+    private static final int REGION_FOOTER = 5; // customer, car type, buttons
+    private static final int REGION_COUNT = 6;
+
+    // --- Touch targets, also the ids of their accessibility virtual views ---
+    private static final int TARGET_NONE = -1;
+    @VisibleForTesting static final int TARGET_ACCEPT = FareModel.MAX_ADDONS; // 0..MAX_ADDONS-1 are the chips
+    @VisibleForTesting static final int TARGET_IGNORE = FareModel.MAX_ADDONS + 1;
+
+    // --- Look, same values as the layout and its drawables ---
+    private static final int CARD_COLOR = 0xFFFCFCFD;
+    private static final int TEXT_COLOR = 0xFF1A1A1A;
+    private static final int SECONDARY_COLOR = 0xFF8A8A8A;
+    private static final int DIVIDER_COLOR = 0xFFEEEEEE;
+    private static final int ACCENT_COLOR = 0xFF007AFF;
+    private static final int COUNTDOWN_COLOR = 0xFFFF6347;
+    private static final int PILL_COLOR = 0xFFEFF1F3;
+    private static final int PILL_SELECTED_COLOR = 0xFFD6E8FF;
+    private static final int PRESSED_COLOR = 0x66D1D1D6; // ripple color, over the pressed target
+
+    private final float mDensity;
+    private final int mPadH, mPadV; // transparent margin around the card, 0 when flat
+    private final int mBodyPad;
+    private final float mCornerRadius;
+    private final float mElevation;
+    private final int mTouchSlop;
+
+    private final TextPaint mLabelPaint; // PICKUP, DROPOFF, TOTAL FARE
+    private final TextPaint mAddressPaint;
+    private final TextPaint mValuePaint; // distance, duration
+    private final TextPaint mCaptionPaint; // Distance, Duration
+    private final TextPaint mFarePaint;
+    private final TextPaint mChipPaint;
+    private final TextPaint mCarTypePaint; // left-aligned, layouts need that
+    private final TextPaint mCustomerPaint;
+    private final TextPaint mCountdownPaint;
+    private final TextPaint mDeclinePaint;
+    private final TextPaint mAcceptPaint;
+    private final Paint mFillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint.FontMetricsInt mFontMetrics = new Paint.FontMetricsInt(); // reused, draw allocates nothing
+    private final Drawable mClock;
+
+    // --- Content ---
+    private CharSequence mPickup = "";
+    private CharSequence mDropoff = "";
+    private CharSequence mDistance = "";
+    private CharSequence mDuration = "";
+    private CharSequence mCustomer = "";
+    private CharSequence mCarType = "";
+    @Nullable private String mCountdown; // null = hidden
+    private final char[] mFareChars = new char[FareModel.FORMAT_BUFFER_SIZE];
+    private int mFareLength = 0;
+    private final char[][] mAddonChars = new char[FareModel.MAX_ADDONS][FareModel.FORMAT_BUFFER_SIZE];
+    private final int[] mAddonLengths = new int[FareModel.MAX_ADDONS];
+    private final boolean[] mAddonSelected = new boolean[FareModel.MAX_ADDONS];
+    private int mAddonCount = 0;
+    private boolean mFlat = false;
+
+    // --- Cached text layouts, null = rebuild on the next measure ---
+    @Nullable private StaticLayout mPickupLayout;
+    @Nullable private StaticLayout mDropoffLayout;
+    @Nullable private StaticLayout mDistanceLayout;
+    @Nullable private StaticLayout mDurationLayout;
+    @Nullable private StaticLayout mCustomerLayout;
+    @Nullable private StaticLayout mCarTypeLayout;
+    private int mContentWidth = -1; // what the layouts were built for
+
+    // --- Geometry, view coordinates; from the last measure ---
+    private final int[] mRegionTop = new int[REGION_COUNT];
+    private final int[] mRegionHeight = new int[REGION_COUNT];
+    private int mBodyTop, mBodyBottom;
+    private final RectF[] mTargets = new RectF[TARGET_IGNORE + 1];
+
+    // --- Drawing ---
+    @Nullable private final RenderNode[] mNodes; // per region, Q+ only
+    private final boolean[] mDirty = new boolean[REGION_COUNT];
+
+    // --- Touch, accessibility ---
+    private final CardAccessibility mAccessibility = new CardAccessibility();
+    @Nullable private Listener mListener;
+    private int mPressed = TARGET_NONE;
+    private float mDownX, mDownY;
+
+    TripCardView(Context context) {
+        super(context);
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        mDensity = metrics.density;
+        mPadH = dp(12);
+        mPadV = dp(20);
+        mBodyPad = dp(24);
+        mCornerRadius = dp(32);
+        mElevation = dp(16);
+        mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+
+        Typeface medium = Typeface.create("sans-serif-medium", Typeface.NORMAL);
+        Typeface bold = Typeface.create(Typeface.SANS_SERIF, Typeface.BOLD);
+        mLabelPaint = textPaint(metrics, 12, SECONDARY_COLOR, medium);
+        mAddressPaint = textPaint(metrics, 18, TEXT_COLOR, Typeface.DEFAULT);
+        mValuePaint = textPaint(metrics, 20, TEXT_COLOR, bold);
+        mCaptionPaint = textPaint(metrics, 14, SECONDARY_COLOR, Typeface.SANS_SERIF);
+        mFarePaint = textPaint(metrics, 36, TEXT_COLOR, bold);
+        mChipPaint = textPaint(metrics, 14, ACCENT_COLOR, medium);
+        mCarTypePaint = textPaint(metrics, 14, ACCENT_COLOR, medium);
+        mCustomerPaint = textPaint(metrics, 16, TEXT_COLOR, medium);
+        mCountdownPaint = textPaint(metrics, 14, COUNTDOWN_COLOR, medium);
+        mDeclinePaint = textPaint(metrics, 16, SECONDARY_COLOR, medium);
+        mAcceptPaint = textPaint(metrics, 18, 0xFFFFFFFF, medium);
+        mChipPaint.setTextAlign(Paint.Align.CENTER);
+        mCaptionPaint.setTextAlign(Paint.Align.CENTER);
+        mDeclinePaint.setTextAlign(Paint.Align.CENTER);
+        mAcceptPaint.setTextAlign(Paint.Align.CENTER);
+        mFarePaint.setTextAlign(Paint.Align.RIGHT);
+        mCountdownPaint.setTextAlign(Paint.Align.RIGHT);
+
+        mClock = context.getDrawable(R.drawable.ic_clock).mutate();
+        mClock.setTint(COUNTDOWN_COLOR);
+        int clockSize = Math.round(mCountdownPaint.getTextSize());
+        mClock.setBounds(0, 0, clockSize, clockSize);
+
+        for (int i = 0; i < mTargets.length; i++) {
+            mTargets[i] = new RectF();
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            mNodes = new RenderNode[REGION_COUNT];
+            for (int i = 0; i < REGION_COUNT; i++) {
+                mNodes[i] = new RenderNode("TripCardRegion" + i);
+            }
+        } else {
+            mNodes = null;
+        }
+
+        // the system draws the card's shadow from this outline, like the layout's elevated body
+        setOutlineProvider(new ViewOutlineProvider() {
+            @Override
+            public void getOutline(View view, Outline outline) {
+                if (mFlat) {
+                    outline.setRect(0, 0, view.getWidth(), view.getHeight());
+                } else {
+                    outline.setRoundRect(mPadH, mBodyTop, view.getWidth() - mPadH, mBodyBottom, mCornerRadius);
+                }
+            }
+        });
+        setElevation(mElevation);
+        ViewCompat.setAccessibilityDelegate(this, mAccessibility);
+    }
+
+    void setListener(@Nullable Listener listener) {
+        mListener = listener;
+    }
+
+    // --- Content setters; each returns false when nothing changed ---
+
+    boolean setPickupAddress(@Nullable CharSequence text) {
+        if (sameText(mPickup, text)) return false;
+        mPickup = nonNull(text);
+        mPickupLayout = null;
+        contentChanged(REGION_ROUTE);
+        return true;
+    }
+
+    boolean setDropoffAddress(@Nullable CharSequence text) {
+        if (sameText(mDropoff, text)) return false;
+        mDropoff = nonNull(text);
+        mDropoffLayout = null;
+        contentChanged(REGION_ROUTE);
+        return true;
+    }
+
+    boolean setDistance(@Nullable CharSequence text) {
+        if (sameText(mDistance, text)) return false;
+        mDistance = nonNull(text);
+        mDistanceLayout = null;
+        contentChanged(REGION_TRIP);
+        return true;
+    }
+
+    boolean setDuration(@Nullable CharSequence text) {
+        if (sameText(mDuration, text)) return false;
+        mDuration = nonNull(text);
+        mDurationLayout = null;
+        contentChanged(REGION_TRIP);
+        return true;
+    }
+
+    boolean setCustomerName(@Nullable CharSequence text) {
+        if (sameText(mCustomer, text)) return false;
+        mCustomer = nonNull(text);
+        mCustomerLayout = null;
+        contentChanged(REGION_FOOTER);
+        return true;
+    }
+
+    boolean setCarType(@Nullable CharSequence text) {
+        if (sameText(mCarType, text)) return false;
+        mCarType = nonNull(text);
+        mCarTypeLayout = null;
+        mCustomerLayout = null; // gets whatever width the pill leaves
+        contentChanged(REGION_FOOTER);
+        return true;
+    }
+
+    // null hides it
+    void setCountdown(@Nullable String text) {
+        if (TextUtils.equals(mCountdown, text)) return;
+        boolean heightChanges = (mCountdown == null) != (text == null);
+        mCountdown = text;
+        if (heightChanges) {
+            requestLayout();
+        }
+        invalidateRegion(REGION_COUNTDOWN);
+    }
+
+    // copies the chars, the caller's buffer is reused
+    boolean setFare(char[] chars, int length) {
+        checkLength(length);
+        if (sameChars(mFareChars, mFareLength, chars, length)) return false;
+        System.arraycopy(chars, 0, mFareChars, 0, length);
+        mFareLength = length;
+        invalidateRegion(REGION_FARE);
+        return true;
+    }
+
+    // buttons beyond count are hidden and the rest share the row
+    void setAddonCount(int count) {
+        if (count == mAddonCount) return;
+        if ((count == 0) != (mAddonCount == 0)) {
+            requestLayout(); // the row appears or goes
+        }
+        mAddonCount = count;
+        layoutAddonTargets();
+        invalidateRegion(REGION_ADDONS);
+        mAccessibility.invalidateRoot(); // chips came or went
+    }
+
+    boolean setAddon(int index, char[] chars, int length) {
+        checkLength(length);
+        if (sameChars(mAddonChars[index], mAddonLengths[index], chars, length)) return false;
+        System.arraycopy(chars, 0, mAddonChars[index], 0, length);
+        mAddonLengths[index] = length;
+        invalidateRegion(REGION_ADDONS);
+        mAccessibility.invalidateVirtualView(index);
+        return true;
+    }
+
+    void setAddonSelected(int index, boolean selected) {
+        if (mAddonSelected[index] == selected) return;
+        mAddonSelected[index] = selected;
+        invalidateRegion(REGION_ADDONS);
+        mAccessibility.invalidateVirtualView(index);
+    }
+
+    // flat: opaque edge to edge, no margin, corners or shadow (see CardViewHolder.setFlat)
+    void setFlat(boolean flat) {
+        if (flat == mFlat) return;
+        mFlat = flat;
+        setElevation(flat ? 0f : mElevation);
+        mContentWidth = -1; // content gets the margin's width
+        requestLayout();
+        invalidateOutline();
+    }
+
+    boolean isFlat() {
+        return mFlat;
+    }
+
+    // --- Measure, layout ---
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED
+                ? getResources().getDisplayMetrics().widthPixels // background prewarm, the window is full width
+                : MeasureSpec.getSize(widthMeasureSpec);
+        int height = measureContent(width);
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        markAllDirty();
+        mAccessibility.invalidateRoot(); // targets moved
+    }
+
+    // builds stale layouts and stacks the regions; returns the card's full height
+    private int measureContent(int width) {
+        int padH = mFlat ? 0 : mPadH;
+        int padV = mFlat ? 0 : mPadV;
+        int contentWidth = Math.max(0, width - 2 * (padH + mBodyPad));
+        if (contentWidth != mContentWidth) {
+            mContentWidth = contentWidth;
+            mPickupLayout = mDropoffLayout = mDistanceLayout = mDurationLayout = null;
+            mCustomerLayout = mCarTypeLayout = null;
+            markAllDirty();
+        }
+        int half = contentWidth / 2;
+        if (mPickupLayout == null) mPickupLayout = layout(mPickup, mAddressPaint, contentWidth, 2);
+        if (mDropoffLayout == null) mDropoffLayout = layout(mDropoff, mAddressPaint, contentWidth, 2);
+        if (mDistanceLayout == null) mDistanceLayout = layout(mDistance, mValuePaint, half, 1);
+        if (mDurationLayout == null) mDurationLayout = layout(mDuration, mValuePaint, half, 1);
+        if (mCarTypeLayout == null) {
+            int carWidth = Math.min((int) Math.ceil(mCarTypePaint.measureText(mCarType, 0, mCarType.length())), half);
+            mCarTypeLayout = layout(mCarType, mCarTypePaint, carWidth, 1);
+        }
+        if (mCustomerLayout == null) {
+            mCustomerLayout = layout(mCustomer, mCustomerPaint, Math.max(0, contentWidth - pillWidth() - dp(8)), 1);
+        }
+
+        int label = lineHeight(mLabelPaint);
+        int divider = dp(20) + dp(1) + dp(20);
+        mRegionHeight[REGION_COUNTDOWN] = mCountdown != null ? lineHeight(mCountdownPaint) + dp(8) : 0;
+        mRegionHeight[REGION_ROUTE] = label + dp(4) + mPickupLayout.getHeight()
+                + dp(16) + label + dp(4) + mDropoffLayout.getHeight() + divider;
+        mRegionHeight[REGION_TRIP] = Math.max(mDistanceLayout.getHeight(), mDurationLayout.getHeight())
+                + lineHeight(mCaptionPaint) + divider;
+        mRegionHeight[REGION_FARE] = Math.max(lineHeight(mFarePaint), lineHeight(mLabelPaint));
+        mRegionHeight[REGION_ADDONS] = mAddonCount > 0 ? dp(16) + dp(40) : 0;
+        mRegionHeight[REGION_FOOTER] = dp(24) + Math.max(mCustomerLayout.getHeight(), pillHeight())
+                + dp(24) + dp(56);
+
+        mBodyTop = padV;
+        int y = mBodyTop + mBodyPad;
+        for (int i = 0; i < REGION_COUNT; i++) {
+            mRegionTop[i] = y;
+            y += mRegionHeight[i];
+        }
+        mBodyBottom = y + mBodyPad;
+        layoutAddonTargets();
+        layoutButtonTargets(width);
+        return mBodyBottom + padV;
+    }
+
+    private void layoutAddonTargets() {
+        if (mContentWidth < 0) return;
+        float gap = dp(8);
+        float chipWidth = mAddonCount > 0 ? (mContentWidth - gap * (mAddonCount - 1)) / mAddonCount : 0;
+        float top = mRegionTop[REGION_ADDONS] + dp(16);
+        float x = contentLeft();
+        for (int i = 0; i < FareModel.MAX_ADDONS; i++) {
+            if (i < mAddonCount) {
+                mTargets[i].set(x, top, x + chipWidth, top + dp(40));
+                x += chipWidth + gap;
+            } else {
+                mTargets[i].setEmpty();
+            }
+        }
+    }
+
+    private void layoutButtonTargets(int width) {
+        float top = mRegionTop[REGION_FOOTER] + mRegionHeight[REGION_FOOTER] - dp(56);
+        float left = contentLeft();
+        float declineWidth = mDeclinePaint.measureText("Decline") + 2 * dp(16);
+        mTargets[TARGET_IGNORE].set(left, top, left + declineWidth, top + dp(56));
+        mTargets[TARGET_ACCEPT].set(left + declineWidth + dp(8), top, width - contentLeft(), top + dp(56));
+    }
+
+    // --- Drawing ---
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        int width = getWidth();
+        mFillPaint.setColor(CARD_COLOR);
+        if (mFlat) {
+            canvas.drawRect(0, 0, width, getHeight(), mFillPaint);
+        } else {
+            canvas.drawRoundRect(mPadH, mBodyTop, width - mPadH, mBodyBottom, mCornerRadius, mCornerRadius, mFillPaint);
+        }
+        boolean nodes = mNodes != null && canvas.isHardwareAccelerated();
+        for (int i = 0; i < REGION_COUNT; i++) {
+            if (mRegionHeight[i] == 0) continue;
+            if (nodes) {
+                drawNode(canvas, i, width);
+            } else {
+                int save = canvas.save();
+                canvas.translate(0, mRegionTop[i]);
+                drawRegion(canvas, i, width);
+                canvas.restoreToCount(save);
+            }
+        }
+    }
+
+    // re-record a region only when its content changed, otherwise replay what it drew last time
+    private void drawNode(Canvas canvas, int region, int width) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) return;
+        RenderNode node = mNodes[region];
+        node.setPosition(0, mRegionTop[region], width, mRegionTop[region] + mRegionHeight[region]);
+        if (mDirty[region] || !node.hasDisplayList()) {
+            RecordingCanvas recording = node.beginRecording(width, mRegionHeight[region]);
+            try {
+                drawRegion(recording, region, width);
+            } finally {
+                node.endRecording();
+            }
+            mDirty[region] = false;
+        }
+        canvas.drawRenderNode(node);
+    }
+
+    // region-local coordinates, y = 0 at the region's top
+    private void drawRegion(Canvas canvas, int region, int width) {
+        float left = contentLeft();
+        float right = width - left;
+        int top = mRegionTop[region];
+        switch (region) {
+            case REGION_COUNTDOWN: {
+                float baseline = baseline(mCountdownPaint);
+                canvas.drawText(mCountdown, right, baseline, mCountdownPaint);
+                float textWidth = mCountdownPaint.measureText(mCountdown);
+                int save = canvas.save();
+                canvas.translate(right - textWidth - dp(4) - mClock.getBounds().width(),
+                        (lineHeight(mCountdownPaint) - mClock.getBounds().height()) / 2f);
+                mClock.draw(canvas);
+                canvas.restoreToCount(save);
+                break;
+            }
+            case REGION_ROUTE: {
+                float y = 0;
+                canvas.drawText("PICKUP", left, y + baseline(mLabelPaint), mLabelPaint);
+                y += lineHeight(mLabelPaint) + dp(4);
+                y = drawLayout(canvas, mPickupLayout, left, y);
+                y += dp(16);
+                canvas.drawText("DROPOFF", left, y + baseline(mLabelPaint), mLabelPaint);
+                y += lineHeight(mLabelPaint) + dp(4);
+                y = drawLayout(canvas, mDropoffLayout, left, y);
+                drawDivider(canvas, left, right, y + dp(20));
+                break;
+            }
+            case REGION_TRIP: {
+                float half = (right - left) / 2;
+                float valueHeight = Math.max(mDistanceLayout.getHeight(), mDurationLayout.getHeight());
+                drawCentered(canvas, mDistanceLayout, left + half / 2, 0);
+                drawCentered(canvas, mDurationLayout, left + half + half / 2, 0);
+                float captionBaseline = valueHeight + baseline(mCaptionPaint);
+                canvas.drawText("Distance", left + half / 2, captionBaseline, mCaptionPaint);
+                canvas.drawText("Duration", left + half + half / 2, captionBaseline, mCaptionPaint);
+                drawDivider(canvas, left, right, valueHeight + lineHeight(mCaptionPaint) + dp(20));
+                break;
+            }
+            case REGION_FARE: {
+                float height = mRegionHeight[REGION_FARE];
+                canvas.drawText("TOTAL FARE", left,
+                        (height - lineHeight(mLabelPaint)) / 2 + baseline(mLabelPaint), mLabelPaint);
+                canvas.drawText(mFareChars, 0, mFareLength, right,
+                        (height - lineHeight(mFarePaint)) / 2 + baseline(mFarePaint), mFarePaint);
+                break;
+            }
+            case REGION_ADDONS: {
+                float radius = dp(24);
+                for (int i = 0; i < mAddonCount; i++) {
+                    RectF chip = mTargets[i];
+                    float chipTop = chip.top - top;
+                    float chipBottom = chip.bottom - top;
+                    mFillPaint.setColor(mAddonSelected[i] ? PILL_SELECTED_COLOR : PILL_COLOR);
+                    canvas.drawRoundRect(chip.left, chipTop, chip.right, chipBottom, radius, radius, mFillPaint);
+                    if (mPressed == i) {
+                        mFillPaint.setColor(PRESSED_COLOR);
+                        canvas.drawRoundRect(chip.left, chipTop, chip.right, chipBottom, radius, radius, mFillPaint);
+                    }
+                    canvas.drawText(mAddonChars[i], 0, mAddonLengths[i], chip.centerX(),
+                            (chipTop + chipBottom - lineHeight(mChipPaint)) / 2 + baseline(mChipPaint), mChipPaint);
+                }
+                break;
+            }
+            case REGION_FOOTER: {
+                float rowHeight = Math.max(mCustomerLayout.getHeight(), pillHeight());
+                float y = dp(24);
+                drawLayout(canvas, mCustomerLayout, left, y + (rowHeight - mCustomerLayout.getHeight()) / 2);
+                if (mCarType.length() > 0) {
+                    float pillLeft = right - pillWidth();
+                    float pillTop = y + (rowHeight - pillHeight()) / 2;
+                    mFillPaint.setColor(PILL_COLOR);
+                    canvas.drawRoundRect(pillLeft, pillTop, right, pillTop + pillHeight(),
+                            pillHeight() / 2f, pillHeight() / 2f, mFillPaint);
+                    drawLayout(canvas, mCarTypeLayout, pillLeft + dp(12), pillTop + dp(6));
+                }
+                drawButton(canvas, TARGET_IGNORE, top, 0, "Decline", mDeclinePaint);
+                drawButton(canvas, TARGET_ACCEPT, top, ACCENT_COLOR, "Accept Ride", mAcceptPaint);
+                break;
+            }
+        }
+    }
+
+    private void drawButton(Canvas canvas, int target, int regionTop, int fill, String text, TextPaint paint) {
+        RectF bounds = mTargets[target];
+        float buttonTop = bounds.top - regionTop;
+        float buttonBottom = bounds.bottom - regionTop;
+        float radius = dp(20);
+        if (fill != 0) {
+            mFillPaint.setColor(fill);
+            canvas.drawRoundRect(bounds.left, buttonTop, bounds.right, buttonBottom, radius, radius, mFillPaint);
+        }
+        if (mPressed == target) {
+            mFillPaint.setColor(PRESSED_COLOR);
+            canvas.drawRoundRect(bounds.left, buttonTop, bounds.right, buttonBottom, radius, radius, mFillPaint);
+        }
+        canvas.drawText(text, bounds.centerX(),
+                (buttonTop + buttonBottom - lineHeight(paint)) / 2 + baseline(paint), paint);
+    }
+
+    private void drawDivider(Canvas canvas, float left, float right, float y) {
+        mFillPaint.setColor(DIVIDER_COLOR);
+        canvas.drawRect(left, y, right, y + dp(1), mFillPaint);
+    }
+
+    // returns the y below it
+    private static float drawLayout(Canvas canvas, Layout layout, float x, float y) {
+        int save = canvas.save();
+        canvas.translate(x, y);
+        layout.draw(canvas);
+        canvas.restoreToCount(save);
+        return y + layout.getHeight();
+    }
+
+    private static void drawCentered(Canvas canvas, Layout layout, float centerX, float y) {
+        float width = layout.getLineCount() > 0 ? layout.getLineWidth(0) : 0;
+        drawLayout(canvas, layout, centerX - width / 2, y);
+    }
+
+    // --- Touch ---
+
+    // touch exploration lands on the virtual views first
+    @Override
+    protected boolean dispatchHoverEvent(MotionEvent event) {
+        return mAccessibility.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                setPressedTarget(targetAt(event.getX(), event.getY()));
+                mDownX = event.getX();
+                mDownY = event.getY();
+                return mPressed != TARGET_NONE; // the card's own area isn't interactive
+            case MotionEvent.ACTION_MOVE:
+                if (mPressed != TARGET_NONE) {
+                    float dx = event.getX() - mDownX;
+                    float dy = event.getY() - mDownY;
+                    if (dx * dx + dy * dy > mTouchSlop * mTouchSlop
+                            && !mTargets[mPressed].contains(event.getX(), event.getY())) {
+                        setPressedTarget(TARGET_NONE); // slid off, no click
+                    }
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                int target = mPressed;
+                setPressedTarget(TARGET_NONE);
+                if (target != TARGET_NONE) {
+                    playSoundEffect(SoundEffectConstants.CLICK);
+                    click(target);
+                }
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                setPressedTarget(TARGET_NONE);
+                return true;
+        }
+        return false;
+    }
+
+    private void click(int target) {
+        if (mListener == null) return;
+        if (target == TARGET_ACCEPT) {
+            mListener.onAcceptClick();
+        } else if (target == TARGET_IGNORE) {
+            mListener.onIgnoreClick();
+        } else {
+            mListener.onAddonClick(target);
+        }
+    }
+
+    // what TalkBack reads for a target
+    private String describe(int target) {
+        if (target == TARGET_ACCEPT) return "Accept Ride";
+        if (target == TARGET_IGNORE) return "Decline";
+        return "Add-on " + new String(mAddonChars[target], 0, mAddonLengths[target]);
+    }
+
+    // card summary for the host node, so the driver hears what they'd accept
+    private String describeCard() {
+        StringBuilder sb = new StringBuilder(128);
+        if (mCountdown != null) sb.append("Expires in ").append(mCountdown).append(". ");
+        sb.append("Pickup ").append(mPickup).append(". Dropoff ").append(mDropoff).append(". ");
+        sb.append(mDistance).append(", ").append(mDuration).append(". ");
+        sb.append("Total fare ").append(mFareChars, 0, mFareLength).append(". ");
+        sb.append(mCustomer);
+        if (mCarType.length() > 0) sb.append(", ").append(mCarType);
+        return sb.toString();
+    }
+
+    // exposes mTargets as virtual views: chips are checkable, all of them click like a tap does
+    private final class CardAccessibility extends ExploreByTouchHelper {
+        private final Rect mBounds = new Rect();
+
+        CardAccessibility() {
+            super(TripCardView.this);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            int target = targetAt(x, y);
+            return target == TARGET_NONE ? HOST_ID : target;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            if (mContentWidth < 0) return; // not measured, no targets yet
+            for (int i = 0; i < mAddonCount; i++) {
+                virtualViewIds.add(i);
+            }
+            virtualViewIds.add(TARGET_IGNORE);
+            virtualViewIds.add(TARGET_ACCEPT);
+        }
+
+        @Override
+        protected void onPopulateNodeForHost(@NonNull AccessibilityNodeInfoCompat node) {
+            node.setContentDescription(describeCard());
+        }
+
+        @SuppressWarnings("deprecation") // ExploreByTouchHelper still requires bounds in parent
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId, @NonNull AccessibilityNodeInfoCompat node) {
+            node.setContentDescription(describe(virtualViewId));
+            node.setClassName(virtualViewId < FareModel.MAX_ADDONS
+                    ? "android.widget.ToggleButton" : "android.widget.Button");
+            if (virtualViewId < FareModel.MAX_ADDONS) {
+                node.setCheckable(true);
+                node.setChecked(mAddonSelected[virtualViewId]);
+            }
+            node.setClickable(true);
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+            mTargets[virtualViewId].roundOut(mBounds);
+            node.setBoundsInParent(mBounds);
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action, @Nullable Bundle arguments) {
+            if (action != AccessibilityNodeInfoCompat.ACTION_CLICK) return false;
+            click(virtualViewId);
+            sendEventForVirtualView(virtualViewId, AccessibilityEvent.TYPE_VIEW_CLICKED);
+            return true;
+        }
+    }
+
+    // hit area of an add-on chip, empty when hidden; view coordinates
+    @VisibleForTesting
+    RectF getAddonBounds(int index) {
+        return mTargets[index];
+    }
+
+    @VisibleForTesting
+    RectF getAcceptBounds() {
+        return mTargets[TARGET_ACCEPT];
+    }
+
+    private int targetAt(float x, float y) {
+        for (int i = 0; i < mTargets.length; i++) {
+            if (mTargets[i].contains(x, y)) return i;
+        }
+        return TARGET_NONE;
+    }
+
+    private void setPressedTarget(int target) {
+        if (target == mPressed) return;
+        invalidateRegion(regionOf(mPressed));
+        invalidateRegion(regionOf(target));
+        mPressed = target;
+    }
+
+    private static int regionOf(int target) {
+        if (target == TARGET_NONE) return -1;
+        return target < FareModel.MAX_ADDONS ? REGION_ADDONS : REGION_FOOTER;
+    }
+
+    // --- Invalidation ---
+
+    // re-measures when the height may have changed, otherwise only the region is redrawn
+    private void contentChanged(int region) {
+        if (mContentWidth < 0 || isLayoutRequested()) {
+            requestLayout();
+        } else {
+            int before = mBodyBottom;
+            measureContent(getWidth());
+            if (mBodyBottom != before) {
+                requestLayout();
+                markAllDirty(); // regions below moved; cheap, it's a height change anyway
+            }
+        }
+        invalidateRegion(region);
+    }
+
+    private void invalidateRegion(int region) {
+        if (region < 0) return;
+        mDirty[region] = true;
+        invalidate();
+    }
+
+    private void markAllDirty() {
+        for (int i = 0; i < REGION_COUNT; i++) {
+            mDirty[i] = true;
+        }
+    }
+
+    // --- Helpers ---
+
+    private float contentLeft() {
+        return (mFlat ? 0 : mPadH) + mBodyPad;
+    }
+
+    private int pillWidth() {
+        if (mCarType.length() == 0 || mCarTypeLayout == null) return 0;
+        return (int) Math.ceil(mCarTypeLayout.getLineWidth(0)) + 2 * dp(12);
+    }
+
+    private int pillHeight() {
+        return mCarType.length() == 0 ? 0 : lineHeight(mCarTypePaint) + 2 * dp(6);
+    }
+
+    private int dp(int value) {
+        return Math.round(value * mDensity);
+    }
+
+    private static StaticLayout layout(CharSequence text, TextPaint paint, int width, int maxLines) {
+        return StaticLayout.Builder.obtain(text, 0, text.length(), paint, Math.max(0, width))
+                .setMaxLines(maxLines)
+                .setEllipsize(TextUtils.TruncateAt.END)
+                .setIncludePad(false)
+                .build();
+    }
+
+    private static TextPaint textPaint(DisplayMetrics metrics, float sp, int color, Typeface typeface) {
+        TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        paint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, sp, metrics));
+        paint.setColor(color);
+        paint.setTypeface(typeface);
+        return paint;
+    }
+
+    private int lineHeight(Paint paint) {
+        paint.getFontMetricsInt(mFontMetrics);
+        return mFontMetrics.descent - mFontMetrics.ascent;
+    }
+
+    private float baseline(Paint paint) {
+        paint.getFontMetricsInt(mFontMetrics);
+        return -mFontMetrics.ascent;
+    }
+
+    private static boolean sameText(CharSequence current, @Nullable CharSequence text) {
+        return TextUtils.equals(current, text == null ? "" : text);
+    }
+
+    private static CharSequence nonNull(@Nullable CharSequence text) {
+        return text == null ? "" : text;
+    }
+
+    private static boolean sameChars(char[] current, int currentLength, char[] chars, int length) {
+        if (currentLength != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (current[i] != chars[i]) return false;
+        }
+        return true;
+    }
+
+    // amounts come from FareModel.formatRupees, which never writes more than this
+    private static void checkLength(int length) {
+        if (length < 0 || length > FareModel.FORMAT_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Amount text of " + length + " chars, at most "
+                    + FareModel.FORMAT_BUFFER_SIZE + " fit.");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.awesomeproject.core;
+
+// Distance and ETA from the driver to a pickup point, updated per location fix in O(1).
+// Distance is great-circle (haversine). Speed comes from consecutive fixes, smoothed with a
+// time-constant EWMA so irregular fix rates weigh the same, and floored so a red light doesn't
+// turn the ETA into hours. Fixes implying an impossible speed are GPS jumps and are skipped.
+// Pure Java, no Android types.
+final class TripEtaEstimator {
+
+    static final double EARTH_RADIUS_M = 6_371_008.8; // mean radius
+    static final double DEFAULT_SPEED_MPS = 6.0; // ~22 km/h city driving, until fixes say otherwise
+    static final double MIN_SPEED_MPS = 2.0;
+    static final double MAX_SPEED_MPS = 50.0; // 180 km/h between two fixes = bad fix
+    static final double SPEED_TIME_CONSTANT_MS = 10_000; // the smoothed speed forgets after ~10s
+    static final long NO_ETA = -1;
+
+    private final double mPickupLatRad;
+    private final double mPickupLngRad;
+    private final double mPickupCosLat; // reused by every distance to the pickup
+
+    private double mLastLatRad = Double.NaN; // last accepted fix
+    private double mLastLngRad;
+    private double mLastCosLat;
+    private long mLastTimeMs;
+    private double mSpeedMps = DEFAULT_SPEED_MPS;
+    private double mDistanceM = Double.NaN; // NaN until the first fix
+
+    TripEtaEstimator(double pickupLatitude, double pickupLongitude) {
+        mPickupLatRad = Math.toRadians(pickupLatitude);
+        mPickupLngRad = Math.toRadians(pickupLongitude);
+        mPickupCosLat = Math.cos(mPickupLatRad);
+    }
+
+    /**
+     * Feeds one location fix.
+     * @return false if it was dropped (out of order, or a jump no car can make).
+     */
+    boolean onSample(double latitude, double longitude, long timeMs) {
+        double latRad = Math.toRadians(latitude);
+        double lngRad = Math.toRadians(longitude);
+        double cosLat = Math.cos(latRad);
+
+        if (!Double.isNaN(mLastLatRad)) {
+            long dtMs = timeMs - mLastTimeMs;
+            if (dtMs <= 0) return false;
+            double movedM = haversine(mLastLatRad, mLastLngRad, mLastCosLat, latRad, lngRad, cosLat);
+            double speed = movedM * 1000.0 / dtMs;
+            if (speed > MAX_SPEED_MPS) return false;
+            double alpha = 1.0 - Math.exp(-dtMs / SPEED_TIME_CONSTANT_MS);
+            mSpeedMps += alpha * (speed - mSpeedMps);
+        }
+        mLastLatRad = latRad;
+        mLastLngRad = lngRad;
+        mLastCosLat = cosLat;
+        mLastTimeMs = timeMs;
+        mDistanceM = haversine(latRad, lngRad, cosLat, mPickupLatRad, mPickupLngRad, mPickupCosLat);
+        return true;
+    }
+
+    boolean hasFix() {
+        return !Double.isNaN(mDistanceM);
+    }
+
+    // metres to the pickup, NaN before the first fix
+    double getDistanceM() {
+        return mDistanceM;
+    }
+
+    double getSpeedMps() {
+        return mSpeedMps;
+    }
+
+    // whole seconds to the pickup at the smoothed speed, NO_ETA before the first fix
+    long getEtaSeconds() {
+        if (!hasFix()) return NO_ETA;
+        return Math.round(mDistanceM / Math.max(mSpeedMps, MIN_SPEED_MPS));
+    }
+
+    static double distanceM(double lat1, double lng1, double lat2, double lng2) {
+        double lat1Rad = Math.toRadians(lat1);
+        double lat2Rad = Math.toRadians(lat2);
+        return haversine(lat1Rad, Math.toRadians(lng1), Math.cos(lat1Rad),
+                lat2Rad, Math.toRadians(lng2), Math.cos(lat2Rad));
+    }
+
+    private static double haversine(double lat1, double lng1, double cosLat1,
+                                    double lat2, double lng2, double cosLat2) {
+        double sinDLat = Math.sin((lat2 - lat1) / 2);
+        double sinDLng = Math.sin((lng2 - lng1) / 2);
+        double a = sinDLat * sinDLat + cosLat1 * cosLat2 * sinDLng * sinDLng;
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,186 @@
+package com.awesomeproject.core;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Locale;
+
+// Keeps the distance/duration of cards with a pickup location current from local location fixes,
+// with no JS involved. Every fix goes into each card's TripEtaEstimator (cheap), but text is applied
+// at most once per MIN_APPLY_INTERVAL_MS, and only to cards whose rounded distance or minutes changed.
+// The location source only runs while some card is tracked. Clock and timer are injected like
+// OfferExpiryScheduler's, so this runs on the JVM. UI thread only.
+final class TripEtaUpdater implements LocationSource.Listener {
+
+    static final long MIN_APPLY_INTERVAL_MS = 1000;
+
+    // where a card's texts go, normally its two TextViews
+    interface Display {
+        void showEta(String distance, String duration);
+    }
+
+    private static final class Entry {
+        final Object key;
+        final double pickupLatitude;
+        final double pickupLongitude;
+        final TripEtaEstimator estimator;
+        Display display;
+        long shownDistanceM = -1; // rounded values last shown, -1 = the payload's text is still up
+        long shownMinutes = -1;
+
+        Entry(Object key, double pickupLatitude, double pickupLongitude, Display display) {
+            this.key = key;
+            this.pickupLatitude = pickupLatitude;
+            this.pickupLongitude = pickupLongitude;
+            this.estimator = new TripEtaEstimator(pickupLatitude, pickupLongitude);
+            this.display = display;
+        }
+    }
+
+    private LocationSource mSource;
+    private final OfferExpiryScheduler.Clock mClock; // monotonic ms, for throttling
+    private final OfferExpiryScheduler.Timer mTimer;
+    private final ArrayList<Entry> mEntries = new ArrayList<>();
+    private final Runnable mApply = this::apply;
+    private boolean mListening = false;
+    private boolean mApplyScheduled = false;
+    private long mLastApplyMs = Long.MIN_VALUE / 2;
+
+    TripEtaUpdater(LocationSource source, OfferExpiryScheduler.Clock clock, OfferExpiryScheduler.Timer timer) {
+        mSource = source;
+        mClock = clock;
+        mTimer = timer;
+    }
+
+    // swap where fixes come from, e.g. a replayed track; tracked cards keep their estimates
+    void setSource(LocationSource source) {
+        if (mListening) {
+            mSource.stop();
+            source.start(this);
+        }
+        mSource = source;
+    }
+
+    // start the source over, e.g. once a location permission was granted; no-op while nothing is tracked
+    void restartSource() {
+        setSource(mSource);
+    }
+
+    // start keeping key's texts current; a rebound card with the same pickup keeps its smoothed speed
+    void track(Object key, double pickupLatitude, double pickupLongitude, Display display) {
+        Entry entry = find(key);
+        if (entry != null && entry.pickupLatitude == pickupLatitude && entry.pickupLongitude == pickupLongitude) {
+            entry.display = display;
+            entry.shownDistanceM = -1; // the rebind put the payload's texts back, rewrite on the next fix
+            entry.shownMinutes = -1;
+            return;
+        }
+        remove(key);
+        mEntries.add(new Entry(key, pickupLatitude, pickupLongitude, display));
+        if (!mListening) {
+            mListening = true;
+            mSource.start(this);
+        }
+    }
+
+    void untrack(Object key) {
+        if (remove(key) && mEntries.isEmpty()) {
+            stop();
+        }
+    }
+
+    void release() {
+        mEntries.clear();
+        stop();
+    }
+
+    boolean isListening() {
+        return mListening;
+    }
+
+    @Override
+    public void onLocation(double latitude, double longitude, long timeMs) {
+        boolean accepted = false;
+        for (int i = 0; i < mEntries.size(); i++) {
+            accepted |= mEntries.get(i).estimator.onSample(latitude, longitude, timeMs);
+        }
+        if (!accepted || mApplyScheduled) return;
+        long wait = mLastApplyMs + MIN_APPLY_INTERVAL_MS - mClock.nowMs();
+        if (wait <= 0) {
+            apply();
+        } else {
+            mApplyScheduled = true; // trailing apply, the latest fix wins
+            mTimer.schedule(mApply, wait);
+        }
+    }
+
+    private void apply() {
+        mApplyScheduled = false;
+        mLastApplyMs = mClock.nowMs();
+        for (int i = 0; i < mEntries.size(); i++) {
+            Entry entry = mEntries.get(i);
+            if (!entry.estimator.hasFix()) continue;
+            long distanceM = roundDistanceM(entry.estimator.getDistanceM());
+            long minutes = etaMinutes(entry.estimator.getEtaSeconds());
+            if (distanceM == entry.shownDistanceM && minutes == entry.shownMinutes) continue;
+            entry.shownDistanceM = distanceM;
+            entry.shownMinutes = minutes;
+            entry.display.showEta(formatDistance(distanceM), formatMinutes(minutes));
+        }
+    }
+
+    @Nullable
+    private Entry find(Object key) {
+        for (int i = 0; i < mEntries.size(); i++) {
+            if (mEntries.get(i).key == key) return mEntries.get(i);
+        }
+        return null;
+    }
+
+    private boolean remove(Object key) {
+        for (int i = 0; i < mEntries.size(); i++) {
+            if (mEntries.get(i).key == key) {
+                mEntries.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void stop() {
+        if (mApplyScheduled) {
+            mTimer.cancel(mApply);
+            mApplyScheduled = false;
+        }
+        if (mListening) {
+            mListening = false;
+            mSource.stop();
+        }
+    }
+
+    // --- Text, rounded to what the card shows so tiny moves don't touch the views ---
+
+    // 50 m steps under 1 km, 100 m steps under 100 km, whole km beyond
+    static long roundDistanceM(double distanceM) {
+        long step = distanceM < 1000 ? 50 : distanceM < 100_000 ? 100 : 1000;
+        return Math.round(distanceM / step) * step;
+    }
+
+    // rounded up, an ETA of 20s is still "1 min"
+    static long etaMinutes(long etaSeconds) {
+        return Math.max(1, (etaSeconds + 59) / 60);
+    }
+
+    // "850 m", "4.2 km", "123 km", same style as the payload texts
+    static String formatDistance(long roundedM) {
+        if (roundedM < 1000) return roundedM + " m";
+        if (roundedM < 100_000) return String.format(Locale.US, "%.1f km", roundedM / 1000.0);
+        return (roundedM / 1000) + " km";
+    }
+
+    // "18 min", "1 h 5 min"
+    static String formatMinutes(long minutes) {
+        if (minutes < 60) return minutes + " min";
+        return (minutes / 60) + " h " + (minutes % 60) + " min";
+    }
+}
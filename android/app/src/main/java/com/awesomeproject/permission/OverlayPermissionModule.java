@@ -6,24 +6,40 @@ import android.net.Uri;
 import android.os.Build;
 import android.provider.Settings;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.facebook.react.bridge.ActivityEventListener;
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.BaseActivityEventListener;
+import com.facebook.react.bridge.LifecycleEventListener;
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
 
-public class OverlayPermissionModule extends ReactContextBaseJavaModule {
+import java.util.HashMap;
+import java.util.Map;
+
+// Answers from OverlayPermissionState's cache and pushes onOverlayPermissionChanged to JS,
+// so nobody has to ask before every show.
+public class OverlayPermissionModule extends ReactContextBaseJavaModule
+        implements LifecycleEventListener, OverlayPermissionState.Listener {
 
     private static final int OVERLAY_PERMISSION_REQUEST_CODE = 1234;
     private Promise mPromise;
     private final ReactApplicationContext mReactContext;
+    private final OverlayPermissionState mState;
 
     public OverlayPermissionModule(ReactApplicationContext reactContext) {
         super(reactContext);
         mReactContext = reactContext;
+        mState = OverlayPermissionState.get(reactContext);
+        mState.addListener(this);
         // listen for settings screen result
         mReactContext.addActivityEventListener(mActivityEventListener);
+        // re-check when the app comes back, the user may have been in settings
+        mReactContext.addLifecycleEventListener(this);
     }
 
     @NonNull
@@ -32,16 +48,19 @@ public class OverlayPermissionModule extends ReactContextBaseJavaModule {
         return "OverlayPermissionModule";
     }
 
-    // check if we can draw overlays
+    // state at module load, JS follows onOverlayPermissionChanged from there
+    @Nullable
+    @Override
+    public Map<String, Object> getConstants() {
+        Map<String, Object> constants = new HashMap<>();
+        constants.put("granted", mState.isGranted());
+        return constants;
+    }
+
+    // check if we can draw overlays, from the cache (always true before M)
     @ReactMethod
     public void checkOverlayPermission(Promise promise) {
-        // Android M+ needs explicit permission
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-            promise.resolve(Settings.canDrawOverlays(mReactContext));
-        } else {
-            // older Android, always okay
-            promise.resolve(true);
-        }
+        promise.resolve(mState.isGranted());
     }
 
     // ask user for overlay permission
@@ -50,8 +69,8 @@ public class OverlayPermissionModule extends ReactContextBaseJavaModule {
         mPromise = promise; // hold promise for later
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-            // check if permission already given
-            if (Settings.canDrawOverlays(mReactContext)) {
+            // check if permission already given, the real value since we're about to open settings over it
+            if (mState.refresh()) {
                 mPromise.resolve(null);
                 mPromise = null; // clean up promise
                 return;
@@ -81,20 +100,55 @@ public class OverlayPermissionModule extends ReactContextBaseJavaModule {
         public void onActivityResult(Activity activity, int requestCode, int resultCode, Intent data) {
             // is this our request?
             if (requestCode == OVERLAY_PERMISSION_REQUEST_CODE) {
+                // check again after user returns, also tells listeners if it changed
+                boolean granted = mState.refresh();
                 if (mPromise != null) {
                     if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                        // check again after user returns
-                        if (Settings.canDrawOverlays(mReactContext)) {
+                        if (granted) {
                             mPromise.resolve(null); // permission granted
                         } else {
                             mPromise.reject("E_PERMISSION_DENIED", "User denied overlay permission"); // permission denied
                         }
                     } else {
-                         mPromise.resolve(null); // older Android, always okay
+                        mPromise.resolve(null); // older Android, always okay
                     }
                     mPromise = null; // clean up promise
                 }
             }
         }
     };
+
+    // --- LifecycleEventListener Methods ---
+
+    @Override
+    public void onHostResume() {
+        mState.refresh(); // backstop, the op listener has usually seen the change already
+    }
+
+    @Override
+    public void onHostPause() {
+    }
+
+    @Override
+    public void onHostDestroy() {
+    }
+
+    // --- OverlayPermissionState.Listener Methods ---
+
+    @Override
+    public void onOverlayPermissionChanged(boolean granted) {
+        if (!mReactContext.hasActiveReactInstance()) return;
+        WritableMap params = Arguments.createMap();
+        params.putBoolean("granted", granted);
+        mReactContext
+                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                .emit("onOverlayPermissionChanged", params);
+    }
+
+    @Override
+    public void invalidate() {
+        mState.removeListener(this); // the state outlives this React instance
+        mReactContext.removeLifecycleEventListener(this);
+        super.invalidate();
+    }
 }
@@ -0,0 +1,110 @@
+package com.awesomeproject.permission;
+
+import android.Manifest;
+import android.app.AppOpsManager;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Process-wide cache of "can we draw overlays", so a show doesn't pay an IPC to system services.
+// Pushed, not polled: an AppOps listener fires when the user flips the switch in settings, and
+// refresh() re-checks on resume and after the settings screen returns in case a change was missed.
+// isGranted() is a field read, safe from any thread; listeners run on the UI thread, only on changes.
+public final class OverlayPermissionState {
+
+    public interface Listener {
+        void onOverlayPermissionChanged(boolean granted);
+    }
+
+    // reads the real permission, an IPC
+    interface Checker {
+        boolean check();
+    }
+
+    private static OverlayPermissionState sInstance;
+
+    private final Checker mChecker;
+    private final CopyOnWriteArrayList<Listener> mListeners = new CopyOnWriteArrayList<>();
+    private volatile boolean mGranted;
+
+    public static synchronized OverlayPermissionState get(Context context) {
+        if (sInstance == null) {
+            Context app = context.getApplicationContext();
+            sInstance = new OverlayPermissionState(() -> checkNow(app));
+            sInstance.watch(app);
+        }
+        return sInstance;
+    }
+
+    // Robolectric gives every test a fresh Application, the cached instance would hold the old one
+    @VisibleForTesting
+    public static synchronized void resetForTesting() {
+        sInstance = null;
+    }
+
+    @VisibleForTesting
+    OverlayPermissionState(Checker checker) {
+        mChecker = checker;
+        mGranted = checker.check();
+    }
+
+    public boolean isGranted() {
+        return mGranted;
+    }
+
+    public void addListener(Listener listener) {
+        mListeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        mListeners.remove(listener);
+    }
+
+    // re-read the permission and tell listeners if it changed; UI thread
+    public boolean refresh() {
+        boolean granted = mChecker.check();
+        if (granted != mGranted) {
+            mGranted = granted;
+            for (Listener listener : mListeners) {
+                listener.onOverlayPermissionChanged(granted);
+            }
+        }
+        return granted;
+    }
+
+    // the op listener can come in on a binder thread, the re-check is posted to the UI thread
+    private void watch(Context app) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) return; // granted at install
+        AppOpsManager appOps = (AppOpsManager) app.getSystemService(Context.APP_OPS_SERVICE);
+        if (appOps == null) return;
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        String packageName = app.getPackageName();
+        appOps.startWatchingMode(AppOpsManager.OPSTR_SYSTEM_ALERT_WINDOW, packageName, (op, changedPackage) -> {
+            if (packageName.equals(changedPackage)) {
+                mainHandler.post(this::refresh);
+            }
+        });
+    }
+
+    // Settings.canDrawOverlays can lag behind the op change on O, so read the op itself; default mode
+    // falls back to the manifest grant like canDrawOverlays does
+    @SuppressWarnings("deprecation")
+    private static boolean checkNow(Context app) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) return true;
+        AppOpsManager appOps = (AppOpsManager) app.getSystemService(Context.APP_OPS_SERVICE);
+        int mode = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                ? appOps.unsafeCheckOpNoThrow(AppOpsManager.OPSTR_SYSTEM_ALERT_WINDOW, Process.myUid(), app.getPackageName())
+                : appOps.checkOpNoThrow(AppOpsManager.OPSTR_SYSTEM_ALERT_WINDOW, Process.myUid(), app.getPackageName());
+        if (mode == AppOpsManager.MODE_DEFAULT) {
+            return app.checkSelfPermission(Manifest.permission.SYSTEM_ALERT_WINDOW) == PackageManager.PERMISSION_GRANTED;
+        }
+        return mode == AppOpsManager.MODE_ALLOWED;
+    }
+}
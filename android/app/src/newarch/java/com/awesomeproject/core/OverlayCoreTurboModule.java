@@ -0,0 +1,151 @@
+package com.awesomeproject.core;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+
+// TurboModule face of the overlay, spec in modules/NativeOverlayCore.ts (NativeOverlayCoreSpec is
+// generated from it, new architecture builds only, hence src/newarch). Calls come through JSI instead
+// of the bridge queue, and the post* methods skip the promise entirely. Everything behind the call
+// (service binding, decoding, UI thread hop, events) is the same as OverlayCoreModule's, so this
+// forwards to the context's OverlayCoreModule. Not a private instance: the host service has one client,
+// and two per context would each take it from the other (and JS would get every event twice).
+public class OverlayCoreTurboModule extends NativeOverlayCoreSpec {
+
+    private OverlayCoreModule mCore; // looked up once; the module registry initializes and invalidates it
+
+    public OverlayCoreTurboModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+
+    @Override
+    public void initialize() {
+        super.initialize();
+        mCore = getReactApplicationContext().getNativeModule(OverlayCoreModule.class);
+        if (mCore == null) {
+            throw new IllegalStateException("OverlayCoreModule not registered, OverlayCorePackage adds it.");
+        }
+    }
+
+    @Override
+    public void prewarm(Promise promise) {
+        mCore.prewarm(promise);
+    }
+
+    @Override
+    public void showOverlay(ReadableMap data, Promise promise) {
+        mCore.showOverlay(data, promise);
+    }
+
+    @Override
+    public void transitionOverlay(ReadableMap data, Promise promise) {
+        mCore.transitionOverlay(data, promise);
+    }
+
+    @Override
+    public void setLowOverdrawMode(boolean enabled, Promise promise) {
+        mCore.setLowOverdrawMode(enabled, promise);
+    }
+
+    @Override
+    public void refreshLocationAccess(Promise promise) {
+        mCore.refreshLocationAccess(promise);
+    }
+
+    @Override
+    public void hideOverlay(Promise promise) {
+        mCore.hideOverlay(promise);
+    }
+
+    @Override
+    public void updateOverlay(ReadableMap data, Promise promise) {
+        mCore.updateOverlay(data, promise);
+    }
+
+    @Override
+    public void showOverlayWindow(String id, ReadableMap data, Promise promise) {
+        mCore.showOverlayWindow(id, data, promise);
+    }
+
+    @Override
+    public void transitionOverlayWindow(String id, ReadableMap data, Promise promise) {
+        mCore.transitionOverlayWindow(id, data, promise);
+    }
+
+    @Override
+    public void updateOverlayWindow(String id, ReadableMap data, Promise promise) {
+        mCore.updateOverlayWindow(id, data, promise);
+    }
+
+    @Override
+    public void hideOverlayWindow(String id, Promise promise) {
+        mCore.hideOverlayWindow(id, promise);
+    }
+
+    @Override
+    public void applyOverlayBatch(ReadableArray ops, Promise promise) {
+        mCore.applyOverlayBatch(ops, promise);
+    }
+
+    @Override
+    public void getOverlayIds(Promise promise) {
+        mCore.getOverlayIds(promise);
+    }
+
+    // --- Fire-and-forget ---
+
+    @Override
+    public void postOverlayUpdate(String id, ReadableMap data) {
+        mCore.postOverlayUpdate(id, data);
+    }
+
+    @Override
+    public void postBadgeCount(String id, double badgeCount) {
+        mCore.postBadgeCount(id, badgeCount);
+    }
+
+    @Override
+    public void postCardTrip(String id, @Nullable String distance, @Nullable String duration) {
+        mCore.postCardTrip(id, distance, duration);
+    }
+
+    // --- Offers, stats ---
+
+    @Override
+    public void enqueueOffer(ReadableMap data, Promise promise) {
+        mCore.enqueueOffer(data, promise);
+    }
+
+    @Override
+    public void removeOffer(String offerId, Promise promise) {
+        mCore.removeOffer(offerId, promise);
+    }
+
+    @Override
+    public void clearOffers(Promise promise) {
+        mCore.clearOffers(promise);
+    }
+
+    @Override
+    public void getEventStats(Promise promise) {
+        mCore.getEventStats(promise);
+    }
+
+    @Override
+    public void getOverlayMetrics(Promise promise) {
+        mCore.getOverlayMetrics(promise);
+    }
+
+    @Override
+    public void resetOverlayMetrics(Promise promise) {
+        mCore.resetOverlayMetrics(promise);
+    }
+
+    @Override
+    public void getOverlayState(Promise promise) {
+        mCore.getOverlayState(promise);
+    }
+}
@@ -0,0 +1,35 @@
+package com.awesomeproject.core;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.BaseReactPackage;
+import com.facebook.react.bridge.NativeModule;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.module.model.ReactModuleInfo;
+import com.facebook.react.module.model.ReactModuleInfoProvider;
+
+import java.util.Collections;
+
+// New architecture half of OverlayCorePackage: registers the TurboModule, which only exists here
+// because its codegen spec is only generated for these builds. src/oldarch has one that registers nothing.
+final class OverlayCoreTurboPackage extends BaseReactPackage {
+
+    // TurboModuleRegistry name in modules/NativeOverlayCore.ts, same as NativeOverlayCoreSpec.NAME
+    static final String NAME = "OverlayCore";
+
+    @Nullable
+    @Override
+    public NativeModule getModule(String name, ReactApplicationContext reactContext) {
+        return NAME.equals(name) ? new OverlayCoreTurboModule(reactContext) : null;
+    }
+
+    @Override
+    public ReactModuleInfoProvider getReactModuleInfoProvider() {
+        return () -> Collections.singletonMap(NAME, new ReactModuleInfo(
+                NAME, OverlayCoreTurboModule.class.getName(),
+                false, // canOverrideExistingModule
+                false, // needsEagerInit
+                false, // isCxxModule
+                true)); // isTurboModule
+    }
+}
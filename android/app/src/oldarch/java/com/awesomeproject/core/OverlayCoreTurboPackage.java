@@ -0,0 +1,26 @@
+package com.awesomeproject.core;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.BaseReactPackage;
+import com.facebook.react.bridge.NativeModule;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.module.model.ReactModuleInfoProvider;
+
+import java.util.Collections;
+
+// Old architecture half of OverlayCorePackage: no codegen spec, so no TurboModule to register.
+// JS finds no "OverlayCore" in TurboModuleRegistry and uses OverlayCoreModule. See src/newarch.
+final class OverlayCoreTurboPackage extends BaseReactPackage {
+
+    @Nullable
+    @Override
+    public NativeModule getModule(String name, ReactApplicationContext reactContext) {
+        return null;
+    }
+
+    @Override
+    public ReactModuleInfoProvider getReactModuleInfoProvider() {
+        return Collections::emptyMap;
+    }
+}
@@ -0,0 +1,87 @@
+package com.awesomeproject.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DecisionJournalTest {
+
+    private File mFile;
+    private DecisionJournal mJournal;
+
+    @Before
+    public void setUp() throws IOException {
+        mFile = File.createTempFile("decisions", ".log");
+        //noinspection ResultOfMethodCallIgnored
+        mFile.delete();
+        mJournal = new DecisionJournal(mFile, Runnable::run); // io runs inline
+    }
+
+    @After
+    public void tearDown() {
+        //noinspection ResultOfMethodCallIgnored
+        mFile.delete();
+    }
+
+    @Test
+    public void drainReturnsAppendsInOrderAndClears() {
+        mJournal.append(new DecisionJournal.Decision(1000, "onTripAccepted", "o1", 185.5));
+        mJournal.append(new DecisionJournal.Decision(2000, "onTripIgnored", null, Double.NaN));
+
+        List<DecisionJournal.Decision> drained = drain();
+        assertEquals(2, drained.size());
+        assertEquals("o1", drained.get(0).offerId);
+        assertEquals(185.5, drained.get(0).finalFare, 0);
+        assertEquals("onTripIgnored", drained.get(1).eventName);
+        assertNull(drained.get(1).offerId);
+        assertTrue(Double.isNaN(drained.get(1).finalFare));
+
+        assertFalse(mFile.exists());
+        assertEquals(0, drain().size());
+    }
+
+    @Test
+    public void tornLastLineIsSkipped() throws IOException {
+        mJournal.append(new DecisionJournal.Decision(1000, "onTripExpired", "o1", Double.NaN));
+        try (FileOutputStream out = new FileOutputStream(mFile, true)) {
+            out.write("2000\tonTripAcc".getBytes(StandardCharsets.UTF_8)); // killed mid-write
+        }
+        List<DecisionJournal.Decision> drained = drain();
+        assertEquals(1, drained.size());
+        assertEquals("onTripExpired", drained.get(0).eventName);
+    }
+
+    @Test
+    public void lineFormatEscapesSeparators() {
+        DecisionJournal.Decision decision = new DecisionJournal.Decision(5, "onTripAccepted", "a\tb\\c\nd", 1);
+        DecisionJournal.Decision decoded = DecisionJournal.decode(DecisionJournal.encode(decision));
+        assertEquals("a\tb\\c\nd", decoded.offerId);
+        assertNull(DecisionJournal.decode("not a decision"));
+        assertNull(DecisionJournal.decode("x\tonTripAccepted\t\t"));
+    }
+
+    @Test
+    public void onlyTripOutcomesAreDecisions() {
+        assertTrue(DecisionJournal.isDecision("onTripAccepted"));
+        assertTrue(DecisionJournal.isDecision("onTripExpired"));
+        assertFalse(DecisionJournal.isDecision("onBubbleMoved"));
+    }
+
+    private List<DecisionJournal.Decision> drain() {
+        ArrayList<DecisionJournal.Decision> out = new ArrayList<>();
+        mJournal.drain(out::addAll);
+        return out;
+    }
+}
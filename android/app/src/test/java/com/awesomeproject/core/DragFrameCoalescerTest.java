@@ -0,0 +1,109 @@
+package com.awesomeproject.core;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+// Replays a recorded-style drag (many touch samples per display frame) with vsync driven by hand.
+public class DragFrameCoalescerTest {
+
+    @Test
+    public void oneLayoutPerFrameLatestWins() {
+        Recorder target = new Recorder();
+        ManualCoalescer coalescer = new ManualCoalescer(target);
+        // 120 Hz touch on a 60 Hz display: two samples per frame, plus a burst of five in the last one
+        int x = 0;
+        for (int frame = 0; frame < 10; frame++) {
+            int samples = frame == 9 ? 5 : 2;
+            for (int s = 0; s < samples; s++) {
+                coalescer.submit(x, x / 2);
+                x += 3;
+            }
+            coalescer.vsync();
+        }
+        assertEquals(23, coalescer.getSubmitCount());
+        assertEquals(10, coalescer.getApplyCount());
+        assertEquals(10, target.moves);
+        assertEquals(x - 3, target.lastX);
+        assertEquals((x - 3) / 2, target.lastY);
+    }
+
+    @Test
+    public void flushNowAppliesImmediatelyAndCancelsTheFrame() {
+        Recorder target = new Recorder();
+        ManualCoalescer coalescer = new ManualCoalescer(target);
+        coalescer.submit(10, 20);
+        coalescer.flushNow();
+        assertEquals(1, target.moves);
+        assertEquals(0, coalescer.posted);
+        coalescer.vsync(); // nothing pending any more
+        assertEquals(1, target.moves);
+    }
+
+    @Test
+    public void cancelDropsThePendingPosition() {
+        Recorder target = new Recorder();
+        ManualCoalescer coalescer = new ManualCoalescer(target);
+        coalescer.submit(10, 20);
+        coalescer.cancel();
+        coalescer.vsync();
+        assertEquals(0, target.moves);
+        assertEquals(0, coalescer.posted);
+    }
+
+    @Test
+    public void targetSeesTheVsyncTimeOfItsFrame() {
+        long[] seen = new long[2];
+        ManualCoalescer[] holder = new ManualCoalescer[1];
+        holder[0] = new ManualCoalescer((x, y) -> seen[x] = holder[0].getFrameTimeNanos());
+        holder[0].submit(0, 0);
+        holder[0].vsync(16_000_000L);
+        holder[0].submit(1, 0);
+        holder[0].flushNow(); // not a frame, nothing to measure against
+        assertEquals(16_000_000L, seen[0]);
+        assertEquals(0, seen[1]);
+        assertEquals(0, holder[0].getFrameTimeNanos());
+    }
+
+    private static final class Recorder implements DragFrameCoalescer.Target {
+        int moves;
+        int lastX, lastY;
+
+        @Override
+        public void moveTo(int x, int y) {
+            moves++;
+            lastX = x;
+            lastY = y;
+        }
+    }
+
+    // frames are posted into a counter and delivered by vsync()
+    private static final class ManualCoalescer extends DragFrameCoalescer {
+        int posted;
+
+        ManualCoalescer(Target target) {
+            super(target);
+        }
+
+        @Override
+        void postFrame() {
+            posted++;
+        }
+
+        @Override
+        void removeFrame() {
+            posted--;
+        }
+
+        void vsync() {
+            vsync(0);
+        }
+
+        void vsync(long frameTimeNanos) {
+            if (posted > 0) {
+                posted--;
+                doFrame(frameTimeNanos);
+            }
+        }
+    }
+}
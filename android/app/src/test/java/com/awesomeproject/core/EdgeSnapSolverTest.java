@@ -0,0 +1,75 @@
+package com.awesomeproject.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class EdgeSnapSolverTest {
+
+    private static final float FRAME_S = 1f / 60f;
+
+    @Test
+    public void pickEdgeX_flingWinsOverPosition() {
+        assertEquals(0, EdgeSnapSolver.pickEdgeX(900, -2000, 0, 1000, 100));
+        assertEquals(1000, EdgeSnapSolver.pickEdgeX(100, 2000, 0, 1000, 100));
+    }
+
+    @Test
+    public void pickEdgeX_slowReleaseGoesToNearestEdge() {
+        assertEquals(0, EdgeSnapSolver.pickEdgeX(499, 50, 0, 1000, 100));
+        assertEquals(1000, EdgeSnapSolver.pickEdgeX(501, -50, 0, 1000, 100));
+    }
+
+    @Test
+    public void clamp_pinsToTopWhenBoundsInvert() {
+        assertEquals(10, EdgeSnapSolver.clamp(-5, 10, 20));
+        assertEquals(20, EdgeSnapSolver.clamp(50, 10, 20));
+        assertEquals(10, EdgeSnapSolver.clamp(50, 10, 5));
+    }
+
+    @Test
+    public void settlesOnTheEdgeWithinHalfASecond() {
+        EdgeSnapSolver solver = new EdgeSnapSolver();
+        solver.start(300, 600, 0, 0, 0, 1000, 0, 2000, 100);
+        int frames = 0;
+        while (!solver.step(FRAME_S)) {
+            frames++;
+            assertTrue("did not settle", frames < 30);
+        }
+        assertEquals(0, solver.getX());
+        assertEquals(600, solver.getY());
+        assertTrue(solver.isSettled());
+    }
+
+    @Test
+    public void verticalFlingIsProjectedAndClamped() {
+        EdgeSnapSolver solver = new EdgeSnapSolver();
+        solver.start(800, 100, 0, 10000, 0, 1000, 0, 500, 100);
+        assertEquals(1000, solver.getTargetX());
+        assertEquals(500, solver.getTargetY()); // 100 + 10000 * 0.12 clamped
+    }
+
+    @Test
+    public void longFramesStayStable() {
+        SpringSolver spring = new SpringSolver(500f, 0.9f);
+        spring.start(0, 0, 1000);
+        for (int i = 0; i < 20 && !spring.isSettled(); i++) {
+            spring.step(0.25f); // a janky quarter-second frame
+            assertTrue(Math.abs(spring.getPosition()) < 5000);
+        }
+        assertTrue(spring.isSettled());
+        assertEquals(1000f, spring.getPosition(), 0f);
+    }
+
+    @Test
+    public void stopHaltsImmediately() {
+        EdgeSnapSolver solver = new EdgeSnapSolver();
+        solver.start(300, 600, 0, 0, 0, 1000, 0, 2000, 100);
+        solver.step(FRAME_S);
+        assertFalse(solver.isSettled());
+        solver.stop();
+        assertTrue(solver.isSettled());
+    }
+}
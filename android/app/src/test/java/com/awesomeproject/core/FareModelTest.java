@@ -0,0 +1,125 @@
+package com.awesomeproject.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class FareModelTest {
+
+    @Test
+    public void parsePaise_acceptsWhatJsSends() {
+        assertEquals(12000, FareModel.parsePaise("₹120"));
+        assertEquals(12000, FareModel.parsePaise("120"));
+        assertEquals(12050, FareModel.parsePaise("₹120.5"));
+        assertEquals(12055, FareModel.parsePaise("120.55"));
+        assertEquals(123456, FareModel.parsePaise("₹1,234.56"));
+        assertEquals(1234, FareModel.parsePaise("12.345")); // extra decimals dropped, not rounded
+        assertEquals(0, FareModel.parsePaise("0"));
+        assertEquals(125000, FareModel.parsePaise("₹ 1,250"));
+        assertEquals(2500, FareModel.parsePaise("+₹25")); // add-on amounts
+        assertEquals(99_999_999_999_999_900L, FareModel.parsePaise("999999999999999"));
+    }
+
+    @Test
+    public void parsePaise_rejectsGarbage() {
+        assertEquals(FareModel.INVALID, FareModel.parsePaise(null));
+        assertEquals(FareModel.INVALID, FareModel.parsePaise(""));
+        assertEquals(FareModel.INVALID, FareModel.parsePaise("₹"));
+        assertEquals(FareModel.INVALID, FareModel.parsePaise("free"));
+        assertEquals(FareModel.INVALID, FareModel.parsePaise("1.2.3"));
+        assertEquals(FareModel.INVALID, FareModel.parsePaise("-50"));
+        assertEquals(FareModel.INVALID, FareModel.parsePaise("₹-50"));
+        assertEquals(FareModel.INVALID, FareModel.parsePaise("++5"));
+        assertEquals(FareModel.INVALID, FareModel.parsePaise("12abc"));
+        assertEquals(FareModel.INVALID, FareModel.parsePaise("1234567890123456")); // past MAX_RUPEE_DIGITS
+    }
+
+    @Test
+    public void rupeeConversion_roundTrips() {
+        assertEquals(1050, FareModel.rupeesToPaise(10.5));
+        assertEquals(1, FareModel.rupeesToPaise(0.005)); // rounds, doesn't truncate
+        assertEquals(10.5, FareModel.paiseToRupees(1050), 0.0);
+    }
+
+    @Test
+    public void formatRupees_roundsToWholeRupees() {
+        char[] out = new char[FareModel.FORMAT_BUFFER_SIZE];
+        assertEquals("₹121", format(12050, false, out));
+        assertEquals("₹120", format(12049, false, out));
+        assertEquals("+₹5", format(500, true, out));
+        assertEquals("-₹5", format(-500, true, out));
+        assertEquals("₹0", format(0, false, out));
+        assertEquals("₹92233720368547757", format(Long.MAX_VALUE - 100, false, out));
+    }
+
+    @Test
+    public void addons_stackUpToTheCap() {
+        FareModel fare = new FareModel();
+        fare.reset(10000);
+        fare.toggleAddon(0); // +5
+        fare.toggleAddon(1); // +10
+        assertEquals(11500, fare.getTotalPaise());
+
+        fare.toggleAddon(3); // +20
+        fare.toggleAddon(4); // +25, 60 total but capped at 50
+        assertEquals(15000, fare.getTotalPaise());
+
+        fare.toggleAddon(4);
+        assertEquals(13500, fare.getTotalPaise());
+        assertFalse(fare.isSelected(4));
+    }
+
+    @Test
+    public void addons_singleModeKeepsOneSelection() {
+        FareModel fare = new FareModel();
+        fare.reset(10000, FareModel.DEFAULT_ADDONS_PAISE, 5, -1, false);
+        fare.toggleAddon(0);
+        fare.toggleAddon(2);
+        assertFalse(fare.isSelected(0));
+        assertTrue(fare.isSelected(2));
+        assertEquals(11500, fare.getTotalPaise());
+
+        fare.toggleAddon(2); // tapping the selected one clears it
+        assertEquals(10000, fare.getTotalPaise());
+    }
+
+    @Test
+    public void addons_customAmountsAndOutOfRangeToggles() {
+        FareModel fare = new FareModel();
+        fare.reset(5000, new long[] {2000, 4000}, 2, -1, true); // no cap
+        fare.toggleAddon(0);
+        fare.toggleAddon(1);
+        fare.toggleAddon(3); // no such button, ignored
+        assertEquals(2, fare.getAddonCount());
+        assertEquals(11000, fare.getTotalPaise());
+    }
+
+    @Test
+    public void reset_clearsSelectionAndNegativeBase() {
+        FareModel fare = new FareModel();
+        fare.reset(10000);
+        fare.toggleAddon(0);
+        fare.reset(-100);
+        assertEquals(0, fare.getTotalPaise());
+        assertFalse(fare.isSelected(0));
+    }
+
+    @Test
+    public void hasInputs_matchesOnlyTheSameFare() {
+        FareModel fare = new FareModel();
+        long[] addons = {2000, 4000};
+        fare.reset(5000, addons, 2, 5000, true);
+        assertTrue(fare.hasInputs(5000, new long[] {2000, 4000}, 2, 5000, true));
+        assertFalse(fare.hasInputs(6000, addons, 2, 5000, true));
+        assertFalse(fare.hasInputs(5000, new long[] {2000, 4500}, 2, 5000, true));
+        assertFalse(fare.hasInputs(5000, addons, 1, 5000, true));
+        assertFalse(fare.hasInputs(5000, addons, 2, -1, true));
+        assertFalse(fare.hasInputs(5000, addons, 2, 5000, false));
+    }
+
+    private static String format(long paise, boolean plus, char[] out) {
+        return new String(out, 0, FareModel.formatRupees(paise, plus, out));
+    }
+}
@@ -0,0 +1,122 @@
+package com.awesomeproject.core;
+
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Locale;
+
+// Small JMH-style harness for the overlay hot paths: warm up, then time several measured rounds and take
+// the median, and count bytes allocated on the calling thread (HotSpot's ThreadMXBean) per operation.
+// Results are printed and appended to <overlay.benchmarkDir>/<suite>.txt; assertWithin() fails the
+// test, and so the build, when a limit is exceeded. Time limits scale with -Doverlay.benchmarkSlack.
+final class MicroBenchmark {
+
+    interface Op {
+        // i is the iteration, handy for varying inputs; write results to sink so the JIT keeps the work
+        void run(int i);
+    }
+
+    static final class Result {
+        final String name;
+        final int iterations;
+        final double nsPerOp;
+        final double bytesPerOp; // NaN when the JVM can't count allocations
+
+        Result(String name, int iterations, double nsPerOp, double bytesPerOp) {
+            this.name = name;
+            this.iterations = iterations;
+            this.nsPerOp = nsPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-44s %12.1f ns/op %10s B/op  (%d ops)",
+                    name, nsPerOp, Double.isNaN(bytesPerOp) ? "n/a" : String.format(Locale.US, "%.1f", bytesPerOp),
+                    iterations);
+        }
+    }
+
+    static volatile long sink; // blackhole
+
+    private static final int ROUNDS = 5;
+
+    private MicroBenchmark() {}
+
+    static Result run(String name, int warmupIterations, int iterations, Op op) {
+        for (int i = 0; i < warmupIterations; i++) {
+            op.run(i);
+        }
+        double[] rounds = new double[ROUNDS];
+        long allocatedBefore = allocatedBytes();
+        for (int r = 0; r < ROUNDS; r++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                op.run(i);
+            }
+            rounds[r] = (System.nanoTime() - start) / (double) iterations;
+        }
+        long allocatedAfter = allocatedBytes();
+        Arrays.sort(rounds);
+        double bytesPerOp = allocatedBefore < 0 || allocatedAfter < 0
+                ? Double.NaN
+                : (allocatedAfter - allocatedBefore) / (double) (ROUNDS * (long) iterations);
+        return new Result(name, iterations, rounds[ROUNDS / 2], bytesPerOp);
+    }
+
+    // fail if slower than maxNsPerOp (times slack) or allocating more than maxBytesPerOp
+    static void assertWithin(Result result, double maxNsPerOp, double maxBytesPerOp) {
+        double limit = maxNsPerOp * slack();
+        if (result.nsPerOp > limit) {
+            fail(String.format(Locale.US, "%s regressed: %.1f ns/op, limit %.1f", result.name, result.nsPerOp, limit));
+        }
+        // whole bytes, the allocation counter itself costs a few bytes spread over every op
+        if (!Double.isNaN(result.bytesPerOp) && Math.round(result.bytesPerOp) > maxBytesPerOp) {
+            fail(String.format(Locale.US, "%s allocates: %.1f B/op, limit %.1f",
+                    result.name, result.bytesPerOp, maxBytesPerOp));
+        }
+    }
+
+    static void report(String suite, Result... results) {
+        StringBuilder sb = new StringBuilder();
+        for (Result result : results) {
+            sb.append(result).append('\n');
+        }
+        System.out.print(sb);
+        String dir = System.getProperty("overlay.benchmarkDir");
+        if (dir == null) return;
+        File out = new File(dir, suite + ".txt");
+        //noinspection ResultOfMethodCallIgnored
+        out.getParentFile().mkdirs();
+        try (PrintWriter writer = new PrintWriter(new FileWriter(out, true))) {
+            writer.print(sb);
+        } catch (IOException e) {
+            System.err.println("Could not write benchmark report " + out + ": " + e);
+        }
+    }
+
+    private static double slack() {
+        try {
+            return Double.parseDouble(System.getProperty("overlay.benchmarkSlack", "1.0"));
+        } catch (NumberFormatException e) {
+            return 1.0;
+        }
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+            if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,106 @@
+package com.awesomeproject.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class OfferExpirySchedulerTest {
+
+    @Test
+    public void delayUntilNextWake() {
+        assertEquals(OfferExpiryScheduler.NO_WAKE, OfferExpiryScheduler.delayUntilNextWake(0, 0, true));
+        assertEquals(0, OfferExpiryScheduler.delayUntilNextWake(5000, 4000, false));
+        assertEquals(4000, OfferExpiryScheduler.delayUntilNextWake(1000, 5000, false)); // just the expiry
+        assertEquals(250, OfferExpiryScheduler.delayUntilNextWake(1000, 5250, true)); // next second boundary
+        assertEquals(1000, OfferExpiryScheduler.delayUntilNextWake(1000, 5000, true));
+    }
+
+    @Test
+    public void countdownText() {
+        assertEquals(3, OfferExpiryScheduler.secondsRemaining(1000, 3500));
+        assertEquals(0, OfferExpiryScheduler.secondsRemaining(4000, 3500));
+        assertEquals("1:05", OfferExpiryScheduler.formatCountdown(65));
+        assertEquals("0:00", OfferExpiryScheduler.formatCountdown(0));
+        assertEquals("12:30", OfferExpiryScheduler.formatCountdown(750));
+    }
+
+    @Test
+    public void firesOnceWhenDueAndReArms() {
+        FakeHost host = new FakeHost();
+        FakeTimer timer = new FakeTimer();
+        long[] now = {1000};
+        OfferExpiryScheduler scheduler = new OfferExpiryScheduler(() -> now[0], timer, host);
+
+        host.nextExpiry = 4000;
+        scheduler.reschedule();
+        assertEquals(3000, timer.delay);
+        assertTrue(scheduler.isScheduled());
+
+        now[0] = 4000;
+        host.nextExpiry = 0; // the host drops the offer in expireDue
+        timer.fire();
+        assertEquals(1, host.expireCalls);
+        assertFalse(scheduler.isScheduled()); // nothing left to wait for
+    }
+
+    @Test
+    public void cancelStopsTheTimer() {
+        FakeHost host = new FakeHost();
+        FakeTimer timer = new FakeTimer();
+        OfferExpiryScheduler scheduler = new OfferExpiryScheduler(() -> 0, timer, host);
+        host.nextExpiry = 1000;
+        scheduler.reschedule();
+        scheduler.cancel();
+        assertFalse(scheduler.isScheduled());
+        assertNull(timer.pending);
+    }
+
+    private static final class FakeHost implements OfferExpiryScheduler.Host {
+        long nextExpiry;
+        int expireCalls;
+
+        @Override
+        public long nextExpiryMs() {
+            return nextExpiry;
+        }
+
+        @Override
+        public boolean hasVisibleCountdown() {
+            return false;
+        }
+
+        @Override
+        public void expireDue(long nowMs) {
+            expireCalls++;
+        }
+
+        @Override
+        public void renderCountdowns(long nowMs) {
+        }
+    }
+
+    private static final class FakeTimer implements OfferExpiryScheduler.Timer {
+        Runnable pending;
+        long delay = -1;
+
+        @Override
+        public void schedule(Runnable tick, long delayMs) {
+            pending = tick;
+            delay = delayMs;
+        }
+
+        @Override
+        public void cancel(Runnable tick) {
+            if (pending == tick) pending = null;
+        }
+
+        void fire() {
+            Runnable tick = pending;
+            pending = null;
+            tick.run();
+        }
+    }
+}
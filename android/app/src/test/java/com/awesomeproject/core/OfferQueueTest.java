@@ -0,0 +1,72 @@
+package com.awesomeproject.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class OfferQueueTest {
+
+    @Test
+    public void ordersByPriorityThenArrival() {
+        OfferQueue<String> queue = new OfferQueue<>();
+        queue.add("a", 0, 0, "a");
+        queue.add("b", 5, 0, "b");
+        queue.add("c", 0, 0, "c");
+        queue.add("d", 5, 0, "d");
+        assertEquals("b", queue.get(0).id);
+        assertEquals("d", queue.get(1).id);
+        assertEquals("a", queue.get(2).id);
+        assertEquals("c", queue.get(3).id);
+    }
+
+    @Test
+    public void sameIdReplacesInPlaceAndKeepsItsTurn() {
+        OfferQueue<String> queue = new OfferQueue<>();
+        queue.add("a", 0, 0, "old");
+        queue.add("b", 0, 0, "b");
+        queue.add("a", 0, 0, "new");
+        assertEquals(2, queue.size());
+        assertEquals("a", queue.get(0).id);
+        assertEquals("new", queue.get(0).payload);
+    }
+
+    @Test
+    public void fullQueueDropsTheLowestRanked() {
+        OfferQueue<String> queue = new OfferQueue<>(2);
+        assertNull(queue.add("a", 1, 0, "a"));
+        assertNull(queue.add("b", 2, 0, "b"));
+        OfferQueue.Offer<String> dropped = queue.add("c", 3, 0, "c");
+        assertEquals("a", dropped.id);
+        dropped = queue.add("d", 0, 0, "d");
+        assertEquals("d", dropped.id); // lower than everything queued, never gets in
+    }
+
+    @Test
+    public void removeExpiredAndNextExpiry() {
+        OfferQueue<String> queue = new OfferQueue<>();
+        queue.add("never", 0, 0, "x");
+        queue.add("soon", 0, 1000, "x");
+        queue.add("later", 0, 5000, "x");
+        assertEquals(1000, queue.nextExpiryMs());
+
+        ArrayList<OfferQueue.Offer<String>> expired = new ArrayList<>();
+        assertEquals(1, queue.removeExpired(1000, expired));
+        assertEquals("soon", expired.get(0).id);
+        assertEquals(5000, queue.nextExpiryMs());
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void removeAndFind() {
+        OfferQueue<String> queue = new OfferQueue<>();
+        queue.add("a", 0, 0, "a");
+        assertEquals("a", queue.find("a").payload);
+        assertEquals("a", queue.remove("a").id);
+        assertNull(queue.remove("a"));
+        assertNull(queue.find("a"));
+        assertEquals(0, queue.nextExpiryMs());
+    }
+}
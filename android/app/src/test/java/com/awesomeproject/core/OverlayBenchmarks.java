@@ -0,0 +1,184 @@
+package com.awesomeproject.core;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+
+// Microbenchmarks for the pure-Java hot paths. Limits are loose (several times what a laptop JIT does)
+// so only real regressions trip them; allocation limits are exact where the code promises zero.
+// Run with -PoverlayBenchmarkSlack=3 on slow CI machines.
+public class OverlayBenchmarks {
+
+    private static final String[] FARES = {"₹120", "₹1,234.50", "450", "+₹25", "₹87.5"};
+
+    @Test
+    public void fareParsing() {
+        MicroBenchmark.Result current = MicroBenchmark.run("FareModel.parsePaise", 50_000, 200_000,
+                i -> MicroBenchmark.sink += FareModel.parsePaise(FARES[i % FARES.length]));
+        // what updateCardView did before fares moved to paise
+        MicroBenchmark.Result legacy = MicroBenchmark.run("legacy replaceAll + parseDouble", 20_000, 50_000,
+                i -> MicroBenchmark.sink += (long) Double.parseDouble(FARES[i % FARES.length].replaceAll("[^\\d.]", "")));
+        MicroBenchmark.report("fare", current, legacy);
+
+        MicroBenchmark.assertWithin(current, 200, 0);
+        assertTrue("parsePaise slower than the regex path it replaced", current.nsPerOp < legacy.nsPerOp);
+    }
+
+    @Test
+    public void fareFormatting() {
+        char[] buffer = new char[FareModel.FORMAT_BUFFER_SIZE];
+        MicroBenchmark.Result current = MicroBenchmark.run("FareModel.formatRupees", 50_000, 200_000,
+                i -> MicroBenchmark.sink += FareModel.formatRupees(12_000 + i, false, buffer));
+        MicroBenchmark.Result legacy = MicroBenchmark.run("legacy String.format", 20_000, 50_000,
+                i -> MicroBenchmark.sink += String.format(Locale.US, "₹%.0f", (12_000 + i) / 100.0).length());
+        MicroBenchmark.report("fare", current, legacy);
+
+        MicroBenchmark.assertWithin(current, 200, 0);
+        assertTrue("formatRupees slower than String.format", current.nsPerOp < legacy.nsPerOp);
+    }
+
+    @Test
+    public void addonToggling() {
+        FareModel fare = new FareModel();
+        fare.reset(18_000);
+        MicroBenchmark.Result result = MicroBenchmark.run("FareModel.toggleAddon + total", 50_000, 200_000, i -> {
+            fare.toggleAddon(i % FareModel.MAX_ADDONS);
+            MicroBenchmark.sink += fare.getTotalPaise();
+        });
+        MicroBenchmark.report("fare", result);
+        MicroBenchmark.assertWithin(result, 100, 0);
+    }
+
+    @Test
+    public void snapSolverFrame() {
+        EdgeSnapSolver solver = new EdgeSnapSolver();
+        MicroBenchmark.Result result = MicroBenchmark.run("EdgeSnapSolver.step (16ms)", 20_000, 100_000, i -> {
+            if (i % 30 == 0) solver.start(i % 1000, 600, 1500, -800, 0, 1000, 0, 2000, 100);
+            MicroBenchmark.sink += solver.step(1f / 60f) ? 1 : solver.getX();
+        });
+        MicroBenchmark.report("drag", result);
+        MicroBenchmark.assertWithin(result, 2_000, 0);
+    }
+
+    @Test
+    public void gestureRecognition() {
+        OfferExpiryScheduler.Timer timer = new OfferExpiryScheduler.Timer() {
+            @Override
+            public void schedule(Runnable tick, long delayMs) {
+                MicroBenchmark.sink += delayMs;
+            }
+
+            @Override
+            public void cancel(Runnable tick) {
+                MicroBenchmark.sink++;
+            }
+        };
+        TouchGestureRecognizer.Listener listener = new TouchGestureRecognizer.Listener() {
+            @Override
+            public void onDown(float rawX, float rawY) {
+                MicroBenchmark.sink++;
+            }
+
+            @Override
+            public void onTap(float rawX, float rawY) {
+                MicroBenchmark.sink++;
+            }
+
+            @Override
+            public void onDoubleTap(float rawX, float rawY) {
+                MicroBenchmark.sink++;
+            }
+
+            @Override
+            public void onLongPress(float rawX, float rawY) {
+                MicroBenchmark.sink++;
+            }
+
+            @Override
+            public void onDragStart(float rawX, float rawY) {
+                MicroBenchmark.sink++;
+            }
+
+            @Override
+            public void onDrag(float rawX, float rawY) {
+                MicroBenchmark.sink += (long) rawY;
+            }
+
+            @Override
+            public void onDragEnd(float rawX, float rawY, boolean cancelled) {
+                MicroBenchmark.sink++;
+            }
+        };
+        TouchGestureRecognizer recognizer = new TouchGestureRecognizer(listener, timer, 400, 300);
+        recognizer.setSlop(16, 100);
+        // one op = a tap, then a 20-move drag starting at the same spot
+        MicroBenchmark.Result result = MicroBenchmark.run("TouchGestureRecognizer tap + drag", 20_000, 100_000, i -> {
+            long t = i * 500L;
+            recognizer.onTouchEvent(TouchGestureRecognizer.ACTION_DOWN, 100, 100, t);
+            recognizer.onTouchEvent(TouchGestureRecognizer.ACTION_UP, 100, 100, t + 60);
+            recognizer.onTouchEvent(TouchGestureRecognizer.ACTION_DOWN, 100, 100, t + 200);
+            for (int m = 1; m <= 20; m++) {
+                recognizer.onTouchEvent(TouchGestureRecognizer.ACTION_MOVE, 100, 100 + m * 10, t + 200 + m * 8);
+            }
+            recognizer.onTouchEvent(TouchGestureRecognizer.ACTION_UP, 100, 300, t + 380);
+        });
+        MicroBenchmark.report("drag", result);
+        MicroBenchmark.assertWithin(result, 5_000, 0); // per-event garbage on the UI thread is what this replaced
+    }
+
+    @Test
+    public void offerQueueChurn() {
+        OfferQueue<String> queue = new OfferQueue<>();
+        String[] ids = new String[32];
+        for (int i = 0; i < ids.length; i++) ids[i] = "offer-" + i;
+        MicroBenchmark.Result result = MicroBenchmark.run("OfferQueue add/remove (10 deep)", 20_000, 100_000, i -> {
+            queue.add(ids[i % ids.length], i % 3, 0, "payload");
+            if (queue.size() > 8) queue.remove(queue.get(queue.size() - 1).id);
+            MicroBenchmark.sink += queue.nextExpiryMs();
+        });
+        MicroBenchmark.report("queue", result);
+        MicroBenchmark.assertWithin(result, 1_000, 64); // one Offer per add
+    }
+
+    @Test
+    public void histogramRecord() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        MicroBenchmark.Result result = MicroBenchmark.run("LatencyHistogram.record", 50_000, 500_000,
+                i -> histogram.record(i * 977L));
+        MicroBenchmark.report("metrics", result);
+        MicroBenchmark.assertWithin(result, 200, 0);
+    }
+
+    @Test
+    public void snapshotCodec() {
+        OverlaySnapshot snapshot = new OverlaySnapshot();
+        snapshot.overlayType = "card";
+        HashMap<String, Object> shown = new HashMap<>();
+        shown.put("pickup", "Koramangala 5th Block");
+        shown.put("drop", "Indiranagar Metro");
+        shown.put("fare", 185.0);
+        shown.put("distance", "4.2 km");
+        snapshot.shown = shown;
+        for (int i = 0; i < 5; i++) {
+            snapshot.offers.add(new OverlaySnapshot.Offer("o" + i, i, 0, shown));
+        }
+        byte[] encoded = OverlaySnapshot.encode(snapshot);
+
+        MicroBenchmark.Result encode = MicroBenchmark.run("OverlaySnapshot.encode (5 offers)", 5_000, 20_000,
+                i -> MicroBenchmark.sink += OverlaySnapshot.encode(snapshot).length);
+        MicroBenchmark.Result decode = MicroBenchmark.run("OverlaySnapshot.decode (5 offers)", 5_000, 20_000, i -> {
+            try {
+                MicroBenchmark.sink += OverlaySnapshot.decode(encoded).offers.size();
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        });
+        MicroBenchmark.report("snapshot", encode, decode);
+        MicroBenchmark.assertWithin(encode, 50_000, 16_384);
+        MicroBenchmark.assertWithin(decode, 50_000, 32_768);
+    }
+}
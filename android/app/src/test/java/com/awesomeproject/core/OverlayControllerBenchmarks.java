@@ -0,0 +1,157 @@
+package com.awesomeproject.core;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Application;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Looper;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.view.View;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.awesomeproject.R;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+
+// Controller paths under Robolectric. Robolectric's views and window manager are much slower than a
+// device, so these limits only catch order-of-magnitude regressions (an inflate or a layout pass per
+// call sneaking back in); on-device numbers come from getOverlayMetrics.
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class OverlayControllerBenchmarks {
+
+    private OverlayController mController;
+
+    @Before
+    public void setUp() {
+        OverlayControllerTest.grantOverlayPermission();
+        mController = OverlayControllerTest.newController(new ArrayList<>());
+    }
+
+    @After
+    public void tearDown() {
+        mController.release();
+    }
+
+    @Test
+    public void payloadDecoding() {
+        JavaOnlyMap card = OverlayControllerTest.card("₹1,180.50");
+        MicroBenchmark.Result result = MicroBenchmark.run("OverlayModel.decode card (off UI thread)", 5_000, 20_000, i -> {
+            try {
+                MicroBenchmark.sink += OverlayModel.decode(card).card.basePaise;
+            } catch (OverlayException e) {
+                throw new AssertionError(e);
+            }
+        });
+        MicroBenchmark.report("controller", result);
+        MicroBenchmark.assertWithin(result, 50_000, 8 * 1024);
+    }
+
+    @Test
+    public void showHideCycle() throws OverlayException {
+        OverlayModel bubble = OverlayModel.decode(OverlayControllerTest.bubble());
+        OverlayModel card = OverlayModel.decode(OverlayControllerTest.card("₹180"));
+        MicroBenchmark.Result result = MicroBenchmark.run("show/hide bubble + card", 200, 1_000, i -> {
+            try {
+                mController.show(i % 2 == 0 ? bubble : card);
+            } catch (OverlayException e) {
+                throw new AssertionError(e);
+            }
+            mController.hide();
+        });
+        MicroBenchmark.report("controller", result);
+        MicroBenchmark.assertWithin(result, 2_000_000, 256 * 1024);
+    }
+
+    @Test
+    public void repeatedCardUpdate() throws OverlayException {
+        mController.show(OverlayModel.decode(OverlayControllerTest.card("₹180")));
+        OverlayModel same = OverlayModel.decodeUpdate(OverlayControllerTest.card("₹180"));
+        MicroBenchmark.Result result = MicroBenchmark.run("updateCardView, same payload", 1_000, 10_000, i -> {
+            try {
+                mController.update(same);
+            } catch (OverlayException e) {
+                throw new AssertionError(e);
+            }
+        });
+        shadowOf(Looper.getMainLooper()).idle();
+        MicroBenchmark.report("controller", result);
+        MicroBenchmark.assertWithin(result, 200_000, 16 * 1024);
+    }
+
+    // Same content through both card renderers, one pass = what a frame costs after the change.
+    // Robolectric's text and canvas are stand-ins, so compare the two lines, not the absolute numbers.
+    @Test
+    public void cardRenderers() {
+        Context context = new ContextThemeWrapper(ApplicationProvider.getApplicationContext(), R.style.AppTheme);
+        CardViewHolder layout = boundCard(LayoutInflater.from(context).inflate(R.layout.overlay_trip_card, null));
+        CardViewHolder drawn = boundCard(new TripCardView(context));
+        Canvas canvas = new Canvas(Bitmap.createBitmap(1080, 2400, Bitmap.Config.ARGB_8888));
+
+        MicroBenchmark.Result layoutFull = MicroBenchmark.run("layout card measure+layout+draw", 200, 1_000,
+                i -> MicroBenchmark.sink += fullPass(layout.root, canvas));
+        MicroBenchmark.Result drawnFull = MicroBenchmark.run("drawn card measure+layout+draw", 200, 1_000,
+                i -> MicroBenchmark.sink += fullPass(drawn.root, canvas));
+        MicroBenchmark.Result layoutToggle = MicroBenchmark.run("layout card add-on toggle + frame", 200, 1_000,
+                i -> MicroBenchmark.sink += togglePass(layout, i, canvas));
+        MicroBenchmark.Result drawnToggle = MicroBenchmark.run("drawn card add-on toggle + frame", 200, 1_000,
+                i -> MicroBenchmark.sink += togglePass(drawn, i, canvas));
+        MicroBenchmark.report("card", layoutFull, drawnFull, layoutToggle, drawnToggle);
+        MicroBenchmark.assertWithin(drawnFull, 5_000_000, 256 * 1024);
+        MicroBenchmark.assertWithin(drawnToggle, 2_000_000, 64 * 1024);
+    }
+
+    private static CardViewHolder boundCard(View view) {
+        CardViewHolder holder = CardViewHolder.of(view);
+        holder.bindTexts("Koramangala 5th Block, 80 Feet Road", "Indiranagar Metro Station",
+                "4.2 km", "18 min", "Asha", "Sedan");
+        holder.fare.reset(18_000, FareModel.DEFAULT_ADDONS_PAISE, FareModel.DEFAULT_ADDONS_PAISE.length,
+                FareModel.DEFAULT_ADDON_CAP_PAISE, true);
+        holder.bindAddons();
+        holder.bindFare();
+        return holder;
+    }
+
+    private static int fullPass(View card, Canvas canvas) {
+        card.forceLayout();
+        OverlayControllerTest.layOut(card);
+        card.draw(canvas);
+        return card.getMeasuredHeight();
+    }
+
+    // what the UI thread does for one tap on an add-on: bind, then whatever the view asks for
+    private static int togglePass(CardViewHolder card, int i, Canvas canvas) {
+        card.fare.toggleAddon(i % 2);
+        card.bindAddons();
+        card.bindFare();
+        if (card.root.isLayoutRequested()) {
+            OverlayControllerTest.layOut(card.root);
+        }
+        card.root.draw(canvas);
+        return card.root.getMeasuredHeight();
+    }
+
+    @Test
+    public void bubbleDragReplay() throws OverlayException {
+        mController.show(OverlayModel.decode(OverlayControllerTest.bubble()));
+        MicroBenchmark.Result result = MicroBenchmark.run("bubble drag replay (12 frames)", 5, 20, i -> {
+            MicroBenchmark.sink += OverlayControllerTest.replayDrag(mController.getOverlayView(), 12, 3);
+            shadowOf(Looper.getMainLooper()).idleFor(java.time.Duration.ofSeconds(1));
+        });
+        MicroBenchmark.report("controller", result);
+        MicroBenchmark.assertWithin(result, 100_000_000, 4 * 1024 * 1024);
+    }
+}
@@ -0,0 +1,375 @@
+package com.awesomeproject.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.AppOpsManager;
+import android.app.Application;
+import android.graphics.PixelFormat;
+import android.graphics.RectF;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.view.ContextThemeWrapper;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.WindowManager;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.view.accessibility.AccessibilityNodeProvider;
+import android.widget.TextView;
+
+import androidx.annotation.Nullable;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.awesomeproject.R;
+import com.awesomeproject.permission.OverlayPermissionState;
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.WritableMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+// Plain Application so MainApplication doesn't boot React Native.
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class OverlayControllerTest {
+
+    static final Duration FRAME = Duration.ofMillis(16);
+
+    private OverlayController mController;
+    private final ArrayList<String> mEvents = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        grantOverlayPermission();
+        mController = newController(mEvents);
+    }
+
+    @After
+    public void tearDown() {
+        mController.release();
+    }
+
+    @Test
+    public void showHideCyclesNeverInflateAfterPrewarm() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            mController.show(OverlayModel.decode(bubble()));
+            assertNotNull(mController.getOverlayView());
+            mController.hide();
+            assertNull(mController.getOverlayView());
+
+            mController.show(OverlayModel.decode(card("₹" + (100 + i))));
+            mController.hide();
+        }
+        OverlayMetrics metrics = mController.getMetrics();
+        assertEquals(40, metrics.get(OverlayMetrics.OP_SHOW, OverlayMetrics.PHASE_TOTAL).getCount());
+        assertEquals(40, metrics.get(OverlayMetrics.OP_HIDE, OverlayMetrics.PHASE_TOTAL).getCount());
+        assertEquals(0, metrics.get(OverlayMetrics.OP_SHOW, OverlayMetrics.PHASE_INFLATE).getCount());
+    }
+
+    @Test
+    public void showingTwiceIsRejected() throws Exception {
+        mController.show(OverlayModel.decode(bubble()));
+        try {
+            mController.show(OverlayModel.decode(bubble()));
+            throw new AssertionError("second show accepted");
+        } catch (OverlayException e) {
+            assertEquals("E_OVERLAY_EXISTS", e.code);
+        }
+    }
+
+    @Test
+    public void repeatedCardPayloadLeavesTextViewsAlone() throws Exception {
+        mController.show(OverlayModel.decode(card("₹180")));
+        TextView pickup = mController.getOverlayView().findViewById(R.id.pickup_address_text);
+        CharSequence before = pickup.getText();
+
+        for (int i = 0; i < 10; i++) {
+            mController.update(OverlayModel.decodeUpdate(card("₹180")));
+        }
+        assertSame(before, pickup.getText());
+        assertEquals(10, mController.getMetrics().get(OverlayMetrics.OP_UPDATE, OverlayMetrics.PHASE_TOTAL).getCount());
+
+        mController.update(OverlayModel.decodeUpdate(JavaOnlyMap.of("pickupAddress", "HSR Layout")));
+        assertEquals("HSR Layout", pickup.getText().toString());
+    }
+
+    @Test
+    public void reEnqueuedOfferKeepsItsAddonsOnlyWhileTheFareIsUnchanged() throws Exception {
+        JavaOnlyMap offer = card("₹180");
+        offer.putString("offerId", "trip-1");
+        mController.enqueueOffer(CardModel.decodeOffer(offer));
+        mController.show(OverlayModel.decode(JavaOnlyMap.of("type", "stack")));
+        View stack = mController.getOverlayView();
+        TextView fare = stack.findViewById(R.id.total_fare_text);
+        stack.findViewById(R.id.addon_button_1).performClick();
+        assertEquals("₹185", fare.getText().toString());
+
+        mController.enqueueOffer(CardModel.decodeOffer(offer)); // same offer again
+        assertEquals("₹185", fare.getText().toString());
+
+        offer.putString("baseFare", "₹240");
+        mController.enqueueOffer(CardModel.decodeOffer(offer));
+        assertEquals("₹240", fare.getText().toString()); // new fare, the old pick no longer applies
+        assertFalse(stack.findViewById(R.id.addon_button_1).isSelected());
+    }
+
+    @Test
+    public void acceptingFromTheStackClearsTheBadgeAndTheExpiryTimer() throws Exception {
+        mController.show(OverlayModel.decode(bubble()));
+        for (int i = 1; i <= 2; i++) {
+            JavaOnlyMap offer = card("₹180");
+            offer.putString("offerId", "trip-" + i);
+            offer.putDouble("expiresAt", System.currentTimeMillis() + 60_000);
+            mController.enqueueOffer(CardModel.decodeOffer(offer));
+        }
+        mController.show("offers", OverlayModel.decode(JavaOnlyMap.of("type", "stack")));
+        TextView badge = mController.getOverlayView().findViewById(R.id.bubble_badge);
+        assertEquals("2", badge.getText().toString());
+        assertTrue(mController.isExpiryScheduled());
+
+        mController.getOverlayView("offers").findViewById(R.id.accept_button).performClick();
+        assertNull(mController.getOverlayView("offers"));
+        assertEquals(View.GONE, badge.getVisibility()); // the main bubble isn't the stack's window
+        assertFalse(mController.isExpiryScheduled());
+    }
+
+    @Test
+    public void bubbleDragReplayCoalescesToFramesAndSnapsToAnEdge() throws Exception {
+        mController.show(OverlayModel.decode(bubble()));
+        View bubble = mController.getOverlayView();
+        int frames = replayDrag(bubble, 12, 3);
+
+        OverlayMetrics metrics = mController.getMetrics();
+        assertTrue(metrics.getDragFrames() > 0);
+        assertTrue("more layouts than frames", metrics.getDragFrames() <= frames + 1); // +1 for the flush on up
+
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofSeconds(2)); // let the snap spring settle
+        int screenWidth = bubble.getResources().getDisplayMetrics().widthPixels;
+        int x = mController.snapshot().bubbleX;
+        assertTrue("bubble stopped at " + x, x == 0 || x == screenWidth - bubble.getWidth());
+        assertTrue(mEvents.contains("onBubbleMoved"));
+    }
+
+    @Test
+    public void lowOverdrawCardIsFlatAndOpaque() throws Exception {
+        mController.setLowOverdraw(true);
+        mController.show(OverlayModel.decode(card("₹180")));
+        View card = mController.getOverlayView();
+        assertTrue(CardViewHolder.of(card).isFlat());
+        assertEquals(0, card.getPaddingTop());
+        assertEquals(PixelFormat.OPAQUE, windowFormat(card));
+
+        mController.transition(OverlayModel.decode(bubble())); // same window, round content again
+        assertEquals(PixelFormat.TRANSLUCENT, windowFormat(mController.getOverlayView()));
+        mController.hide();
+        assertEquals(0, mController.getMetrics().getBlendedPixels());
+
+        mController.setLowOverdraw(false);
+        mController.show(OverlayModel.decode(card("₹180")));
+        card = mController.getOverlayView();
+        assertFalse(CardViewHolder.of(card).isFlat()); // pooled views come back with the layout look
+        assertTrue(card.getPaddingTop() > 0);
+        assertEquals(PixelFormat.TRANSLUCENT, windowFormat(card));
+    }
+
+    @Test
+    public void drawnCardHitTestsItsOwnButtons() throws Exception {
+        JavaOnlyMap payload = card("₹180");
+        payload.putString("cardRenderer", "drawn");
+        mController.show(OverlayModel.decode(payload));
+        TripCardView card = (TripCardView) mController.getOverlayView();
+        layOut(card);
+
+        RectF firstAddon = card.getAddonBounds(0);
+        tap(card, firstAddon.centerX(), firstAddon.centerY());
+        assertFalse("a fare change re-measured the card", card.isLayoutRequested());
+        shadowOf(Looper.getMainLooper()).idleFor(FRAME); // events go out once per frame
+        assertTrue(mEvents.contains("onFareChanged"));
+        assertEquals(1, mController.snapshot().addonMask); // first add-on picked
+
+        tap(card, card.getWidth() / 2f, 1); // the transparent margin does nothing
+        RectF accept = card.getAcceptBounds();
+        tap(card, accept.centerX(), accept.centerY());
+        shadowOf(Looper.getMainLooper()).idleFor(FRAME);
+        assertTrue(mEvents.contains("onTripAccepted"));
+        assertNull(mController.getOverlayView());
+    }
+
+    @Test
+    public void drawnCardButtonsAreAccessibilityNodes() throws Exception {
+        JavaOnlyMap payload = card("₹180");
+        payload.putString("cardRenderer", "drawn");
+        mController.show(OverlayModel.decode(payload));
+        TripCardView card = (TripCardView) mController.getOverlayView();
+        layOut(card);
+        AccessibilityNodeProvider provider = card.getAccessibilityNodeProvider();
+        assertNotNull(provider);
+
+        AccessibilityNodeInfo chip = provider.createAccessibilityNodeInfo(0);
+        assertEquals("Add-on +₹5", chip.getContentDescription().toString());
+        assertTrue(chip.isCheckable());
+        assertFalse(chip.isChecked());
+        assertTrue(provider.performAction(0, AccessibilityNodeInfo.ACTION_CLICK, null));
+        assertTrue(provider.createAccessibilityNodeInfo(0).isChecked());
+        assertEquals(1, mController.snapshot().addonMask);
+
+        AccessibilityNodeInfo decline = provider.createAccessibilityNodeInfo(TripCardView.TARGET_IGNORE);
+        assertEquals("Decline", decline.getContentDescription().toString());
+        AccessibilityNodeInfo accept = provider.createAccessibilityNodeInfo(TripCardView.TARGET_ACCEPT);
+        assertEquals("Accept Ride", accept.getContentDescription().toString());
+        assertTrue(provider.performAction(TripCardView.TARGET_ACCEPT, AccessibilityNodeInfo.ACTION_CLICK, null));
+        shadowOf(Looper.getMainLooper()).idleFor(FRAME);
+        assertTrue(mEvents.contains("onTripAccepted"));
+    }
+
+    @Test
+    public void windowsShowSideBySideAndBatchInOnePass() throws Exception {
+        mController.show(OverlayModel.decode(card("₹180")));
+        mController.show("earnings", OverlayModel.decode(bubble()));
+        assertNotNull(mController.getOverlayView("earnings"));
+        assertEquals(Arrays.asList("main", "earnings"), mController.getOverlayIds());
+
+        mController.apply(OverlayOp.decodeBatch(JavaOnlyArray.of(
+                JavaOnlyMap.of("op", "transition", "id", "main", "data", bubble()),
+                JavaOnlyMap.of("op", "update", "id", "earnings", "data", JavaOnlyMap.of("badgeCount", 3)),
+                JavaOnlyMap.of("op", "hide", "id", "earnings"))));
+        assertEquals(Collections.singletonList("main"), mController.getOverlayIds());
+        assertNull(mController.getOverlayView("earnings"));
+
+        try {
+            mController.apply(OverlayOp.decodeBatch(JavaOnlyArray.of(
+                    JavaOnlyMap.of("op", "show", "id", "a", "data", bubble()),
+                    JavaOnlyMap.of("op", "update", "id", "gone", "data", JavaOnlyMap.of("badgeCount", 1)))));
+            throw new AssertionError("update of a missing window accepted");
+        } catch (OverlayException e) {
+            assertEquals("E_NO_OVERLAY", e.code);
+            assertTrue(e.getMessage().startsWith("Batch op 1 (gone)"));
+        }
+        assertNotNull(mController.getOverlayView("a")); // ops before the failure stay applied
+
+        OverlaySnapshot snapshot = mController.snapshot();
+        assertEquals(1, snapshot.windows.size());
+        assertEquals("a", snapshot.windows.get(0).id);
+    }
+
+    @Test
+    public void snapshotCarriesWhatIsShown() throws Exception {
+        mController.show(OverlayModel.decode(card("₹180")));
+        OverlaySnapshot snapshot = mController.snapshot();
+        assertEquals("card", snapshot.overlayType);
+        assertEquals("₹180", snapshot.shown.get("baseFare"));
+    }
+
+    // --- Fixtures, shared with OverlayControllerBenchmarks ---
+
+    static void grantOverlayPermission() {
+        Application app = ApplicationProvider.getApplicationContext();
+        shadowOf(app.getSystemService(AppOpsManager.class)).setMode(
+                AppOpsManager.OPSTR_SYSTEM_ALERT_WINDOW, Process.myUid(), app.getPackageName(), AppOpsManager.MODE_ALLOWED);
+        OverlayPermissionState.resetForTesting(); // process-wide, may hold a previous test's app
+    }
+
+    static OverlayController newController(ArrayList<String> events) {
+        Application app = ApplicationProvider.getApplicationContext();
+        OverlayController controller = new OverlayController(
+                new ContextThemeWrapper(app, R.style.AppTheme),
+                new OverlayController.Listener() {
+                    @Override
+                    public void onEvent(String eventName, @Nullable WritableMap params) {
+                        events.add(eventName);
+                    }
+
+                    @Override
+                    public void onActiveChanged(boolean active) {
+                    }
+
+                    @Override
+                    public void onStateChanged() {
+                    }
+                },
+                Runnable::run); // inflate inline, the warm views are posted back to the main looper
+        shadowOf(Looper.getMainLooper()).idle(); // deliver them
+        return controller;
+    }
+
+    static JavaOnlyMap bubble() {
+        return JavaOnlyMap.of("type", "bubble", "badgeCount", 1);
+    }
+
+    static JavaOnlyMap card(String baseFare) {
+        return JavaOnlyMap.of(
+                "type", "card",
+                "pickupAddress", "Koramangala 5th Block",
+                "dropoffAddress", "Indiranagar Metro",
+                "distance", "4.2 km",
+                "duration", "18 min",
+                "customerName", "Asha",
+                "carType", "Sedan",
+                "baseFare", baseFare,
+                "addonAmounts", JavaOnlyArray.of(5.0, 10.0, 15.0, 20.0, 25.0));
+    }
+
+    // format of the overlay window the view sits in
+    static int windowFormat(View view) {
+        return ((WindowManager.LayoutParams) view.getRootView().getLayoutParams()).format;
+    }
+
+    /**
+     * Drags the view to the right with samplesPerFrame touch samples per 16ms frame, then lifts.
+     * @return how many frames were run while dragging.
+     */
+    static int replayDrag(View view, int frames, int samplesPerFrame) {
+        long downTime = SystemClock.uptimeMillis();
+        float x = 20;
+        float y = 120; // well above the dismiss zone
+        dispatch(view, downTime, downTime, MotionEvent.ACTION_DOWN, x, y);
+        long t = downTime;
+        for (int frame = 0; frame < frames; frame++) {
+            for (int s = 0; s < samplesPerFrame; s++) {
+                t += 16 / samplesPerFrame;
+                x += 6;
+                dispatch(view, downTime, t, MotionEvent.ACTION_MOVE, x, y);
+            }
+            shadowOf(Looper.getMainLooper()).idleFor(FRAME);
+        }
+        dispatch(view, downTime, t + 8, MotionEvent.ACTION_UP, x, y);
+        return frames;
+    }
+
+    // measure and lay out like the full-width card window would
+    static void layOut(View card) {
+        int width = card.getResources().getDisplayMetrics().widthPixels;
+        int height = card.getResources().getDisplayMetrics().heightPixels;
+        card.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.AT_MOST));
+        card.layout(0, 0, card.getMeasuredWidth(), card.getMeasuredHeight());
+    }
+
+    private static void tap(View view, float x, float y) {
+        long downTime = SystemClock.uptimeMillis();
+        dispatch(view, downTime, downTime, MotionEvent.ACTION_DOWN, x, y);
+        dispatch(view, downTime, downTime + 50, MotionEvent.ACTION_UP, x, y);
+    }
+
+    private static void dispatch(View view, long downTime, long eventTime, int action, float x, float y) {
+        MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, x, y, 0);
+        view.dispatchTouchEvent(event);
+        event.recycle();
+    }
+}
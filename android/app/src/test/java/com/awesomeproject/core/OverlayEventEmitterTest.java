@@ -0,0 +1,134 @@
+package com.awesomeproject.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.WritableMap;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class OverlayEventEmitterTest {
+
+    @Test
+    public void moveAndFareKeepTheLatestValueInTheirFirstSlot() {
+        ManualEmitter emitter = new ManualEmitter();
+        emitter.emitBubbleMoved("main", 1, 1);
+        emitter.emit("onCardShown", null);
+        emitter.emitBubbleMoved("main", 2, 2);
+        emitter.emitFareChanged("main", 120);
+        emitter.emitBubbleMoved("main", 3, 4);
+        emitter.emitFareChanged("main", 125);
+        emitter.vsync();
+
+        assertEquals(3, emitter.names.size());
+        assertEquals("onBubbleMoved", emitter.names.get(0));
+        assertEquals("onCardShown", emitter.names.get(1));
+        assertEquals("onFareChanged", emitter.names.get(2));
+        assertEquals(3, emitter.params.get(0).getInt("x"));
+        assertEquals(4, emitter.params.get(0).getInt("y"));
+        assertNull(emitter.params.get(1));
+        assertEquals(125, emitter.params.get(2).getDouble("fare"), 0);
+        assertEquals(3, emitter.getEmittedCount());
+        assertEquals(3, emitter.getCoalescedCount());
+    }
+
+    @Test
+    public void positionsCoalescePerOverlayAndCarryTheirId() {
+        ManualEmitter emitter = new ManualEmitter();
+        emitter.emitBubbleMoved("main", 1, 1);
+        emitter.emitBubbleMoved("earnings", 7, 7);
+        emitter.emitBubbleMoved("main", 2, 3);
+        emitter.emit("earnings", "onTripIgnored", null);
+        emitter.vsync();
+
+        assertEquals(3, emitter.names.size());
+        assertEquals("main", emitter.params.get(0).getString("overlayId"));
+        assertEquals(2, emitter.params.get(0).getInt("x"));
+        assertEquals("earnings", emitter.params.get(1).getString("overlayId"));
+        assertEquals(7, emitter.params.get(1).getInt("x"));
+        assertEquals("earnings", emitter.params.get(2).getString("overlayId")); // map made for the id
+        assertEquals(1, emitter.getCoalescedCount());
+    }
+
+    @Test
+    public void bubbleClicksAreDebounced() {
+        ManualEmitter emitter = new ManualEmitter();
+        emitter.emitBubbleClicked("main");
+        emitter.nowMs += 100;
+        emitter.emitBubbleClicked("main");
+        emitter.nowMs += OverlayEventEmitter.BUBBLE_CLICK_DEBOUNCE_MS;
+        emitter.emitBubbleClicked("main");
+        emitter.vsync();
+        assertEquals(2, emitter.names.size());
+        assertEquals(1, emitter.getCoalescedCount());
+    }
+
+    @Test
+    public void oneFramePerBatchAndClearDropsEverything() {
+        ManualEmitter emitter = new ManualEmitter();
+        emitter.emit("a", null);
+        emitter.emit("b", null);
+        assertEquals(1, emitter.posted);
+        emitter.clear();
+        assertEquals(0, emitter.posted);
+        emitter.flush();
+        assertEquals(0, emitter.names.size());
+
+        emitter.emitBubbleMoved("main", 5, 5); // slot is free again after clear
+        emitter.flush();
+        assertEquals(1, emitter.names.size());
+    }
+
+    // vsync and the clock are driven by hand, events land in lists
+    private static final class ManualEmitter extends OverlayEventEmitter {
+        final ArrayList<String> names;
+        final ArrayList<WritableMap> params;
+        long nowMs = 10_000;
+        int posted;
+
+        ManualEmitter() {
+            this(new ArrayList<>(), new ArrayList<>());
+        }
+
+        private ManualEmitter(ArrayList<String> names, ArrayList<WritableMap> params) {
+            super((String eventName, @Nullable WritableMap map) -> {
+                names.add(eventName);
+                params.add(map);
+            });
+            this.names = names;
+            this.params = params;
+        }
+
+        @Override
+        WritableMap createMap() {
+            return new JavaOnlyMap();
+        }
+
+        @Override
+        long now() {
+            return nowMs;
+        }
+
+        @Override
+        void postFrame() {
+            posted++;
+        }
+
+        @Override
+        void removeFrame() {
+            posted--;
+        }
+
+        void vsync() {
+            if (posted > 0) {
+                posted--;
+                doFrame(0);
+            }
+        }
+    }
+}
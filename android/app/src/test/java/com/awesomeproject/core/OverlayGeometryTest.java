@@ -0,0 +1,32 @@
+package com.awesomeproject.core;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class OverlayGeometryTest {
+
+    @Test
+    public void reclampXKeepsTheEdge() {
+        // portrait 1080 wide -> landscape 2200 wide, 150px bubble
+        assertEquals(2050, OverlayGeometry.reclampX(930, 150, 1080, 2200));
+        assertEquals(0, OverlayGeometry.reclampX(0, 150, 1080, 2200));
+        assertEquals(930, OverlayGeometry.reclampX(2050, 150, 2200, 1080)); // and back
+        assertEquals(0, OverlayGeometry.reclampX(400, 150, 1080, 2200)); // left half goes left
+    }
+
+    @Test
+    public void reclampYKeepsRelativeHeight() {
+        assertEquals(900, OverlayGeometry.reclampY(2000, 100, 2100, 1000)); // bottom stays bottom
+        assertEquals(0, OverlayGeometry.reclampY(0, 100, 2100, 1000));
+        assertEquals(450, OverlayGeometry.reclampY(1000, 100, 2100, 1000));
+        assertEquals(0, OverlayGeometry.reclampY(500, 100, 100, 1000)); // nothing to scale from
+    }
+
+    @Test
+    public void reclampNeverLeavesTheArea() {
+        // unfolded -> folded, bubble wider than the old slack
+        assertEquals(0, OverlayGeometry.reclampY(5000, 100, 2100, 80));
+        assertEquals(0, OverlayGeometry.reclampX(900, 150, 1080, 100));
+    }
+}
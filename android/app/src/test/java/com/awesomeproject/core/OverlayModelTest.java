@@ -0,0 +1,153 @@
+package com.awesomeproject.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+
+import org.junit.Test;
+
+public class OverlayModelTest {
+
+    @Test
+    public void cardIsDecodedIntoPaiseAndTexts() throws OverlayException {
+        OverlayModel model = OverlayModel.decode(JavaOnlyMap.of(
+                "type", "card",
+                "pickupAddress", "Koramangala",
+                "baseFare", "₹1,180.50",
+                "addonAmounts", JavaOnlyArray.of(5.0, 7.5),
+                "maxAddon", 10.0,
+                "addonMode", "single",
+                "expiresAt", 1_700_000_000_000.0,
+                "offerId", "o1"));
+        CardModel card = model.card;
+        assertNotNull(card);
+        assertNull(model.bubble);
+        assertEquals("Koramangala", card.pickupAddress);
+        assertNull(card.dropoffAddress); // not sent, left alone on update
+        assertEquals(118050, card.basePaise);
+        assertEquals(2, card.addonPaise.length);
+        assertEquals(750, card.addonPaise[1]);
+        assertEquals(1000, card.capPaise);
+        assertFalse(card.stacking);
+        assertEquals(1_700_000_000_000L, card.expiresAtMs);
+        assertEquals("o1", card.offerId);
+        assertEquals("₹1,180.50", model.data.get("baseFare"));
+    }
+
+    @Test
+    public void defaultsWhenFieldsAreMissing() throws OverlayException {
+        CardModel card = OverlayModel.decode(JavaOnlyMap.of("type", "card", "baseFare", 180.0)).card;
+        assertEquals(18000, card.basePaise); // numbers are rupees
+        assertSame(FareModel.DEFAULT_ADDONS_PAISE, card.addonPaise);
+        assertEquals(FareModel.DEFAULT_ADDON_CAP_PAISE, card.capPaise);
+        assertTrue(card.stacking);
+        assertEquals(0, card.expiresAtMs);
+        assertNull(card.offerId);
+    }
+
+    @Test
+    public void pickupLocationComesAsAPair() throws OverlayException {
+        CardModel card = OverlayModel.decode(JavaOnlyMap.of(
+                "type", "card", "pickupLatitude", 12.9352, "pickupLongitude", 77.6245)).card;
+        assertTrue(card.hasPickupLocation());
+        assertEquals(77.6245, card.pickupLongitude, 0);
+        assertFalse(OverlayModel.decode(JavaOnlyMap.of("type", "card")).card.hasPickupLocation());
+        try {
+            OverlayModel.decode(JavaOnlyMap.of("type", "card", "pickupLatitude", 12.9352));
+            fail("half a coordinate accepted");
+        } catch (OverlayException e) {
+            assertEquals("E_INVALID_DATA", e.code);
+        }
+        try {
+            OverlayModel.decode(JavaOnlyMap.of("type", "card", "pickupLatitude", 95.0, "pickupLongitude", 0.0));
+            fail("latitude out of range accepted");
+        } catch (OverlayException e) {
+            assertEquals("E_INVALID_DATA", e.code);
+        }
+    }
+
+    @Test
+    public void nullTextClearsTheField() throws OverlayException {
+        JavaOnlyMap payload = new JavaOnlyMap();
+        payload.putNull("customerName");
+        assertEquals("", OverlayModel.decodeUpdate(payload).card.customerName);
+    }
+
+    @Test
+    public void updateCarriesBothViews() throws OverlayException {
+        OverlayModel update = OverlayModel.decodeUpdate(JavaOnlyMap.of("badgeCount", 3.0));
+        assertNull(update.type);
+        assertEquals(3, update.bubble.badgeCount);
+        assertNull(update.card.pickupAddress);
+        assertEquals(BubbleModel.NO_BADGE, OverlayModel.decodeUpdate(new JavaOnlyMap()).bubble.badgeCount);
+    }
+
+    @Test
+    public void postedUpdatesCarryOnlyTheirFields() throws OverlayException {
+        OverlayModel badge = OverlayModel.badgeUpdate(4);
+        assertEquals(4, badge.bubble.badgeCount);
+        assertNull(badge.card);
+        assertEquals(4.0, badge.data.get("badgeCount"));
+
+        OverlayModel trip = OverlayModel.tripUpdate("3.2 km", null);
+        assertNull(trip.bubble);
+        assertEquals("3.2 km", trip.card.distance);
+        assertNull(trip.card.duration); // left as it is
+        assertNull(trip.card.pickupAddress);
+        assertFalse(trip.data.containsKey("duration"));
+    }
+
+    @Test
+    public void postedBadgeMustBeACount() {
+        for (double bad : new double[] {Double.NaN, -1, Double.POSITIVE_INFINITY}) {
+            try {
+                OverlayModel.badgeUpdate(bad);
+                fail("badge accepted: " + bad);
+            } catch (OverlayException e) {
+                assertEquals("E_INVALID_DATA", e.code);
+            }
+        }
+    }
+
+    @Test
+    public void cardRendererDefaultsToTheLayout() throws OverlayException {
+        assertFalse(OverlayModel.decode(JavaOnlyMap.of("type", "card")).card.drawn);
+        assertFalse(OverlayModel.decode(JavaOnlyMap.of("type", "card", "cardRenderer", "layout")).card.drawn);
+        assertTrue(OverlayModel.decode(JavaOnlyMap.of("type", "card", "cardRenderer", "drawn")).card.drawn);
+    }
+
+    @Test
+    public void badPayloadsAreRejectedWithACode() {
+        assertRejected("E_INVALID_TYPE", new JavaOnlyMap());
+        assertRejected("E_INVALID_TYPE", JavaOnlyMap.of("type", "toast"));
+        assertRejected("E_INVALID_TYPE", JavaOnlyMap.of("type", 3.0));
+        assertRejected("E_INVALID_DATA", JavaOnlyMap.of("type", "card", "baseFare", "free"));
+        assertRejected("E_INVALID_DATA", JavaOnlyMap.of("type", "card", "pickupAddress", 12.0));
+        assertRejected("E_INVALID_DATA", JavaOnlyMap.of("type", "card", "addonAmounts", JavaOnlyArray.of("5")));
+        assertRejected("E_INVALID_DATA", JavaOnlyMap.of("type", "bubble", "badgeCount", "two"));
+        assertRejected("E_INVALID_DATA", JavaOnlyMap.of("type", "card", "cardRenderer", "canvas"));
+        assertRejected("E_INVALID_DATA", JavaOnlyMap.of("type", "card", "addonMode", "singel"));
+        try {
+            CardModel.decodeOffer(JavaOnlyMap.of("baseFare", "₹90"));
+            fail("offer without id accepted");
+        } catch (OverlayException e) {
+            assertEquals("E_INVALID_OFFER", e.code);
+        }
+    }
+
+    private static void assertRejected(String code, JavaOnlyMap payload) {
+        try {
+            OverlayModel.decode(payload);
+            fail("accepted " + payload);
+        } catch (OverlayException e) {
+            assertEquals(code, e.code);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.awesomeproject.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class OverlaySnapshotStoreTest {
+
+    private File mFile;
+    private int mCaptures;
+    private int mBubbleX;
+    private OverlaySnapshotStore mStore;
+
+    @Before
+    public void setUp() throws IOException {
+        mFile = File.createTempFile("overlay_state", ".bin");
+        //noinspection ResultOfMethodCallIgnored
+        mFile.delete();
+        mStore = new OverlaySnapshotStore(mFile, Runnable::run, new Handler(Looper.getMainLooper()), () -> {
+            mCaptures++;
+            OverlaySnapshot snapshot = new OverlaySnapshot();
+            snapshot.bubbleX = mBubbleX;
+            return snapshot;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        //noinspection ResultOfMethodCallIgnored
+        mFile.delete();
+    }
+
+    @Test
+    public void burstOfChangesIsOneWrite() {
+        for (int i = 0; i < 50; i++) {
+            mBubbleX = i;
+            mStore.markDirty();
+        }
+        assertEquals(0, mCaptures);
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(OverlaySnapshotStore.WRITE_DELAY_MS));
+        assertEquals(1, mCaptures);
+        assertEquals(49, mStore.load().bubbleX);
+    }
+
+    @Test
+    public void closeFlushesThenIgnoresChanges() {
+        mBubbleX = 7;
+        mStore.markDirty();
+        mStore.close();
+        assertEquals(1, mCaptures);
+        mStore.markDirty();
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofSeconds(1));
+        assertEquals(1, mCaptures);
+        assertEquals(7, mStore.load().bubbleX);
+    }
+
+    @Test
+    public void corruptedFileIsDropped() throws IOException {
+        mStore.markDirty();
+        mStore.flush();
+        byte[] garbage = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14};
+        try (FileOutputStream out = new FileOutputStream(mFile)) {
+            out.write(garbage);
+        }
+        assertNull(mStore.load());
+        assertFalse(mFile.exists());
+    }
+
+    @Test
+    public void missingFileIsNoSnapshot() {
+        assertNull(mStore.load());
+    }
+}
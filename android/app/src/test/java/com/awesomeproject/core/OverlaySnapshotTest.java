@@ -0,0 +1,121 @@
+package com.awesomeproject.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+public class OverlaySnapshotTest {
+
+    @Test
+    public void roundTripsEverything() throws IOException {
+        OverlaySnapshot decoded = OverlaySnapshot.decode(OverlaySnapshot.encode(sample()));
+        assertEquals(42, decoded.bubbleX);
+        assertEquals(640, decoded.bubbleY);
+        assertEquals("stack", decoded.overlayType);
+        assertEquals(0b101, decoded.addonMask);
+        assertEquals("Koramangala", decoded.shown.get("pickup"));
+        assertEquals(180.0, decoded.shown.get("fare"));
+        assertEquals(Boolean.TRUE, decoded.shown.get("surge"));
+        assertNull(decoded.shown.get("note"));
+        assertEquals(Arrays.asList(5.0, 10.0), decoded.shown.get("addonAmounts"));
+        assertEquals(2, decoded.offers.size());
+        assertEquals("o2", decoded.offers.get(1).id);
+        assertEquals(3, decoded.offers.get(1).priority);
+        assertEquals(1_700_000_000_000L, decoded.offers.get(1).expiresAtMs);
+        assertEquals("HSR", ((Map<?, ?>) decoded.offers.get(1).payload.get("trip")).get("drop"));
+        assertEquals(1, decoded.windows.size());
+        assertEquals("earnings", decoded.windows.get(0).id);
+        assertEquals(-3, decoded.windows.get(0).x);
+        assertEquals(900, decoded.windows.get(0).y);
+        assertEquals("bubble", decoded.windows.get(0).shown.get("type"));
+    }
+
+    @Test
+    public void versionOneSnapshotsStillDecode() throws IOException {
+        OverlaySnapshot old = sample();
+        old.windows.clear();
+        byte[] current = OverlaySnapshot.encode(old);
+        // v1 = same bytes without the window count
+        byte[] body = Arrays.copyOf(current, current.length - 8 - 4);
+        body[4] = 1;
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        byte[] v1 = Arrays.copyOf(body, body.length + 8);
+        ByteBuffer.wrap(v1, body.length, 8).putLong(crc.getValue());
+
+        OverlaySnapshot decoded = OverlaySnapshot.decode(v1);
+        assertEquals("stack", decoded.overlayType);
+        assertEquals(2, decoded.offers.size());
+        assertEquals(0, decoded.windows.size());
+    }
+
+    @Test
+    public void emptySnapshotRoundTrips() throws IOException {
+        OverlaySnapshot decoded = OverlaySnapshot.decode(OverlaySnapshot.encode(new OverlaySnapshot()));
+        assertNull(decoded.overlayType);
+        assertNull(decoded.shown);
+        assertEquals(100, decoded.bubbleY);
+        assertEquals(0, decoded.offers.size());
+    }
+
+    @Test
+    public void everyFlippedBitIsRejected() {
+        byte[] good = OverlaySnapshot.encode(sample());
+        for (int i = 0; i < good.length * 8; i++) {
+            byte[] bad = good.clone();
+            bad[i / 8] ^= (byte) (1 << (i % 8));
+            assertRejected(bad, "bit " + i);
+        }
+    }
+
+    @Test
+    public void everyTruncationIsRejected() {
+        byte[] good = OverlaySnapshot.encode(sample());
+        for (int length = 0; length < good.length; length++) {
+            assertRejected(Arrays.copyOf(good, length), "length " + length);
+        }
+    }
+
+    private static void assertRejected(byte[] data, String what) {
+        try {
+            OverlaySnapshot.decode(data);
+            fail("accepted a corrupted snapshot, " + what);
+        } catch (IOException expected) {
+            // ok
+        }
+    }
+
+    private static OverlaySnapshot sample() {
+        OverlaySnapshot snapshot = new OverlaySnapshot();
+        snapshot.bubbleX = 42;
+        snapshot.bubbleY = 640;
+        snapshot.overlayType = "stack";
+        snapshot.addonMask = 0b101;
+        HashMap<String, Object> shown = new HashMap<>();
+        shown.put("pickup", "Koramangala");
+        shown.put("fare", 180);
+        shown.put("surge", true);
+        shown.put("note", null);
+        shown.put("addonAmounts", Arrays.asList(5, 10));
+        snapshot.shown = shown;
+        snapshot.offers.add(new OverlaySnapshot.Offer("o1", 0, 0, new HashMap<>()));
+        HashMap<String, Object> trip = new HashMap<>();
+        trip.put("drop", "HSR");
+        HashMap<String, Object> payload = new HashMap<>();
+        payload.put("trip", trip);
+        snapshot.offers.add(new OverlaySnapshot.Offer("o2", 3, 1_700_000_000_000L, payload));
+        HashMap<String, Object> earnings = new HashMap<>();
+        earnings.put("type", "bubble");
+        snapshot.windows.add(new OverlaySnapshot.Window("earnings", -3, 900, earnings));
+        return snapshot;
+    }
+}
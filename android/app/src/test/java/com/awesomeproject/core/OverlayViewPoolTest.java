@@ -0,0 +1,87 @@
+package com.awesomeproject.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Application;
+import android.content.res.Configuration;
+import android.os.Looper;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.awesomeproject.R;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class OverlayViewPoolTest {
+
+    private OverlayViewPool mPool;
+    private int mReady;
+
+    @Before
+    public void setUp() {
+        Application app = ApplicationProvider.getApplicationContext();
+        mPool = new OverlayViewPool(new ContextThemeWrapper(app, R.style.AppTheme), Runnable::run);
+    }
+
+    @Test
+    public void prewarmInflatesOffTheUiPathAndIsIdempotent() {
+        mPool.prewarm(() -> mReady++);
+        mPool.prewarm(() -> mReady++); // joins the one in flight
+        assertEquals(0, mReady); // views are handed over on the main looper
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(2, mReady);
+        assertTrue(mPool.isWarm());
+        assertEquals(0, mPool.getInflateCount()); // nothing inflated on the UI thread
+
+        mPool.prewarm(() -> mReady++); // already warm, called straight back
+        assertEquals(3, mReady);
+
+        View card = mPool.acquire("card");
+        assertNotNull(card);
+        assertTrue("card was not pre-measured", card.getMeasuredWidth() > 0);
+        assertEquals(0, mPool.getInflateCount());
+    }
+
+    @Test
+    public void configurationChangeDropsWarmViews() {
+        mPool.prewarm(null);
+        shadowOf(Looper.getMainLooper()).idle();
+        View inUse = mPool.acquire("card");
+        View idleBubble = mPool.acquire("bubble");
+        mPool.release("bubble", idleBubble);
+
+        mPool.onConfigurationChanged(new Configuration());
+        assertFalse(mPool.isWarm());
+        shadowOf(Looper.getMainLooper()).idle(); // re-warmed for the new configuration
+        assertTrue(mPool.isWarm());
+        assertNotSame(idleBubble, mPool.acquire("bubble"));
+
+        mPool.release("card", inUse); // built for the old configuration, not pooled
+        assertNotSame(inUse, mPool.acquire("card"));
+    }
+
+    @Test
+    public void releasedViewsAreReused() {
+        mPool.prewarm(null);
+        shadowOf(Looper.getMainLooper()).idle();
+        View dismiss = mPool.acquire("dismiss");
+        mPool.release("dismiss", dismiss);
+        assertSame(dismiss, mPool.acquire("dismiss"));
+        assertNotNull(mPool.acquire("dismiss")); // pool is empty now, inflated on the spot
+        assertEquals(1, mPool.getInflateCount());
+    }
+}
@@ -0,0 +1,163 @@
+package com.awesomeproject.core;
+
+import static com.awesomeproject.core.TouchGestureRecognizer.ACTION_CANCEL;
+import static com.awesomeproject.core.TouchGestureRecognizer.ACTION_DOWN;
+import static com.awesomeproject.core.TouchGestureRecognizer.ACTION_MOVE;
+import static com.awesomeproject.core.TouchGestureRecognizer.ACTION_UP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class TouchGestureRecognizerTest {
+
+    private static final long LONG_PRESS_MS = 400;
+    private static final long DOUBLE_TAP_MS = 300;
+
+    private final FakeTimer mTimer = new FakeTimer();
+    private final Recorder mEvents = new Recorder();
+    private final TouchGestureRecognizer mRecognizer =
+            new TouchGestureRecognizer(mEvents, mTimer, LONG_PRESS_MS, DOUBLE_TAP_MS);
+
+    @Before
+    public void setUp() {
+        mRecognizer.setSlop(16, 100);
+    }
+
+    @Test
+    public void jitterUnderSlopIsATap() {
+        mRecognizer.onTouchEvent(ACTION_DOWN, 100, 100, 1000);
+        mRecognizer.onTouchEvent(ACTION_MOVE, 108, 95, 1040);
+        mRecognizer.onTouchEvent(ACTION_UP, 108, 95, 1080);
+        mEvents.assertSeen("down", "tap");
+        assertNull(mTimer.pending); // long-press timeout dropped on up
+    }
+
+    @Test
+    public void movingPastSlopDrags() {
+        mRecognizer.onTouchEvent(ACTION_DOWN, 100, 100, 1000);
+        mRecognizer.onTouchEvent(ACTION_MOVE, 120, 100, 1016);
+        assertTrue(mRecognizer.isDragging());
+        mRecognizer.onTouchEvent(ACTION_MOVE, 160, 130, 1032);
+        mRecognizer.onTouchEvent(ACTION_UP, 160, 130, 1048);
+        mEvents.assertSeen("down", "dragStart", "drag 120,100", "drag 160,130", "dragEnd 160,130");
+        assertEquals(100, mRecognizer.getDownX(), 0);
+        assertNull(mTimer.pending);
+    }
+
+    @Test
+    public void secondTapInTimeIsADoubleTap() {
+        tap(100, 100, 1000);
+        tap(130, 110, 1000 + 50 + DOUBLE_TAP_MS); // measured from the first up
+        tap(130, 110, 2000); // third tap starts over
+        mEvents.assertSeen("down", "tap", "down", "doubleTap", "down", "tap");
+    }
+
+    @Test
+    public void lateOrFarSecondTapIsATap() {
+        tap(100, 100, 1000);
+        tap(100, 100, 1000 + 50 + DOUBLE_TAP_MS + 1);
+        tap(300, 100, 1500); // in time, out of double-tap slop
+        mEvents.assertSeen("down", "tap", "down", "tap", "down", "tap");
+    }
+
+    @Test
+    public void holdingStillLongPressesThenDrags() {
+        mRecognizer.onTouchEvent(ACTION_DOWN, 100, 100, 1000);
+        mTimer.fire();
+        mRecognizer.onTouchEvent(ACTION_MOVE, 103, 100, 1416); // no slop to cross after a long press
+        mRecognizer.onTouchEvent(ACTION_UP, 103, 100, 1500);
+        mEvents.assertSeen("down", "longPress", "dragStart", "drag 103,100", "dragEnd 103,100");
+    }
+
+    @Test
+    public void eventTimesCatchALateLongPressTimer() {
+        mRecognizer.onTouchEvent(ACTION_DOWN, 100, 100, 1000);
+        mRecognizer.onTouchEvent(ACTION_UP, 100, 100, 1000 + LONG_PRESS_MS); // UI thread was busy
+        mEvents.assertSeen("down", "longPress", "dragStart", "dragEnd 100,100");
+        assertNull(mTimer.pending);
+    }
+
+    @Test
+    public void cancelEndsTheDragAsCancelled() {
+        mRecognizer.onTouchEvent(ACTION_DOWN, 100, 100, 1000);
+        mRecognizer.onTouchEvent(ACTION_MOVE, 100, 150, 1016);
+        assertTrue(mRecognizer.onTouchEvent(ACTION_CANCEL, 100, 150, 1032));
+        assertFalse(mRecognizer.onTouchEvent(ACTION_MOVE, 100, 200, 1048)); // nothing followed until a down
+        mEvents.assertSeen("down", "dragStart", "drag 100,150", "dragEnd 100,150 cancelled");
+    }
+
+    private void tap(float x, float y, long downMs) {
+        mRecognizer.onTouchEvent(ACTION_DOWN, x, y, downMs);
+        mRecognizer.onTouchEvent(ACTION_UP, x, y, downMs + 50);
+    }
+
+    private static final class Recorder implements TouchGestureRecognizer.Listener {
+        final ArrayList<String> seen = new ArrayList<>();
+
+        void assertSeen(String... expected) {
+            assertEquals(Arrays.asList(expected), seen);
+        }
+
+        @Override
+        public void onDown(float rawX, float rawY) {
+            seen.add("down");
+        }
+
+        @Override
+        public void onTap(float rawX, float rawY) {
+            seen.add("tap");
+        }
+
+        @Override
+        public void onDoubleTap(float rawX, float rawY) {
+            seen.add("doubleTap");
+        }
+
+        @Override
+        public void onLongPress(float rawX, float rawY) {
+            seen.add("longPress");
+        }
+
+        @Override
+        public void onDragStart(float rawX, float rawY) {
+            seen.add("dragStart");
+        }
+
+        @Override
+        public void onDrag(float rawX, float rawY) {
+            seen.add("drag " + (int) rawX + "," + (int) rawY);
+        }
+
+        @Override
+        public void onDragEnd(float rawX, float rawY, boolean cancelled) {
+            seen.add("dragEnd " + (int) rawX + "," + (int) rawY + (cancelled ? " cancelled" : ""));
+        }
+    }
+
+    private static final class FakeTimer implements OfferExpiryScheduler.Timer {
+        Runnable pending;
+
+        @Override
+        public void schedule(Runnable tick, long delayMs) {
+            pending = tick;
+        }
+
+        @Override
+        public void cancel(Runnable tick) {
+            if (pending == tick) pending = null;
+        }
+
+        void fire() {
+            Runnable tick = pending;
+            pending = null;
+            tick.run();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.awesomeproject.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TripEtaEstimatorTest {
+
+    private static final double METRES_PER_DEGREE = 111_195.08; // along a meridian, mean radius
+
+    @Test
+    public void greatCircleDistance() {
+        assertEquals(METRES_PER_DEGREE, TripEtaEstimator.distanceM(0, 0, 1, 0), 0.5);
+        assertEquals(0, TripEtaEstimator.distanceM(12.9352, 77.6245, 12.9352, 77.6245), 1e-6);
+        // Koramangala -> Indiranagar, ~4.4 km as the crow flies
+        assertEquals(4_450, TripEtaEstimator.distanceM(12.9352, 77.6245, 12.9719, 77.6412), 50);
+        // antipodes don't blow up
+        assertEquals(Math.PI * TripEtaEstimator.EARTH_RADIUS_M, TripEtaEstimator.distanceM(0, 0, 0, 180), 1);
+    }
+
+    @Test
+    public void replayedTrackConvergesOnTheDrivenSpeed() {
+        // pickup due north, driver at 10 m/s with a fix every second, starting 3 km away
+        TripEtaEstimator eta = new TripEtaEstimator(13.0, 77.6);
+        double lat = 13.0 - 3_000 / METRES_PER_DEGREE;
+        assertEquals(TripEtaEstimator.NO_ETA, eta.getEtaSeconds());
+        for (int second = 0; second <= 60; second++) {
+            assertTrue(eta.onSample(lat, 77.6, second * 1000L));
+            lat += 10 / METRES_PER_DEGREE;
+        }
+        assertEquals(2_400, eta.getDistanceM(), 1);
+        assertEquals(10, eta.getSpeedMps(), 0.1);
+        assertEquals(240, eta.getEtaSeconds(), 3);
+    }
+
+    @Test
+    public void jumpsAndOutOfOrderFixesAreDropped() {
+        TripEtaEstimator eta = new TripEtaEstimator(13.0, 77.6);
+        assertTrue(eta.onSample(12.99, 77.6, 1_000));
+        double distance = eta.getDistanceM();
+        assertFalse(eta.onSample(12.94, 77.6, 2_000)); // 5.5 km in a second
+        assertFalse(eta.onSample(12.991, 77.6, 500)); // older than the last fix
+        assertEquals(distance, eta.getDistanceM(), 0);
+        assertEquals(TripEtaEstimator.DEFAULT_SPEED_MPS, eta.getSpeedMps(), 0);
+    }
+
+    @Test
+    public void standingStillUsesTheSpeedFloor() {
+        TripEtaEstimator eta = new TripEtaEstimator(13.0, 77.6);
+        double lat = 13.0 - 1_200 / METRES_PER_DEGREE;
+        for (int second = 0; second <= 120; second++) {
+            eta.onSample(lat, 77.6, second * 1000L); // parked at a light for two minutes
+        }
+        assertTrue(eta.getSpeedMps() < TripEtaEstimator.MIN_SPEED_MPS);
+        assertEquals(600, eta.getEtaSeconds(), 1); // 1200 m at the 2 m/s floor
+    }
+}
@@ -0,0 +1,142 @@
+package com.awesomeproject.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class TripEtaUpdaterTest {
+
+    private static final double METRES_PER_DEGREE = 111_195.08;
+    private static final double PICKUP_LAT = 13.0;
+    private static final double PICKUP_LNG = 77.6;
+
+    private final FakeSource mSource = new FakeSource();
+    private final FakeTimer mTimer = new FakeTimer();
+    private long mNowMs = 100_000;
+    private final TripEtaUpdater mUpdater = new TripEtaUpdater(mSource, () -> mNowMs, mTimer);
+    private final ArrayList<String> mShown = new ArrayList<>();
+
+    @Test
+    public void sourceRunsOnlyWhileACardIsTracked() {
+        Object card = new Object();
+        assertFalse(mSource.started);
+        mUpdater.track(card, PICKUP_LAT, PICKUP_LNG, this::show);
+        mUpdater.track(new Object(), PICKUP_LAT, PICKUP_LNG, this::show);
+        assertEquals(1, mSource.starts);
+        mUpdater.untrack(card);
+        assertTrue(mSource.started);
+        mUpdater.release();
+        assertFalse(mSource.started);
+    }
+
+    @Test
+    public void fixesAreThrottledAndOnlyChangesReachTheViews() {
+        mUpdater.track(new Object(), PICKUP_LAT, PICKUP_LNG, this::show);
+        fixAt(4_230, 0);
+        assertEquals("4.2 km|12 min", mShown.get(0)); // first fix goes straight out, at the default speed
+
+        mNowMs += 200;
+        fixAt(4_228, 200); // same rounded texts, and inside the throttle window
+        assertEquals(1, mShown.size());
+        assertTrue(mTimer.pending != null); // trailing apply
+        mNowMs += 800;
+        mTimer.fire();
+        assertEquals(1, mShown.size()); // nothing visible changed
+
+        mNowMs += 20_000;
+        fixAt(3_900, 20_000); // ~17 m/s since the last fix
+        assertEquals(2, mShown.size());
+        assertTrue(mShown.get(1).startsWith("3.9 km|"));
+    }
+
+    @Test
+    public void fixesAfterUntrackGoNowhere() {
+        Object card = new Object();
+        mUpdater.track(card, PICKUP_LAT, PICKUP_LNG, this::show);
+        fixAt(2_000, 0);
+        mNowMs += 100;
+        fixAt(1_990, 100);
+        mUpdater.untrack(card);
+        assertNull(mTimer.pending); // pending apply cancelled with the source
+        assertEquals(1, mShown.size());
+    }
+
+    @Test
+    public void reboundCardKeepsItsEstimateAndRewrites() {
+        Object card = new Object();
+        mUpdater.track(card, PICKUP_LAT, PICKUP_LNG, this::show);
+        fixAt(800, 0);
+        assertEquals("800 m|3 min", mShown.get(0));
+
+        mUpdater.track(card, PICKUP_LAT, PICKUP_LNG, this::show); // stack rebinding the same offer
+        assertEquals(1, mSource.starts);
+        mNowMs += 1000;
+        fixAt(800, 1_000); // nothing moved, but the rebind restored the payload texts
+        assertEquals(2, mShown.size());
+    }
+
+    @Test
+    public void textFormats() {
+        assertEquals(850, TripEtaUpdater.roundDistanceM(837));
+        assertEquals(4_200, TripEtaUpdater.roundDistanceM(4_230));
+        assertEquals(123_000, TripEtaUpdater.roundDistanceM(123_400));
+        assertEquals("850 m", TripEtaUpdater.formatDistance(850));
+        assertEquals("1.0 km", TripEtaUpdater.formatDistance(1_000));
+        assertEquals("123 km", TripEtaUpdater.formatDistance(123_000));
+        assertEquals(1, TripEtaUpdater.etaMinutes(20));
+        assertEquals(18, TripEtaUpdater.etaMinutes(18 * 60));
+        assertEquals("1 h 5 min", TripEtaUpdater.formatMinutes(65));
+    }
+
+    // a fix metresSouth of the pickup
+    private void fixAt(double metresSouth, long timeMs) {
+        mSource.listener.onLocation(PICKUP_LAT - metresSouth / METRES_PER_DEGREE, PICKUP_LNG, timeMs);
+    }
+
+    private void show(String distance, String duration) {
+        mShown.add(distance + "|" + duration);
+    }
+
+    private static final class FakeSource implements LocationSource {
+        Listener listener;
+        boolean started;
+        int starts;
+
+        @Override
+        public void start(Listener listener) {
+            this.listener = listener;
+            started = true;
+            starts++;
+        }
+
+        @Override
+        public void stop() {
+            started = false;
+        }
+    }
+
+    private static final class FakeTimer implements OfferExpiryScheduler.Timer {
+        Runnable pending;
+
+        @Override
+        public void schedule(Runnable tick, long delayMs) {
+            pending = tick;
+        }
+
+        @Override
+        public void cancel(Runnable tick) {
+            if (pending == tick) pending = null;
+        }
+
+        void fire() {
+            Runnable tick = pending;
+            pending = null;
+            tick.run();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.awesomeproject.permission;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class OverlayPermissionStateTest {
+
+    private boolean mSystemGranted;
+    private int mChecks;
+
+    @Test
+    public void readsAreCachedAndOnlyChangesAreReported() {
+        mSystemGranted = false;
+        OverlayPermissionState state = new OverlayPermissionState(this::check);
+        ArrayList<Boolean> reported = new ArrayList<>();
+        state.addListener(reported::add);
+
+        for (int i = 0; i < 10; i++) {
+            assertFalse(state.isGranted());
+        }
+        assertEquals(1, mChecks); // the constructor's
+
+        state.refresh(); // resume without a change
+        assertEquals(0, reported.size());
+
+        mSystemGranted = true; // user flipped the switch in settings
+        assertTrue(state.refresh());
+        assertTrue(state.isGranted());
+        state.refresh(); // op listener and resume both fire
+        assertEquals(1, reported.size());
+        assertTrue(reported.get(0));
+
+        mSystemGranted = false;
+        state.refresh();
+        assertEquals(2, reported.size());
+        assertFalse(reported.get(1));
+    }
+
+    @Test
+    public void removedListenersHearNothing() {
+        OverlayPermissionState state = new OverlayPermissionState(this::check);
+        ArrayList<Boolean> reported = new ArrayList<>();
+        OverlayPermissionState.Listener listener = reported::add;
+        state.addListener(listener);
+        state.removeListener(listener);
+        mSystemGranted = true;
+        state.refresh();
+        assertEquals(0, reported.size());
+    }
+
+    private boolean check() {
+        mChecks++;
+        return mSystemGranted;
+    }
+}
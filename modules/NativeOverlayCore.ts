@@ -0,0 +1,45 @@
+// Codegen spec for the OverlayCore TurboModule, mirrors OverlayCoreModuleInterface in OverlayCore.ts.
+// Codegen only reads types declared in this file, so the payload shapes are restated here; overlay
+// payloads stay UnsafeObject because codegen has no unions of object types.
+import type { TurboModule } from 'react-native';
+import { TurboModuleRegistry } from 'react-native';
+import type { UnsafeObject } from 'react-native/Libraries/Types/CodegenTypes';
+
+export type OverlayOpSpec = {
+  op: string; // 'show' | 'transition' | 'update' | 'hide'
+  id: string;
+  data?: UnsafeObject;
+};
+
+export interface Spec extends TurboModule {
+  prewarm(): Promise<void>;
+  showOverlay(data: UnsafeObject): Promise<void>;
+  transitionOverlay(data: UnsafeObject): Promise<void>;
+  setLowOverdrawMode(enabled: boolean): Promise<void>;
+  refreshLocationAccess(): Promise<void>;
+  hideOverlay(): Promise<void>;
+  updateOverlay(data: UnsafeObject): Promise<void>;
+  showOverlayWindow(id: string, data: UnsafeObject): Promise<void>;
+  transitionOverlayWindow(id: string, data: UnsafeObject): Promise<void>;
+  updateOverlayWindow(id: string, data: UnsafeObject): Promise<void>;
+  hideOverlayWindow(id: string): Promise<void>;
+  applyOverlayBatch(ops: OverlayOpSpec[]): Promise<void>;
+  getOverlayIds(): Promise<string[]>;
+
+  // Fire-and-forget: no promise, failures are only logged natively.
+  postOverlayUpdate(id: string, data: UnsafeObject): void;
+  // Same, with plain arguments instead of a payload object.
+  postBadgeCount(id: string, badgeCount: number): void;
+  postCardTrip(id: string, distance: string | null, duration: string | null): void;
+
+  enqueueOffer(data: UnsafeObject): Promise<number>;
+  removeOffer(offerId: string): Promise<void>;
+  clearOffers(): Promise<void>;
+  getEventStats(): Promise<UnsafeObject>;
+  getOverlayMetrics(): Promise<UnsafeObject>;
+  resetOverlayMetrics(): Promise<void>;
+  getOverlayState(): Promise<UnsafeObject>;
+}
+
+// null on the old architecture, OverlayCore.ts falls back to the bridge module.
+export default TurboModuleRegistry.get<Spec>('OverlayCore');
@@ -0,0 +1,44 @@
+// On-device comparison of the bridge module and the TurboModule for overlay updates.
+// Needs a bubble on screen (main window); run it from the demo screen.
+import OverlayCore, { isTurboModule, LegacyOverlayCore, MAIN_OVERLAY_ID } from './OverlayCore';
+
+// Calls per second for one way of updating the bubble.
+export interface UpdateBenchmarkResult {
+  path: string;
+  calls: number;
+  callsPerSecond: number;
+}
+
+type Core = typeof OverlayCore;
+
+// Every update, then one awaited call behind them: native runs calls in order, so when it
+// resolves all the updates have been applied on the UI thread.
+async function measure(path: string, core: Core, calls: number, update: (core: Core, i: number) => unknown) {
+  const start = performance.now();
+  const pending: unknown[] = [];
+  for (let i = 0; i < calls; i++) {
+    pending.push(update(core, i));
+  }
+  await Promise.all(pending);
+  await core.getOverlayIds();
+  const elapsedMs = performance.now() - start;
+  return { path, calls, callsPerSecond: Math.round((calls * 1000) / elapsedMs) };
+}
+
+// Badge updates on every available path, slowest first.
+export async function benchmarkUpdates(calls: number = 2000): Promise<UpdateBenchmarkResult[]> {
+  const results: UpdateBenchmarkResult[] = [];
+  const paths: [string, Core][] = [['bridge', LegacyOverlayCore]];
+  if (isTurboModule) {
+    paths.push(['turbo', OverlayCore]);
+  }
+  for (const [name, core] of paths) {
+    results.push(await measure(`${name} updateOverlay`, core, calls,
+      (c, i) => c.updateOverlay({ badgeCount: i % 10 })));
+    results.push(await measure(`${name} postOverlayUpdate`, core, calls,
+      (c, i) => c.postOverlayUpdate(MAIN_OVERLAY_ID, { badgeCount: i % 10 })));
+    results.push(await measure(`${name} postBadgeCount`, core, calls,
+      (c, i) => c.postBadgeCount(MAIN_OVERLAY_ID, i % 10)));
+  }
+  return results;
+}
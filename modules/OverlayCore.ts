@@ -1,13 +1,17 @@
 // Bridge to native code.
 import { NativeModules } from 'react-native';
 
-// Our specific overlay module.
+// TurboModule (new architecture), null otherwise; see NativeOverlayCore.ts.
+import NativeOverlayCore from './NativeOverlayCore';
+
+// Our specific overlay module, the bridge version. Fallback when the TurboModule isn't there.
 const { OverlayCoreModule } = NativeModules;
 
 // Data for the bubble view.
 export interface BubbleData {
   type: 'bubble'; // Tells native which view to inflate.
   badgeCount?: number; // Optional badge number.
+  trip?: Omit<CardData, 'type'>; // Card to open on tap; persisted natively so it survives a restart.
 }
 
 // Data for the trip card view.
@@ -20,20 +24,148 @@ export interface CardData {
   baseFare: string;
   customerName: string;
   carType: string;
+  expiresAt?: number; // Epoch ms. Native shows a countdown and fires onTripExpired.
+  addonAmounts?: number[]; // Rupees per add-on button (max 5). Default 5, 10, 15, 20, 25.
+  maxAddon?: number; // Cap on selected add-ons in rupees. Default 50.
+  addonMode?: 'stack' | 'single'; // Add-ons sum up, or only one at a time. Default 'stack'.
+  // Pickup point. With both set, native keeps distance/duration live from location fixes (needs location
+  // permission, OverlayService asks for it); the strings above show until the first fix. Without it,
+  // or on a card a push brought up with the app in the background (Android 14+), they stay as sent
+  // while another app is in front. Don't send updateOverlay for them as well.
+  pickupLatitude?: number;
+  pickupLongitude?: number;
+  // 'drawn' renders the card as one custom-drawn native view instead of the XML layout (default
+  // 'layout'); same content and look, cheaper measure/layout on fare and ETA changes. Show/transition only.
+  cardRenderer?: 'layout' | 'drawn';
+}
+
+// Swipeable stack of every queued offer (see enqueueOffer).
+export interface StackData {
+  type: 'stack';
 }
 
-// An overlay can be a bubble or a card.
-export type OverlayData = BubbleData | CardData;
+// A queued trip offer: card fields plus queue metadata.
+export interface OfferData extends Omit<CardData, 'type'> {
+  offerId: string; // Unique; enqueueing the same id replaces the offer.
+  priority?: number; // Higher shows first. Default 0.
+}
+
+// An overlay can be a bubble, a card, or the offer stack.
+export type OverlayData = BubbleData | CardData | StackData;
+
+// Id of the window the id-less calls (showOverlay, hideOverlay, ...) address.
+export const MAIN_OVERLAY_ID = 'main';
+
+// One entry of applyOverlayBatch; ops run in order in a single native UI pass.
+export type OverlayOp =
+  | { op: 'show' | 'transition'; id: string; data: OverlayData }
+  | { op: 'update'; id: string; data: Omit<OverlayData, 'type'> }
+  | { op: 'hide'; id: string };
+
+// Every native event carries the id of the window it came from.
+export interface OverlayEvent {
+  overlayId?: string; // MAIN_OVERLAY_ID for the id-less overlay; absent for queued offers that weren't on screen.
+}
+
+// Payload of onTripAccepted / onTripIgnored / onTripExpired.
+export interface TripDecisionEvent extends OverlayEvent {
+  offerId?: string; // Set for queued offers and native (push) cards.
+  finalFare?: number; // Rupees, onTripAccepted only.
+  replayed?: boolean; // Decided while JS wasn't running; the card is already gone.
+  decidedAt?: number; // Epoch ms, replayed events only.
+}
+
+// Native event counters.
+export interface EventStats {
+  emitted: number; // Events delivered to JS.
+  coalesced: number; // Events dropped by debounce or latest-wins.
+}
+
+// Latency summary for one operation phase, in ms.
+export interface LatencyStats {
+  count: number;
+  mean: number;
+  p50: number;
+  p90: number;
+  p99: number;
+  max: number;
+}
+
+// Native overlay timings. Keys are "<op>.<phase>": op is show | update | hide | transition | nativeCard,
+// phase is total | bridge | inflate | bind | window | firstDraw. Phases with no samples are omitted.
+// Bubble drags add "drag.frameDelay": vsync -> the drag frame running on the UI thread.
+export interface OverlayMetrics {
+  histograms: Record<string, LatencyStats>;
+  counters: {
+    dragFrames: number; // Coalesced bubble positions applied.
+    layoutUpdates: number; // WindowManager.updateViewLayout calls.
+  };
+  render: {
+    blendedPixels: number; // Area of the overlay windows the compositor blends (translucent).
+    opaquePixels: number; // Area of the overlay windows drawn opaque (low-overdraw cards).
+  };
+}
+
+// What native is showing (restored from its snapshot after process death).
+export interface OverlayState {
+  type: OverlayData['type'] | null;
+  data: OverlayData | null; // Last shown/updated data.
+  queuedOffers: number;
+  overlays: { id: string; type: OverlayData['type']; data: OverlayData }[]; // Every window on screen, main included.
+}
 
 // TS blueprint for the native module.
 interface OverlayCoreModuleInterface {
+  // Inflate overlay views off the UI thread ahead of the first offer; safe to call more than once.
+  prewarm(): Promise<void>;
   // Show an overlay.
   showOverlay(data: OverlayData): Promise<void>;
+  // Swap the visible overlay in place (bubble <-> card); shows it if nothing is up.
+  transitionOverlay(data: OverlayData): Promise<void>;
+  // Opaque flat cards and hardware layers while the bubble moves, for low-end phones. From the next show.
+  setLowOverdrawMode(enabled: boolean): Promise<void>;
+  // Call after the location permission prompt, while the app is in front: live ETA cards start getting
+  // fixes, and the host service takes the location type so they keep coming with another app in front.
+  refreshLocationAccess(): Promise<void>;
   // Hide any visible overlay.
   hideOverlay(): Promise<void>;
   // Update data on a visible overlay.
   updateOverlay(data: Omit<OverlayData, 'type'>): Promise<void>;
+  // Same as the calls above, for the overlay window with this id (max 4 windows, main included).
+  showOverlayWindow(id: string, data: OverlayData): Promise<void>;
+  transitionOverlayWindow(id: string, data: OverlayData): Promise<void>;
+  updateOverlayWindow(id: string, data: Omit<OverlayData, 'type'>): Promise<void>;
+  hideOverlayWindow(id: string): Promise<void>;
+  // Run several window ops in one bridge call; stops at the first failure, earlier ops stay applied.
+  applyOverlayBatch(ops: OverlayOp[]): Promise<void>;
+  // Ids of the overlay windows on screen.
+  getOverlayIds(): Promise<string[]>;
+  // Fire-and-forget updates for frequent refreshes: no promise, errors are only logged natively.
+  postOverlayUpdate(id: string, data: Omit<OverlayData, 'type'>): void;
+  // Same with plain arguments, nothing for native to unpack. null leaves a field as it is.
+  postBadgeCount(id: string, badgeCount: number): void;
+  postCardTrip(id: string, distance: string | null, duration: string | null): void;
+  // Queue an offer natively; resolves with the queue length. Drives the bubble badge and the stack.
+  enqueueOffer(data: OfferData): Promise<number>;
+  // Drop a queued offer.
+  removeOffer(offerId: string): Promise<void>;
+  // Drop all queued offers.
+  clearOffers(): Promise<void>;
+  // Read native event batching counters.
+  getEventStats(): Promise<EventStats>;
+  // Read overlay latency histograms and counters.
+  getOverlayMetrics(): Promise<OverlayMetrics>;
+  // Clear all histograms and counters.
+  resetOverlayMetrics(): Promise<void>;
+  // Read what native is showing, to rehydrate JS state after a restart.
+  getOverlayState(): Promise<OverlayState>;
 }
 
+// True when calls go through JSI rather than the bridge.
+export const isTurboModule = NativeOverlayCore != null;
+
+// The bridge module even when the TurboModule exists, for comparing the two (see OverlayBenchmark.ts).
+export const LegacyOverlayCore = OverlayCoreModule as OverlayCoreModuleInterface;
+
 // Export with types.
-export default OverlayCoreModule as OverlayCoreModuleInterface;
+export default (NativeOverlayCore ?? OverlayCoreModule) as OverlayCoreModuleInterface;
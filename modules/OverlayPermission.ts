@@ -4,9 +4,16 @@ import { NativeModules } from 'react-native';
 // Our specific permission module.
 const { OverlayPermissionModule } = NativeModules;
 
+// Payload of onOverlayPermissionChanged, pushed when the user flips the switch in settings.
+export interface OverlayPermissionEvent {
+  granted: boolean;
+}
+
 // TS blueprint for the native module.
 interface OverlayPermissionModuleInterface {
-  // check if permission is granted.
+  // permission when the module loaded; follow onOverlayPermissionChanged from there.
+  readonly granted: boolean;
+  // check if permission is granted (cached natively, no system call).
   checkOverlayPermission(): Promise<boolean>;
   // ask for permission.
   requestOverlayPermission(): Promise<void>;
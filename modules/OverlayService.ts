@@ -1,12 +1,19 @@
 // RN tools for app state and native events.
-import { AppState, NativeEventEmitter, NativeModules, AppStateStatus } from 'react-native';
+import { AppState, NativeEventEmitter, AppStateStatus, PermissionsAndroid } from 'react-native';
 
 // Our overlay modules.
-import OverlayPermission from './OverlayPermission';
-import OverlayCore, { OverlayData, CardData } from './OverlayCore';
+import OverlayPermission, { OverlayPermissionEvent } from './OverlayPermission';
+import OverlayCore, {
+    MAIN_OVERLAY_ID,
+    OverlayData,
+    CardData,
+    OfferData,
+    OverlayEvent,
+    TripDecisionEvent,
+} from './OverlayCore';
 
-// Emitter for native -> JS events.
-const eventEmitter = new NativeEventEmitter(NativeModules.OverlayCoreModule);
+// Emitter for native -> JS events. Android only; both overlay modules emit on the global device emitter.
+const eventEmitter = new NativeEventEmitter();
 
 // Manages the entire overlay system.
 class OverlayService {
@@ -14,6 +21,8 @@ class OverlayService {
     private currentOverlay: OverlayData | null = null; // 'bubble', 'card', or null
     private tripDataForBubble: Omit<CardData, 'type'> | null = null; // Cache trip data for bubble
     private lastBadgeCount: number = 1; // Cache badge count for bubble
+    private permissionGranted: boolean = OverlayPermission.granted ?? false; // Pushed by native, no per-show check
+    private locationAsked: boolean = false; // Location prompt shown once per session, on the first live-ETA card
 
     // Set up listeners on init.
     constructor() {
@@ -25,6 +34,14 @@ class OverlayService {
         eventEmitter.addListener('onBubbleClicked', this.handleBubbleClick);
         eventEmitter.addListener('onTripAccepted', this.handleTripAccept);
         eventEmitter.addListener('onTripIgnored', this.handleTripIgnored);
+        eventEmitter.addListener('onTripExpired', this.handleTripExpired);
+        eventEmitter.addListener('onOverlayPermissionChanged', this.handlePermissionChanged);
+
+        // Native may have restored an overlay from its snapshot; pick up where it left off.
+        this.rehydrate();
+
+        // Warm the overlay views now so the first trip card doesn't pay for inflation.
+        this.prewarm();
     }
 
     // --- Public API ---
@@ -41,6 +58,31 @@ class OverlayService {
 
     // --- Event Handlers & Core Logic ---
 
+    // Adopt native overlay state (bubble, trip data, badge) after process death.
+    private rehydrate = async () => {
+        try {
+            const state = await OverlayCore.getOverlayState();
+            if (!state.type || !state.data || this.currentOverlay) return;
+            this.currentOverlay = state.data;
+            if (state.data.type === 'bubble') {
+                this.tripDataForBubble = state.data.trip ?? null;
+                this.lastBadgeCount = state.data.badgeCount ?? this.lastBadgeCount;
+            }
+            console.log('OverlayService: Rehydrated native overlay:', state.type);
+        } catch (error) {
+            console.warn('OverlayService: Could not read native overlay state:', error);
+        }
+    };
+
+    // Inflate native overlay views in the background at app start.
+    private prewarm = async () => {
+        try {
+            await OverlayCore.prewarm();
+        } catch (error) {
+            console.warn('OverlayService: Could not prewarm overlays:', error);
+        }
+    };
+
     // Reshow overlay when app comes to foreground.
     private handleAppStateChange = async (nextAppState: AppStateStatus) => {
         console.log('OverlayService: App state ->', nextAppState);
@@ -51,8 +93,20 @@ class OverlayService {
         }
     };
 
+    // Events from other overlay windows are for whoever showed them (see addEventListener).
+    private isFromOtherWindow(event?: OverlayEvent): boolean {
+        return !!event?.overlayId && event.overlayId !== MAIN_OVERLAY_ID;
+    }
+
+    // User flipped the overlay switch in settings (or came back from it).
+    private handlePermissionChanged = (event: OverlayPermissionEvent) => {
+        console.log('OverlayService: Overlay permission ->', event.granted);
+        this.permissionGranted = event.granted;
+    };
+
     // User tapped bubble -> show card.
-    private handleBubbleClick = () => {
+    private handleBubbleClick = (event?: OverlayEvent) => {
+        if (this.isFromOtherWindow(event)) return;
         console.log('OverlayService: Bubble clicked.');
         if (this.tripDataForBubble) {
             this.showTripCard(this.tripDataForBubble);
@@ -62,14 +116,23 @@ class OverlayService {
     };
 
     // User accepted trip.
-    private handleTripAccept = (event: { finalFare: number }) => {
+    private handleTripAccept = (event: TripDecisionEvent) => {
+        if (this.isFromOtherWindow(event)) return;
         console.log(`Trip accepted. Final fare: ${event.finalFare}`);
+        if (event.replayed) {
+            return; // Accepted on a native card before JS started, nothing on screen.
+        }
         this.hideOverlay(); // Trip accepted, just hide.
     };
 
     // User ignored trip.
-    private handleTripIgnored = () => {
+    private handleTripIgnored = (event?: TripDecisionEvent) => {
+        if (this.isFromOtherWindow(event)) return;
         console.log('Trip ignored.');
+        // Stacked offer or native card: native drops it by itself.
+        if (event?.offerId || event?.replayed) {
+            return;
+        }
         // Ignored, so show bubble again.
         if (this.tripDataForBubble) {
             this.showBubble(this.lastBadgeCount, this.tripDataForBubble);
@@ -78,16 +141,48 @@ class OverlayService {
         }
     };
 
+    // Offer ran out natively (card already hidden, or dropped from the stack).
+    private handleTripExpired = (event?: TripDecisionEvent) => {
+        if (this.isFromOtherWindow(event)) return;
+        console.log('Trip expired.', event?.offerId ?? '');
+        if (event?.offerId || event?.replayed) {
+            return; // Stack/queue handles itself.
+        }
+        this.hideOverlay(); // Nothing left to offer, clear state.
+    };
+
+    // Live ETA on cards with a pickup point needs location. Ask once, and only while the app is in front:
+    // the prompt needs an activity, and the host service can only take the location type from here.
+    private async ensureLocationPermission(data: { pickupLatitude?: number; pickupLongitude?: number }) {
+        if (this.locationAsked || data.pickupLatitude == null || data.pickupLongitude == null) return;
+        if (AppState.currentState !== 'active') return;
+        this.locationAsked = true;
+        try {
+            const result = await PermissionsAndroid.request(PermissionsAndroid.PERMISSIONS.ACCESS_FINE_LOCATION);
+            console.log('OverlayService: Location permission ->', result);
+            await OverlayCore.refreshLocationAccess(); // Also for a denial, native just re-checks.
+        } catch (error) {
+            console.warn('OverlayService: Could not request location permission:', error); // Card keeps its static ETA.
+        }
+    }
+
     // Core logic to show an overlay.
     private async showOverlay(data: OverlayData): Promise<void> {
+        if (data.type === 'card') {
+            await this.ensureLocationPermission(data);
+        }
         try {
             if (this.currentOverlay) {
-                await OverlayCore.hideOverlay(); // Hide existing overlay first.
+                // Swap in place: one native call, no flicker, no permission re-check.
+                console.log('OverlayService: Transitioning overlay:', data);
+                await OverlayCore.transitionOverlay(data);
+                this.currentOverlay = data;
+                return;
             }
-            // Check/request permission.
-            const hasPermission = await OverlayPermission.checkOverlayPermission();
-            if (!hasPermission) {
+            // Only ask when native told us it's missing; native rejects with E_PERMISSION_DENIED anyway.
+            if (!this.permissionGranted) {
                 await OverlayPermission.requestOverlayPermission();
+                this.permissionGranted = true; // Resolved = granted, the event follows.
             }
             console.log('OverlayService: Showing overlay:', data);
             await OverlayCore.showOverlay(data); // Call native method.
@@ -106,7 +201,7 @@ class OverlayService {
         this.tripDataForBubble = tripData;
         this.lastBadgeCount = badgeCount;
         // Call core show logic.
-        await this.showOverlay({ type: 'bubble', badgeCount });
+        await this.showOverlay({ type: 'bubble', badgeCount, trip: tripData });
     }
 
     // Public method to show trip card.
@@ -116,6 +211,37 @@ class OverlayService {
         await this.showOverlay({ type: 'card', ...data });
     }
 
+    // Public method to queue an offer natively (badge and stack update without JS).
+    public async enqueueOffer(offer: OfferData): Promise<number> {
+        console.log('OverlayService: Request to enqueue offer', offer.offerId);
+        await this.ensureLocationPermission(offer);
+        return OverlayCore.enqueueOffer(offer);
+    }
+
+    // Public method to show every queued offer as a swipeable stack.
+    public async showOfferStack(): Promise<void> {
+        console.log('OverlayService: Request to show offer stack.');
+        await this.showOverlay({ type: 'stack' });
+    }
+
+    // Public method to trade the card's rounded look for less compositor work (low-end phones).
+    public async setLowOverdrawMode(enabled: boolean): Promise<void> {
+        console.log('OverlayService: Low-overdraw mode ->', enabled);
+        await OverlayCore.setLowOverdrawMode(enabled);
+    }
+
+    // Public method to show an extra overlay window (e.g. an earnings bubble) next to the main one.
+    public async showOverlayWindow(id: string, data: OverlayData): Promise<void> {
+        console.log('OverlayService: Request to show overlay window', id);
+        await OverlayCore.showOverlayWindow(id, data);
+    }
+
+    // Public method to hide an extra overlay window.
+    public async hideOverlayWindow(id: string): Promise<void> {
+        console.log('OverlayService: Request to hide overlay window', id);
+        await OverlayCore.hideOverlayWindow(id);
+    }
+
     // Public method to hide overlay.
     public async hideOverlay(): Promise<void> {
         console.log('OverlayService: Request to hide overlay.');
@@ -141,7 +267,7 @@ class OverlayService {
             return;
         }
         try {
-            await OverlayCore.updateOverlay({ badgeCount }); // Call native update method.
+            OverlayCore.postBadgeCount(MAIN_OVERLAY_ID, badgeCount); // Fire-and-forget, no promise round-trip.
             this.currentOverlay = { ...this.currentOverlay, badgeCount }; // Update internal state.
         } catch (error) {
             console.error('OverlayService: Failed to update bubble:', error);
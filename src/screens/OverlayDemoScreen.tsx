@@ -6,6 +6,7 @@ import { View, Button, StyleSheet, Text, ScrollView, SafeAreaView, AppState } fr
 import OverlayService from '../../modules/OverlayService';
 import OverlayPermission from '../../modules/OverlayPermission';
 import { CardData } from '../../modules/OverlayCore';
+import { benchmarkUpdates } from '../../modules/OverlayBenchmark';
 import PermissionModal from '../components/PermissionModal';
 
 // Mock data for the new trip card design.
@@ -130,12 +131,29 @@ const OverlayDemoScreen = () => {
     OverlayService.showTripCard(mockTripData).catch(e => log(`Error: ${e.message}`));
   };
 
+  // Same card, drawn by one native view instead of the XML layout.
+  const showDrawnTripCard = () => {
+    log('Showing drawn card...');
+    OverlayService.showTripCard({ ...mockTripData, cardRenderer: 'drawn' }).catch(e => log(`Error: ${e.message}`));
+  };
+
   // Hide any visible overlay.
   const hideOverlay = () => {
     log('Hiding overlay...');
     OverlayService.hideOverlay().catch(e => log(`Error: ${e.message}`));
   };
 
+  // Compare bridge and TurboModule update throughput; needs the bubble up.
+  const runBenchmark = async () => {
+    log('Benchmarking overlay updates...');
+    try {
+      const results = await benchmarkUpdates();
+      results.forEach(r => log(`${r.path}: ${r.callsPerSecond} calls/s (${r.calls} calls)`));
+    } catch (e: any) {
+      log(`Error: ${e.message}`);
+    }
+  };
+
   // JSX for the screen UI.
   return (
     <SafeAreaView style={styles.safeArea}>
@@ -151,7 +169,9 @@ const OverlayDemoScreen = () => {
           <Button title="Request Permission" onPress={requestPermission} />
           <Button title="Show Bubble" onPress={showBubble} />
           <Button title="Show Trip Card" onPress={showTripCard} />
+          <Button title="Show Drawn Trip Card" onPress={showDrawnTripCard} />
           <Button title="Hide Overlay" onPress={hideOverlay} color="#FF6347" />
+          <Button title="Benchmark Updates" onPress={runBenchmark} />
         </View>
         {/* Log display area */}
         <View style={styles.logContainer}>